@@ -0,0 +1,148 @@
+package org.liuxp.minioplus.api;
+
+import cn.hutool.core.lang.Pair;
+import org.liuxp.minioplus.api.model.vo.CompleteResultVo;
+import org.liuxp.minioplus.api.model.vo.FileCheckResultVo;
+import org.liuxp.minioplus.api.model.vo.FileMetadataInfoVo;
+import org.liuxp.minioplus.api.model.vo.FilePartPageVo;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * MinIO Plus 异步接口定义
+ * 与StorageService的同名方法行为一致，调用线程不等待执行结果
+ * 失败时CompletableFuture以MinioPlusException异常结束
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+public interface AsyncStorageService {
+
+    /**
+     * 上传任务初始化
+     * @param fileMd5 文件md5
+     * @param fullFileName 文件名（含扩展名）
+     * @param fileSize 文件长度
+     * @param isPrivate 是否私有 false:否 true:是
+     * @param userId  用户编号
+     * @return {@link FileCheckResultVo}
+     */
+    CompletableFuture<FileCheckResultVo> init(String fileMd5, String fullFileName, long fileSize, Boolean isPrivate, String userId);
+
+    /**
+     * 上传任务初始化，并指定分块信息的返回格式
+     * @param fileMd5 文件md5
+     * @param fullFileName 文件名（含扩展名）
+     * @param fileSize 文件长度
+     * @param isPrivate 是否私有 false:否 true:是
+     * @param userId  用户编号
+     * @param compact 是否返回紧凑格式的分块信息
+     * @return {@link FileCheckResultVo}
+     */
+    CompletableFuture<FileCheckResultVo> init(String fileMd5, String fullFileName, long fileSize, Boolean isPrivate, String userId, Boolean compact);
+
+    /**
+     * 合并已分块的文件
+     * @param fileKey 文件关键
+     * @param partMd5List 文件分块md5列表
+     * @param userId  用户编号
+     * @return {@link CompleteResultVo}
+     */
+    CompletableFuture<CompleteResultVo> complete(String fileKey, List<String> partMd5List, String userId);
+
+    /**
+     * 合并已分块的文件，并指定补传分块信息的返回格式
+     * @param fileKey 文件关键
+     * @param partMd5List 文件分块md5列表
+     * @param userId  用户编号
+     * @param compact 是否返回紧凑格式的分块信息
+     * @return {@link CompleteResultVo}
+     */
+    CompletableFuture<CompleteResultVo> complete(String fileKey, List<String> partMd5List, String userId, Boolean compact);
+
+    /**
+     * 取得下一页分块上传链接
+     * @param fileKey 文件KEY
+     * @param partNumber 起始块号
+     * @param userId 用户编号
+     * @param compact 是否返回紧凑格式的分块信息
+     * @return {@link FilePartPageVo}
+     */
+    CompletableFuture<FilePartPageVo> nextParts(String fileKey, Integer partNumber, String userId, Boolean compact);
+
+    /**
+     * 取得文件下载地址
+     *
+     * @param fileKey 文件KEY
+     * @param userId  用户编号
+     * @return 文件下载地址
+     */
+    CompletableFuture<String> download(String fileKey, String userId);
+
+    /**
+     * 取得有访问权限的文件元数据
+     * 文件不存在或没有访问权限时以文件不存在异常结束
+     *
+     * @param fileKey 文件KEY
+     * @param userId  用户编号
+     * @return 文件元数据
+     */
+    CompletableFuture<FileMetadataInfoVo> one(String fileKey, String userId);
+
+    /**
+     * 取得原图地址
+     *
+     * @param fileKey 文件KEY
+     * @param userId  用户编号
+     * @return 原图地址
+     */
+    CompletableFuture<String> image(String fileKey, String userId);
+
+    /**
+     * 取得缩略图地址
+     *
+     * @param fileKey 文件KEY
+     * @param userId  用户编号
+     * @return 缩略图地址，文件不是图片时为文件类型
+     */
+    CompletableFuture<String> preview(String fileKey, String userId);
+
+    /**
+     * 根据文件key读取文件字节流
+     * 读取文件时不占用线程
+     * @param fileKey 文件key
+     * @return 文件字节流，文件不存在时为null
+     */
+    CompletableFuture<Pair<FileMetadataInfoVo, byte[]>> read(String fileKey);
+
+    /**
+     * 根据文件key读取文件指定范围的输入流
+     * 打开输入流需要访问存储引擎，在线程池中执行，由调用方读取并关闭输入流
+     * @param fileKey 文件key
+     * @param offset 起始位置
+     * @param length 读取长度
+     * @return 文件元数据和输入流，文件不存在时为null
+     */
+    CompletableFuture<Pair<FileMetadataInfoVo, InputStream>> readStream(String fileKey, long offset, long length);
+
+    /**
+     * 创建文件
+     * 写入文件时不占用线程
+     * @param fullFileName 文件名（含扩展名）
+     * @param isPrivate 是否私有 false:否 true:是
+     * @param userId  用户编号
+     * @param fileBytes 文件字节流
+     * @return 文件元数据信息
+     */
+    CompletableFuture<FileMetadataInfoVo> createFile(String fullFileName, Boolean isPrivate, String userId, byte[] fileBytes);
+
+    /**
+     * 根据文件key删除文件
+     * @param fileKey 文件key
+     * @return 是否成功
+     */
+    CompletableFuture<Boolean> remove(String fileKey);
+
+}
@@ -5,9 +5,12 @@ import org.liuxp.minioplus.api.model.dto.FileMetadataInfoDTO;
 import org.liuxp.minioplus.api.model.vo.CompleteResultVo;
 import org.liuxp.minioplus.api.model.vo.FileCheckResultVo;
 import org.liuxp.minioplus.api.model.vo.FileMetadataInfoVo;
+import org.liuxp.minioplus.api.model.vo.FilePartPageVo;
 import org.liuxp.minioplus.api.model.vo.FilePreShardingVo;
 
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
 import java.util.List;
 
 /**
@@ -35,6 +38,18 @@ public interface StorageService {
      */
     FileCheckResultVo init(String fileMd5, String fullFileName, long fileSize, Boolean isPrivate, String userId);
 
+    /**
+     * 上传任务初始化
+     * @param fileMd5 文件md5
+     * @param fullFileName 文件名（含扩展名）
+     * @param fileSize 文件长度
+     * @param isPrivate 是否私有 false:否 true:是
+     * @param userId  用户编号
+     * @param compact 是否返回紧凑格式的分块信息
+     * @return {@link FileCheckResultVo}
+     */
+    FileCheckResultVo init(String fileMd5, String fullFileName, long fileSize, Boolean isPrivate, String userId, Boolean compact);
+
 
     /**
      * 合并已分块的文件
@@ -45,8 +60,39 @@ public interface StorageService {
      */
     CompleteResultVo complete(String fileKey, List<String> partMd5List,String userId);
 
+    /**
+     * 合并已分块的文件
+     * @param fileKey 文件关键
+     * @param partMd5List 文件分块md5列表
+     * @param userId  用户编号
+     * @param compact 是否返回紧凑格式的分块信息
+     * @return {@link CompleteResultVo}
+     */
+    CompleteResultVo complete(String fileKey, List<String> partMd5List, String userId, Boolean compact);
+
+    /**
+     * 取得下一页分块上传链接
+     * 开启分页下发（minioplus.part.page-size）时，初始化只返回第一页链接，其余链接通过本方法按需获取
+     * @param fileKey 文件KEY
+     * @param partNumber 起始块号，取上一次返回结果中的nextPartNumber
+     * @param userId  用户编号
+     * @return {@link FilePartPageVo}
+     */
+    FilePartPageVo nextParts(String fileKey, Integer partNumber, String userId);
+
+    /**
+     * 取得下一页分块上传链接
+     * @param fileKey 文件KEY
+     * @param partNumber 起始块号，取上一次返回结果中的nextPartNumber
+     * @param userId  用户编号
+     * @param compact 是否返回紧凑格式的分块信息
+     * @return {@link FilePartPageVo}
+     */
+    FilePartPageVo nextParts(String fileKey, Integer partNumber, String userId, Boolean compact);
+
     /**
      * 取得文件下载地址
+     * 打包存储的文件没有独立地址，抛出异常，需通过readStream读取
      *
      * @param fileKey 文件KEY
      * @param userId  用户编号
@@ -56,6 +102,7 @@ public interface StorageService {
 
     /**
      * 取得原图地址
+     * 打包存储的文件没有独立地址，抛出异常，需通过readStream读取
      *
      * @param fileKey 文件KEY
      * @param userId  用户编号
@@ -79,6 +126,15 @@ public interface StorageService {
      */
     FileMetadataInfoVo one(String key);
 
+    /**
+     * 查询有访问权限的元数据信息
+     * 文件不存在或者私有文件的所有者不是当前用户时，抛出文件不存在异常
+     * @param fileKey 文件key
+     * @param userId 用户编号
+     * @return 文件元数据信息
+     */
+    FileMetadataInfoVo one(String fileKey, String userId);
+
     /**
      * 查询元数据信息
      * @param fileMetadataInfo 查询入参
@@ -119,6 +175,28 @@ public interface StorageService {
      */
     FileMetadataInfoVo createFile(String fullFileName, Boolean isPrivate, String userId, String url);
 
+    /**
+     * 创建文件
+     * 适用于服务端本地磁盘上的文件，按分块映射文件计算MD5值，新文件按分块并发上传
+     * @param fullFileName 文件名（含扩展名）
+     * @param isPrivate 是否私有 false:否 true:是
+     * @param userId  用户编号
+     * @param path 本地文件路径
+     * @return 文件元数据信息
+     */
+    FileMetadataInfoVo createFile(String fullFileName, Boolean isPrivate, String userId, Path path);
+
+    /**
+     * 批量创建文件
+     * 适用于服务端本地磁盘上的大量小文件，并发计算MD5值，整批文件只按MD5查询一次元数据，
+     * 新文件并发写入，元数据分批保存；同一批次中MD5值相同的文件只写入一次
+     * @param paths 本地文件路径集合，文件名取路径中的文件名
+     * @param isPrivate 是否私有 false:否 true:是
+     * @param userId  用户编号
+     * @return 文件元数据信息集合，与入参顺序一致
+     */
+    List<FileMetadataInfoVo> createFiles(List<Path> paths, Boolean isPrivate, String userId);
+
     /**
      * 创建大文件
      * 大文件建议使用本方法
@@ -139,6 +217,52 @@ public interface StorageService {
      */
     Pair<FileMetadataInfoVo,byte[]> read(String fileKey);
 
+    /**
+     * 根据文件key读取文件指定范围的字节流
+     * 仅传输指定范围的数据
+     * @param fileKey 文件key
+     * @param offset 起始位置
+     * @param length 读取长度，小于0或超出文件长度时读取到文件末尾
+     * @return 文件字节流，文件不存在时为null
+     */
+    Pair<FileMetadataInfoVo,byte[]> read(String fileKey, long offset, long length);
+
+    /**
+     * 根据文件key打开文件流
+     * 数据边读取边传输，内存占用与文件长度无关，调用方读取完毕后需关闭文件流
+     * @param fileKey 文件key
+     * @return 文件流，文件不存在时为null
+     */
+    Pair<FileMetadataInfoVo,InputStream> readStream(String fileKey);
+
+    /**
+     * 根据文件key打开文件指定范围的文件流
+     * 调用方读取完毕后需关闭文件流
+     * @param fileKey 文件key
+     * @param offset 起始位置
+     * @param length 读取长度，小于0或超出文件长度时读取到文件末尾
+     * @return 文件流，文件不存在时为null
+     */
+    Pair<FileMetadataInfoVo,InputStream> readStream(String fileKey, long offset, long length);
+
+    /**
+     * 根据文件key读取文件并写入输出流
+     * 输出流不会被关闭，写入WritableByteChannel时可使用Channels.newOutputStream转换
+     * @param fileKey 文件key
+     * @param outputStream 输出流
+     * @return 文件元数据信息，文件不存在时为null
+     */
+    FileMetadataInfoVo read(String fileKey, OutputStream outputStream);
+
+    /**
+     * 根据文件key下载文件到本地
+     * 文件按分段并发读取，按位置写入本地文件，本地文件已存在时覆盖
+     * @param fileKey 文件key
+     * @param target 本地文件
+     * @return 文件元数据信息，文件不存在时为null
+     */
+    FileMetadataInfoVo download(String fileKey, Path target);
+
     /**
      * 根据文件key删除文件
      * @param fileKey 文件key
@@ -46,4 +46,9 @@ public class CreateUploadUrlRespBO {
      */
     List<FileCheckResultVo.Part> parts;
 
+    /**
+     * 下一页分块的起始块号，为空时表示链接已全部下发
+     */
+    private Integer nextPartNumber;
+
 }
\ No newline at end of file
@@ -34,4 +34,10 @@ public class FileMetadataInfoDTO {
     @Schema(description = "创建人")
     private String createUser;
 
+    @Schema(description = "打包对象名称")
+    private String packObject;
+
+    @Schema(description = "是否打包存储 false:否 true:是")
+    private Boolean isPacked;
+
 }
\ No newline at end of file
@@ -87,6 +87,31 @@ public class FileMetadataInfoSaveDTO {
      */
     @Schema(description = "是否私有 false:否 true:是")
     private Boolean isPrivate;
+    /**
+     * 是否打包存储 0:否 1:是
+     */
+    @Schema(description = "是否打包存储 false:否 true:是")
+    private Boolean isPacked;
+    /**
+     * 打包对象名称
+     */
+    @Schema(description = "打包对象名称")
+    private String packObject;
+    /**
+     * 在打包对象中的起始位置
+     */
+    @Schema(description = "在打包对象中的起始位置")
+    private Long packOffset;
+    /**
+     * 内容编码，压缩存储时为gzip
+     */
+    @Schema(description = "内容编码，压缩存储时为gzip")
+    private String contentEncoding;
+    /**
+     * 存储长度
+     */
+    @Schema(description = "存储长度，压缩存储时为压缩后的长度")
+    private Long storedSize;
     /**
      * 创建人
      */
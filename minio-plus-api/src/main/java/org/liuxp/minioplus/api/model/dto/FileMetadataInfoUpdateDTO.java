@@ -64,6 +64,21 @@ public class FileMetadataInfoUpdateDTO {
     @Schema(description = "是否私有 false:否 true:是")
     private Boolean isPrivate;
 
+    @Schema(description = "是否打包存储 false:否 true:是")
+    private Boolean isPacked;
+
+    @Schema(description = "打包对象名称")
+    private String packObject;
+
+    @Schema(description = "在打包对象中的起始位置")
+    private Long packOffset;
+
+    @Schema(description = "内容编码，压缩存储时为gzip")
+    private String contentEncoding;
+
+    @Schema(description = "存储长度，压缩存储时为压缩后的长度")
+    private Long storedSize;
+
     @Schema(description = "修改人")
     private String updateUser;
 
@@ -27,4 +27,10 @@ public class CompleteResultVo {
     @Schema(description = "补传的分块信息")
     private List<FileCheckResultVo.Part> partList = new ArrayList<>();
 
+    @Schema(description = "紧凑格式的分块信息，请求紧凑格式时返回，此时partList为空")
+    private FilePartCompactVo compactParts;
+
+    @Schema(description = "下一页补传分块的起始块号，为空时表示链接已全部下发")
+    private Integer nextPartNumber;
+
 }
\ No newline at end of file
@@ -76,6 +76,18 @@ public class FileCheckResultVo {
     @Schema(description = "分块信息")
     private List<Part> partList = new ArrayList<>();
 
+    /**
+     * 紧凑格式的分块信息
+     */
+    @Schema(description = "紧凑格式的分块信息，请求紧凑格式时返回，此时partList为空")
+    private FilePartCompactVo compactParts;
+
+    /**
+     * 下一页分块的起始块号，为空时表示链接已全部下发
+     */
+    @Schema(description = "下一页分块的起始块号，为空时表示链接已全部下发")
+    private Integer nextPartNumber;
+
     @Getter
     @Setter
     public static class Part {
@@ -0,0 +1,53 @@
+package org.liuxp.minioplus.api.model.vo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 紧凑格式的分块信息
+ * 完整上传地址 = urlPrefix + "&partNumber=" + 块号 + "&X-Amz-Signature=" + 签名
+ * 分块字节区间 = [(块号 - 1) * partSize, min(块号 * partSize, 文件长度))
+ *
+ * @author contact@liuxp.me
+ * @since 2026-10-18
+ **/
+@Getter
+@Setter
+@Schema(description = "紧凑格式的分块信息")
+public class FilePartCompactVo {
+
+    /**
+     * 上传地址公共部分
+     */
+    @Schema(description = "上传地址公共部分，拼接 &partNumber={块号}&X-Amz-Signature={签名} 得到完整上传地址")
+    private String urlPrefix;
+
+    /**
+     * minio的上传id
+     */
+    @Schema(description = "minio的上传id")
+    private String uploadId;
+
+    /**
+     * 分块大小
+     */
+    @Schema(description = "分块大小")
+    private Integer partSize;
+
+    /**
+     * 块号
+     */
+    @Schema(description = "块号")
+    private List<Integer> partNumbers = new ArrayList<>();
+
+    /**
+     * 签名，与块号一一对应
+     */
+    @Schema(description = "签名，与块号一一对应")
+    private List<String> signatures = new ArrayList<>();
+
+}
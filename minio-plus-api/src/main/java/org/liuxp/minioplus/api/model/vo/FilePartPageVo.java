@@ -0,0 +1,51 @@
+package org.liuxp.minioplus.api.model.vo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 分块上传链接分页结果
+ *
+ * @author contact@liuxp.me
+ * @since 2026-10-18
+ **/
+@Getter
+@Setter
+@Schema(description = "分块上传链接分页结果")
+public class FilePartPageVo {
+
+    /**
+     * 文件KEY
+     */
+    @Schema(description = "文件KEY")
+    private String fileKey;
+
+    /**
+     * 分块数量
+     */
+    @Schema(description = "分块数量")
+    private Integer partCount;
+
+    /**
+     * 分块信息
+     */
+    @Schema(description = "分块信息")
+    private List<FileCheckResultVo.Part> partList = new ArrayList<>();
+
+    /**
+     * 紧凑格式的分块信息
+     */
+    @Schema(description = "紧凑格式的分块信息，请求紧凑格式时返回，此时partList为空")
+    private FilePartCompactVo compactParts;
+
+    /**
+     * 下一页分块的起始块号，为空时表示链接已全部下发
+     */
+    @Schema(description = "下一页分块的起始块号，为空时表示链接已全部下发")
+    private Integer nextPartNumber;
+
+}
@@ -7,6 +7,9 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * MinioPlus配置类
  *
@@ -52,6 +55,21 @@ public class MinioPlusProperties {
      */
     private Integer downloadExpiry = 10;
 
+    /**
+     * 下载和预览预签名URL的签名时间窗口，单位为分钟
+     * 可选参数，默认值为0，表示使用当前时间签名
+     * 大于0且小于downloadExpiry时，签名时间对齐到窗口起点，同一窗口内同一文件的URL保持不变，便于浏览器和CDN缓存
+     */
+    private Integer downloadSignWindow = 0;
+
+    /**
+     * 公共读存储桶，取值为StorageBucketEnums的编码，如image、image-preview
+     * 可选参数，默认为空
+     * 列出的桶需要在MinIO中配置匿名读策略，桶中非私有文件的原图和缩略图地址不再签名，直接返回固定地址，便于CDN长期缓存
+     * 私有文件和文件下载仍然使用预签名地址
+     */
+    private List<String> publicBuckets = new ArrayList<>();
+
     /**
      * 分块配置
      */
@@ -62,6 +80,56 @@ public class MinioPlusProperties {
      */
     private Thumbnail thumbnail = new Thumbnail();
 
+    /**
+     * 预签名地址缓存配置
+     */
+    private UrlCache urlCache = new UrlCache();
+
+    /**
+     * 文件MD5过滤器配置
+     */
+    private Md5Filter md5Filter = new Md5Filter();
+
+    /**
+     * 批量创建文件配置
+     */
+    private Batch batch = new Batch();
+
+    /**
+     * 小文件打包存储配置
+     */
+    private Pack pack = new Pack();
+
+    /**
+     * 压缩存储配置
+     */
+    private Compression compression = new Compression();
+
+    /**
+     * 异步接口配置
+     */
+    private Async async = new Async();
+
+    /**
+     * 下载到本地文件配置
+     */
+    private Download download = new Download();
+
+    /**
+     * 本地磁盘读缓存配置
+     */
+    private DiskCache diskCache = new DiskCache();
+
+    /**
+     * 小文件内存缓存配置
+     */
+    private MemoryCache memoryCache = new MemoryCache();
+
+    /**
+     * 代理下载配置
+     */
+    private Proxy proxy = new Proxy();
+
     @NoArgsConstructor
     @AllArgsConstructor
     @Getter
@@ -82,6 +150,51 @@ public class MinioPlusProperties {
          * 分块上传时建议并发数，默认为3
          */
         private int iis = 3;
+
+        /**
+         * 每次下发的分块上传链接数量，默认为0，表示初始化时一次性下发全部链接
+         * 大于0时开启分页下发，初始化只返回第一页链接，其余链接通过 /upload/parts/{fileKey} 按需获取
+         */
+        private int pageSize = 0;
+
+        /**
+         * 服务端分片上传线程数，所有上传任务共用，默认为8
+         */
+        private int uploadThreads = 8;
+
+        /**
+         * 服务端单个文件同时上传的分片数，默认为4
+         */
+        private int uploadParallelism = 4;
+
+        /**
+         * 服务端分片上传失败时的重试次数，默认为3
+         */
+        private int uploadRetries = 3;
+
+        /**
+         * 服务端分片上传缓冲区的总字节数上限，默认为104857600(100MB)
+         * 缓冲区按分块大小复用，达到上限时新的分片等待其他分片上传完成
+         */
+        private long bufferMaxBytes = 104857600L;
+
+        /**
+         * 等待分片上传缓冲区的最长时间，单位为毫秒，默认为0，表示一直等待
+         * 大于0时，等待超时后本次上传失败
+         */
+        private long bufferAcquireTimeout = 0L;
+
+        /**
+         * 根据URL创建文件时，分段并发下载的线程数，所有下载任务共用，默认为4
+         * 源站支持Range请求时按分块大小分段下载，否则按流式下载
+         */
+        private int fetchThreads = 4;
+
+        /**
+         * 根据URL创建文件时，单个分段下载失败的重试次数，默认为3
+         * 重试时从已写入的位置继续下载
+         */
+        private int fetchRetries = 3;
     }
 
     @NoArgsConstructor
@@ -106,4 +219,269 @@ public class MinioPlusProperties {
 
     }
 
-}
\ No newline at end of file
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Getter
+    @Setter
+    public static class UrlCache {
+
+        /**
+         * 是否缓存下载和预览的预签名地址，默认为false
+         * 开启后缓存时长为downloadExpiry的一半，开启签名时间窗口时缓存到窗口结束
+         */
+        private boolean enable = false;
+
+        /**
+         * 最多缓存的地址数量，默认为10000
+         */
+        private int capacity = 10000;
+
+    }
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Getter
+    @Setter
+    public static class Md5Filter {
+
+        /**
+         * 是否开启MD5过滤器，默认为false
+         * 开启后启动时分页加载全部元数据的MD5，新文件上传时跳过按MD5查询元数据
+         */
+        private boolean enable = false;
+
+        /**
+         * 判定为不存在前，是否先查询一页最近新增的元数据，默认为false
+         * 开启后其他实例刚新增的MD5也不会漏判，但每次判定不存在都会查询一次元数据，需要元数据仓库实现listAfter；
+         * 关闭时其他实例新增的MD5在下次定时增量加载后可见，期间可能重复上传相同文件
+         */
+        private boolean syncOnMiss = false;
+
+        /**
+         * 定时增量加载的间隔，单位：秒，默认为60，0表示不定时加载
+         * 多实例部署时其他实例新增的MD5由此可见，需要元数据仓库实现listAfter
+         */
+        private long refreshInterval = 60L;
+
+        /**
+         * 增量加载时从已加载的最大主键往回重新扫描的主键数量，默认为1000
+         * 自增主键不按提交顺序可见，主键较小但提交较晚的元数据在回扫范围内补齐
+         */
+        private long refreshLookback = 1000L;
+
+        /**
+         * 预计的MD5数量，默认为1000000
+         */
+        private long expectedInsertions = 1000000L;
+
+        /**
+         * 达到预计数量时的误判率，默认为0.01
+         */
+        private double fpp = 0.01;
+
+    }
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Getter
+    @Setter
+    public static class Batch {
+
+        /**
+         * 批量创建文件时计算MD5和写入文件的线程数，所有批量任务共用，默认为8
+         */
+        private int threads = 8;
+
+        /**
+         * 批量保存元数据时每批的数量，默认为500
+         * 同时作为批量创建文件时每次提交到线程池的任务数量，上一批完成后再提交下一批
+         */
+        private int saveSize = 500;
+
+    }
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Getter
+    @Setter
+    public static class Pack {
+
+        /**
+         * 是否开启小文件打包存储，默认为false
+         * 开启后小于threshold的文件追加写入打包对象，读取时按范围读取；打包存储的文件没有独立地址，下载和原图接口由服务端传输
+         * 关闭后已打包存储的文件只能通过readStream或开启代理下载读取
+         */
+        private boolean enable = false;
+
+        /**
+         * 打包存储的文件长度上限（不含），单位为字节，默认为10240
+         */
+        private int threshold = 10240;
+
+        /**
+         * 打包对象的目标长度，达到后立即写入，单位为字节，默认为4194304
+         */
+        private int size = 4194304;
+
+        /**
+         * 打包对象未写满时的最长等待时间，单位为毫秒，默认为200
+         * 等待期间到达的小文件合并为一次写入，为0时每个文件单独写入
+         */
+        private long maxDelay = 200L;
+
+        /**
+         * 打包对象中有效数据占比低于该值时重写，默认为0.5
+         */
+        private double compactRatio = 0.5;
+
+        /**
+         * 打包对象整理的执行间隔，单位为分钟，默认为0，表示不自动整理
+         * 多实例部署时只需在一个实例开启
+         */
+        private long compactInterval = 0L;
+
+        /**
+         * 打包对象写入后的保护时间，单位为分钟，默认为1440
+         * 打包对象先于元数据写入，批量上传时元数据在全部文件写入后才保存，保护时间内的打包对象不整理也不删除
+         */
+        private long compactGracePeriod = 1440L;
+
+    }
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Getter
+    @Setter
+    public static class Compression {
+
+        /**
+         * 开启GZIP压缩存储的桶，取值为StorageBucketEnums中的桶名称，默认为空
+         * 对象设置Content-Encoding: gzip，浏览器通过下载地址访问时自动解压
+         */
+        private List<String> buckets = new ArrayList<>();
+
+        /**
+         * 压缩级别，1-9，默认为6
+         */
+        private int level = 6;
+
+    }
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Getter
+    @Setter
+    public static class Async {
+
+        /**
+         * 异步接口执行元数据查询和保存的线程数，所有异步调用共用，默认为8
+         * 存储引擎的网络往返不占用该线程池
+         */
+        private int threads = 8;
+
+    }
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Getter
+    @Setter
+    public static class Download {
+
+        /**
+         * 分段下载线程数，所有下载任务共用，默认为8
+         */
+        private int threads = 8;
+
+        /**
+         * 单个文件同时下载的分段数，默认为4
+         */
+        private int parallelism = 4;
+
+        /**
+         * 分段大小，单位：字节，默认为8MB
+         * 文件不大于一个分段、打包存储或压缩存储时按单个流下载
+         */
+        private long rangeSize = 8388608L;
+
+        /**
+         * 单个分段下载失败时的重试次数，重试时从已写入的位置继续，默认为3
+         */
+        private int retries = 3;
+
+    }
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Getter
+    @Setter
+    public static class DiskCache {
+
+        /**
+         * 是否将读取的文件缓存到本地磁盘，默认为false
+         * 对象名称为文件MD5值，内容不会变化，缓存无需过期
+         */
+        private boolean enable = false;
+
+        /**
+         * 缓存目录，默认为系统临时目录下的minioplus-cache
+         */
+        private String directory = System.getProperty("java.io.tmpdir") + "/minioplus-cache";
+
+        /**
+         * 缓存占用的最大磁盘空间，单位：字节，默认为1GB，超出时按最近最少使用淘汰
+         */
+        private long maxBytes = 1073741824L;
+
+        /**
+         * 单个文件的最大缓存长度，单位：字节，默认为64MB，更大的文件不缓存
+         */
+        private long maxObjectBytes = 67108864L;
+
+    }
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Getter
+    @Setter
+    public static class MemoryCache {
+
+        /**
+         * 是否在内存中缓存读取的小文件，默认为false
+         * 按文件MD5值缓存，内容相同的文件共用一份缓存
+         */
+        private boolean enable = false;
+
+        /**
+         * 缓存的文件长度上限，单位：字节，默认为64KB，更大的文件不缓存
+         */
+        private int threshold = 65536;
+
+        /**
+         * 缓存占用的最大内存，单位：字节，默认为64MB
+         * 超出时按访问频率淘汰，访问频率低于被淘汰文件的新文件不进入缓存
+         */
+        private long maxBytes = 67108864L;
+
+    }
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Getter
+    @Setter
+    public static class Proxy {
+
+        /**
+         * 文件下载和原图预览是否由服务端代理传输，默认为false
+         * 开启后不再重定向到MinIO地址，适用于浏览器无法直接访问MinIO的网络环境
+         * 支持Range分段请求，以及基于文件MD5值和创建时间的If-None-Match、If-Modified-Since条件请求
+         */
+        private boolean enable = false;
+
+        /**
+         * 代理传输的缓冲区大小，单位：字节，默认为64KB
+         */
+        private int bufferSize = 65536;
+
+    }
+
+}
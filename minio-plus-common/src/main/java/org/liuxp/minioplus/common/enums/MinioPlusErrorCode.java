@@ -23,6 +23,9 @@ public enum MinioPlusErrorCode {
     FILE_UPLOAD_FAILED(1006,"文件上传失败"),
     FILE_PREVIEW_WRITE_FAILED(1007,"缩略图生成失败"),
     FILE_ICON_FAILED(1008,"图标获取失败"),
+    FILE_RANGE_FAILED(1009,"读取范围超出文件长度"),
+    FILE_DOWNLOAD_FAILED(1010,"文件下载到本地失败"),
+    FILE_PACKED_URL_FAILED(1011,"打包存储的文件没有独立地址，需由服务端读取"),
 
     /**
      * MinIO 异常
@@ -37,7 +40,12 @@ public enum MinioPlusErrorCode {
     CREATE_PREVIEW_URL_FAILED(2008, "获取预对象预览URL失败"),
     WRITE_FAILED(2009, "文件写入失败"),
     READ_FAILED(2010, "文件读取失败"),
-    DELETE_FAILED(2011, "删除失败");
+    DELETE_FAILED(2011, "删除失败"),
+    UPLOAD_PART_FAILED(2012, "分片上传失败"),
+    ABORT_MULTIPART_FAILED(2013, "取消分片上传失败"),
+    UPLOAD_BUSY(2014, "服务端上传繁忙，请稍后重试"),
+    STAT_OBJECT_FAILED(2015, "查询对象信息失败"),
+    LIST_OBJECTS_FAILED(2016, "查询对象列表失败");
 
     /**
      * 错误编码
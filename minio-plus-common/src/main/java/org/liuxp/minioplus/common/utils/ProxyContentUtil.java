@@ -0,0 +1,191 @@
+package org.liuxp.minioplus.common.utils;
+
+import cn.hutool.core.lang.Pair;
+import org.liuxp.minioplus.common.enums.StorageBucketEnums;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 代理传输响应头工具类
+ * 代理传输时文件内容与应用同源，只有图片桶中的位图可以内联展示，其余文件一律作为附件下载，
+ * 防止上传的HTML、SVG等文件在应用域名下执行脚本
+ * Range请求只支持单个范围，各个Web框架的控制器共用同一套解析规则
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+public class ProxyContentUtil {
+
+    /**
+     * 附件下载
+     */
+    public static final String ATTACHMENT = "attachment";
+
+    /**
+     * 内联展示
+     */
+    public static final String INLINE = "inline";
+
+    /**
+     * 不允许内联展示时使用的数据类型
+     */
+    public static final String OCTET_STREAM = "application/octet-stream";
+
+    /**
+     * 禁止浏览器猜测数据类型
+     */
+    public static final String NOSNIFF = "nosniff";
+
+    /**
+     * 禁止加载任何资源和执行脚本
+     */
+    public static final String CONTENT_SECURITY_POLICY = "default-src 'none'; sandbox";
+
+    /**
+     * Range请求头的单位前缀
+     */
+    private static final String BYTES_UNIT = "bytes=";
+
+    /**
+     * 可以内联展示的位图数据类型，不含SVG
+     */
+    private static final Set<String> INLINE_IMAGE_TYPES = new HashSet<>(Arrays.asList(
+            "image/jpeg", "image/png", "image/gif", "image/bmp", "image/webp"));
+
+    private ProxyContentUtil() {
+    }
+
+    /**
+     * 文件是否可以内联展示
+     *
+     * @param storageBucket 存储桶
+     * @param mimeType      文件数据类型
+     * @return 是否可以内联展示
+     */
+    public static boolean isInlineImage(String storageBucket, String mimeType) {
+        return StorageBucketEnums.IMAGE.getCode().equals(storageBucket)
+                && mimeType != null
+                && INLINE_IMAGE_TYPES.contains(mimeType.toLowerCase(Locale.ROOT).trim());
+    }
+
+    /**
+     * 取得响应的Content-Disposition类型
+     *
+     * @param requested     请求的类型
+     * @param storageBucket 存储桶
+     * @param mimeType      文件数据类型
+     * @return 不能内联展示时返回附件下载
+     */
+    public static String disposition(String requested, String storageBucket, String mimeType) {
+        return INLINE.equals(requested) && isInlineImage(storageBucket, mimeType) ? INLINE : ATTACHMENT;
+    }
+
+    /**
+     * 取得响应的Content-Type
+     *
+     * @param storageBucket 存储桶
+     * @param mimeType      文件数据类型
+     * @return 不能内联展示时返回application/octet-stream
+     */
+    public static String contentType(String storageBucket, String mimeType) {
+        return isInlineImage(storageBucket, mimeType) ? mimeType : OCTET_STREAM;
+    }
+
+    /**
+     * 解析Range请求，取得读取范围
+     * 只支持单个范围，多个范围、格式错误、文件为空或If-Range不匹配时返回完整内容
+     *
+     * @param rangeHeader  Range请求头
+     * @param ifRange      If-Range请求头
+     * @param etag         文件的ETag
+     * @param lastModified 文件的最后修改时间，毫秒，未知时为-1
+     * @param fileSize     文件长度
+     * @return 起始位置和读取长度，返回完整内容时为null，长度为0时范围不可满足，应返回416
+     */
+    public static Pair<Long, Long> range(String rangeHeader, String ifRange, String etag, long lastModified, long fileSize) {
+        if (rangeHeader == null || fileSize <= 0 || !matchIfRange(ifRange, etag, lastModified)) {
+            return null;
+        }
+        String value = rangeHeader.trim();
+        if (!value.startsWith(BYTES_UNIT) || value.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = value.substring(BYTES_UNIT.length());
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        String first = spec.substring(0, dash).trim();
+        String last = spec.substring(dash + 1).trim();
+        long start;
+        long end = fileSize - 1;
+        try {
+            if (first.isEmpty()) {
+                // bytes=-n，最后n个字节
+                if (last.isEmpty()) {
+                    return null;
+                }
+                start = Math.max(0, fileSize - position(last));
+            } else {
+                start = position(first);
+                if (!last.isEmpty()) {
+                    long lastPosition = position(last);
+                    if (lastPosition < start) {
+                        return null;
+                    }
+                    end = Math.min(lastPosition, end);
+                }
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return Pair.of(start, Math.max(0, end - start + 1));
+    }
+
+    /**
+     * 判断If-Range条件是否成立，不成立时忽略Range请求，返回完整内容
+     *
+     * @param ifRange      If-Range请求头
+     * @param etag         文件的ETag
+     * @param lastModified 文件的最后修改时间，毫秒，未知时为-1
+     * @return 是否按Range请求返回
+     */
+    public static boolean matchIfRange(String ifRange, String etag, long lastModified) {
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // If-Range只做强比较，弱ETag不匹配
+            return etag.equals(ifRange);
+        }
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return lastModified >= 0 && date.toEpochSecond() == lastModified / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 解析Range中的字节位置
+     *
+     * @param text 字节位置
+     * @return 字节位置
+     * @throws NumberFormatException 不是非负整数时抛出
+     */
+    private static long position(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) < '0' || text.charAt(i) > '9') {
+                throw new NumberFormatException(text);
+            }
+        }
+        return Long.parseLong(text);
+    }
+
+}
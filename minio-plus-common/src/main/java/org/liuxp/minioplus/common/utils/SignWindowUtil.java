@@ -0,0 +1,50 @@
+package org.liuxp.minioplus.common.utils;
+
+/**
+ * 签名时间窗口工具类
+ * 将签名时间对齐到固定的时间窗口起点，同一窗口内对同一对象生成的预签名URL完全一致，便于浏览器、CDN和反向代理缓存
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+public class SignWindowUtil {
+
+    private SignWindowUtil() {
+    }
+
+    /**
+     * 是否开启签名时间窗口
+     * 窗口必须小于URL有效期，否则窗口末尾签发的URL在签发时就已经过期
+     *
+     * @param windowMinutes 窗口长度，单位为分钟
+     * @param expiryMinutes URL有效期，单位为分钟
+     * @return 是否开启
+     */
+    public static boolean isEnabled(Integer windowMinutes, Integer expiryMinutes) {
+        return windowMinutes != null && expiryMinutes != null && windowMinutes > 0 && windowMinutes < expiryMinutes;
+    }
+
+    /**
+     * 取得当前时间所在窗口的起点
+     *
+     * @param epochSecond   当前时间，单位为秒
+     * @param windowMinutes 窗口长度，单位为分钟
+     * @return 窗口起点，单位为秒
+     */
+    public static long windowStart(long epochSecond, int windowMinutes) {
+        long windowSeconds = windowMinutes * 60L;
+        return epochSecond - epochSecond % windowSeconds;
+    }
+
+    /**
+     * 取得当前时间距所在窗口结束的秒数，即同一URL还会被继续签发的时长
+     *
+     * @param epochSecond   当前时间，单位为秒
+     * @param windowMinutes 窗口长度，单位为分钟
+     * @return 剩余秒数
+     */
+    public static long secondsToWindowEnd(long epochSecond, int windowMinutes) {
+        return windowStart(epochSecond, windowMinutes) + windowMinutes * 60L - epochSecond;
+    }
+
+}
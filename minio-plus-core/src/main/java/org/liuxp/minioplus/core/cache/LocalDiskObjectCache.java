@@ -0,0 +1,569 @@
+package org.liuxp.minioplus.core.cache;
+
+import cn.hutool.core.util.IdUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.liuxp.minioplus.api.model.vo.FileMetadataInfoVo;
+import org.liuxp.minioplus.common.config.MinioPlusProperties;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 本地磁盘读缓存
+ * 读取的文件按 桶名称/存储路径/文件MD5值 写入本地目录，命中时不再访问MinIO
+ * 读取整个文件时直接读取到数组，以文件流读取时通过内存映射读取
+ * 文件MD5值相同则内容相同，缓存无需过期；占用空间有上限，按最近最少使用淘汰
+ * 重启后沿用目录中已有的缓存文件；以文件流读取整个文件时边传输边写入缓存
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+@Slf4j
+@Component
+public class LocalDiskObjectCache {
+
+    /**
+     * 写入中的临时文件后缀，重启时清理
+     */
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * 缓存目录，未开启时为null
+     */
+    private final Path directory;
+
+    private final long maxBytes;
+
+    private final long maxObjectBytes;
+
+    /**
+     * 缓存文件及其长度，按访问顺序排列，第一个为最近最少使用
+     */
+    private final LinkedHashMap<Path, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * 缓存文件的总长度，受entries的锁保护
+     */
+    private long totalBytes;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final AtomicLong savedBytes = new AtomicLong();
+
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    public LocalDiskObjectCache(MinioPlusProperties properties) {
+        MinioPlusProperties.DiskCache config = properties.getDiskCache();
+        this.maxBytes = config.getMaxBytes();
+        // 单个映射缓冲区不超过2GB
+        this.maxObjectBytes = Math.min(Math.min(config.getMaxObjectBytes(), config.getMaxBytes()), Integer.MAX_VALUE);
+        this.directory = config.isEnable() && maxBytes > 0 ? this.open(Paths.get(config.getDirectory())) : null;
+    }
+
+    /**
+     * 读取文件内容，缓存未命中时调用读取方法并写入缓存
+     *
+     * @param metadata 文件元数据
+     * @param loader   读取方法，返回解压后的文件内容
+     * @return 文件内容
+     */
+    public byte[] get(FileMetadataInfoVo metadata, Supplier<byte[]> loader) {
+
+        byte[] fileBytes = this.getIfPresent(metadata);
+        if (fileBytes != null) {
+            return fileBytes;
+        }
+
+        fileBytes = loader.get();
+        this.put(metadata, fileBytes);
+        return fileBytes;
+    }
+
+    /**
+     * 读取缓存的文件内容
+     * 异步读取时使用，未命中时由调用方读取后调用put写入缓存
+     *
+     * @param metadata 文件元数据
+     * @return 文件内容，未开启或未命中时为null
+     */
+    public byte[] getIfPresent(FileMetadataInfoVo metadata) {
+
+        if (directory == null) {
+            return null;
+        }
+
+        // 整个文件复制到数组，直接读取，不建立内存映射
+        Path path = this.resolve(metadata);
+        Long size = this.lookup(path, true);
+        if (size == null) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(size.intValue());
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, buffer.position()) < 0) {
+                    // 缓存文件长度与登记的不一致，不再使用
+                    log.warn("本地缓存文件已损坏:{}", path);
+                    this.remove(path);
+                    missCount.incrementAndGet();
+                    return null;
+                }
+            }
+            hitCount.incrementAndGet();
+            savedBytes.addAndGet(size);
+            return buffer.array();
+        } catch (NoSuchFileException e) {
+            // 读取前已被淘汰
+            missCount.incrementAndGet();
+            return null;
+        } catch (IOException e) {
+            // 读取失败可能是暂时的，保留缓存文件
+            log.warn("本地缓存读取失败:{}", e.getMessage());
+            missCount.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * 写入缓存
+     *
+     * @param metadata  文件元数据
+     * @param fileBytes 解压后的文件内容
+     */
+    public void put(FileMetadataInfoVo metadata, byte[] fileBytes) {
+        if (directory != null) {
+            this.put(this.resolve(metadata), fileBytes);
+        }
+    }
+
+    /**
+     * 打开指定范围的文件流，缓存未命中时调用读取方法
+     * 读取整个文件时边读取边写入缓存，读取完成后才可命中；按范围读取未命中时不写入缓存，也不计入未命中次数
+     *
+     * @param metadata 文件元数据
+     * @param offset   起始位置
+     * @param length   读取长度
+     * @param loader   读取方法，返回解压后指定范围的文件流
+     * @return 文件流
+     */
+    public InputStream openStream(FileMetadataInfoVo metadata, long offset, long length, Supplier<InputStream> loader) {
+
+        if (directory == null) {
+            return loader.get();
+        }
+
+        Path path = this.resolve(metadata);
+        boolean fillable = offset == 0 && length == metadata.getFileSize() && length <= maxObjectBytes;
+        ByteBuffer buffer = this.map(path, fillable);
+        if (buffer != null && offset + length <= buffer.limit()) {
+            savedBytes.addAndGet(length);
+            buffer.position((int) offset);
+            buffer.limit((int) (offset + length));
+            return new ByteBufferInputStream(buffer);
+        }
+
+        InputStream inputStream = loader.get();
+        return fillable ? new FillingInputStream(path, inputStream, length) : inputStream;
+    }
+
+    /**
+     * 命中时映射缓存文件
+     *
+     * @param countMiss 未命中时是否计入未命中次数
+     * @return 缓存文件的只读映射，未命中时为null
+     */
+    private ByteBuffer map(Path path, boolean countMiss) {
+        Long size = this.lookup(path, countMiss);
+        if (size == null) {
+            return null;
+        }
+
+        // 映射建立后，缓存文件被淘汰删除也不影响读取
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            hitCount.incrementAndGet();
+            return buffer;
+        } catch (NoSuchFileException e) {
+            // 读取前已被淘汰
+            missCount.incrementAndGet();
+            return null;
+        } catch (IOException e) {
+            // 映射数量达到vm.max_map_count等暂时性失败，缓存文件仍然有效，不淘汰
+            log.warn("本地缓存映射失败:{}", e.getMessage());
+            missCount.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * 取得登记的缓存文件长度，并更新访问顺序
+     *
+     * @param countMiss 未命中时是否计入未命中次数
+     * @return 缓存文件长度，未命中时为null
+     */
+    private Long lookup(Path path, boolean countMiss) {
+        Long size;
+        synchronized (entries) {
+            size = entries.get(path);
+        }
+        if (size == null && countMiss) {
+            missCount.incrementAndGet();
+        }
+        return size;
+    }
+
+    /**
+     * 写入缓存文件，先写临时文件再改名，读取方不会读到写了一半的文件
+     */
+    private void put(Path path, byte[] fileBytes) {
+        if (fileBytes.length > maxObjectBytes) {
+            return;
+        }
+
+        Path temp = this.tempPath(path);
+        try {
+            Files.createDirectories(path.getParent());
+            Files.write(temp, fileBytes);
+        } catch (IOException e) {
+            // 缓存写入失败不影响读取
+            log.warn("本地缓存写入失败:{}", e.getMessage());
+            this.deleteQuietly(temp);
+            return;
+        }
+        this.commit(temp, path, fileBytes.length);
+    }
+
+    private Path tempPath(Path path) {
+        return path.resolveSibling(path.getFileName() + "." + IdUtil.fastSimpleUUID() + TEMP_SUFFIX);
+    }
+
+    /**
+     * 临时文件改名为缓存文件并登记
+     */
+    private void commit(Path temp, Path path, long size) {
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("本地缓存写入失败:{}", e.getMessage());
+            this.deleteQuietly(temp);
+            return;
+        }
+
+        synchronized (entries) {
+            Long previous = entries.put(path, size);
+            totalBytes += size - (previous == null ? 0 : previous);
+            this.evict();
+        }
+    }
+
+    /**
+     * 淘汰最近最少使用的缓存文件，直到总长度不超过上限
+     */
+    private void evict() {
+        Iterator<Map.Entry<Path, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<Path, Long> eldest = iterator.next();
+            iterator.remove();
+            totalBytes -= eldest.getValue();
+            evictionCount.incrementAndGet();
+            this.deleteQuietly(eldest.getKey());
+        }
+    }
+
+    private void remove(Path path) {
+        synchronized (entries) {
+            Long size = entries.remove(path);
+            if (size != null) {
+                totalBytes -= size;
+            }
+        }
+        this.deleteQuietly(path);
+    }
+
+    private Path resolve(FileMetadataInfoVo metadata) {
+        return directory.resolve(metadata.getStorageBucket()).resolve(metadata.getStoragePath()).resolve(metadata.getFileMd5());
+    }
+
+    /**
+     * 打开缓存目录，登记已有的缓存文件
+     *
+     * @return 缓存目录，无法使用时为null，不开启缓存
+     */
+    private Path open(Path root) {
+        try {
+            Files.createDirectories(root);
+            List<Path> files;
+            try (Stream<Path> stream = Files.walk(root)) {
+                files = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+            }
+            // 按修改时间登记，最早写入的最先淘汰
+            files.sort(Comparator.comparingLong(this::lastModified));
+            synchronized (entries) {
+                for (Path file : files) {
+                    long size = Files.size(file);
+                    if (file.getFileName().toString().endsWith(TEMP_SUFFIX) || size > maxObjectBytes) {
+                        this.deleteQuietly(file);
+                        continue;
+                    }
+                    entries.put(file, size);
+                    totalBytes += size;
+                }
+                this.evict();
+            }
+            return root;
+        } catch (IOException e) {
+            log.warn("本地缓存目录不可用，不开启本地缓存:{}", e.getMessage());
+            return null;
+        }
+    }
+
+    private long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("本地缓存删除失败:{}", path);
+        }
+    }
+
+    /**
+     * 缓存命中次数
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * 缓存未命中次数
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * 缓存命中率
+     */
+    public double getHitRatio() {
+        long hits = hitCount.get();
+        long total = hits + missCount.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * 命中缓存节省的MinIO读取字节数
+     */
+    public long getSavedBytes() {
+        return savedBytes.get();
+    }
+
+    /**
+     * 淘汰的缓存文件数量
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * 当前缓存的文件数量
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * 当前缓存文件的总长度
+     */
+    public long getTotalBytes() {
+        synchronized (entries) {
+            return totalBytes;
+        }
+    }
+
+    /**
+     * 边读取边写入临时文件的输入流
+     * 读取到文件末尾且长度一致时登记为缓存文件，未读完就关闭或写入失败时丢弃临时文件，不影响读取
+     */
+    private class FillingInputStream extends FilterInputStream {
+
+        private final Path path;
+
+        private final Path temp;
+
+        private final long expectedLength;
+
+        private OutputStream output;
+
+        private long written;
+
+        private boolean eof;
+
+        private FillingInputStream(Path path, InputStream source, long expectedLength) {
+            super(source);
+            this.path = path;
+            this.temp = tempPath(path);
+            this.expectedLength = expectedLength;
+            try {
+                Files.createDirectories(path.getParent());
+                this.output = Files.newOutputStream(temp);
+            } catch (IOException e) {
+                log.warn("本地缓存写入失败:{}", e.getMessage());
+                deleteQuietly(temp);
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b < 0) {
+                eof = true;
+            } else {
+                this.fill(new byte[]{(byte) b}, 0, 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = super.read(b, off, len);
+            if (count < 0) {
+                eof = true;
+            } else {
+                this.fill(b, off, count);
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // 跳过的数据无法写入缓存，放弃写入
+            this.abandon();
+            return super.skip(n);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                if (output != null && eof && written == expectedLength) {
+                    try {
+                        output.close();
+                        output = null;
+                        commit(temp, path, written);
+                    } catch (IOException e) {
+                        log.warn("本地缓存写入失败:{}", e.getMessage());
+                    }
+                }
+                this.abandon();
+            }
+        }
+
+        private void fill(byte[] b, int off, int len) {
+            if (output == null) {
+                return;
+            }
+            try {
+                output.write(b, off, len);
+                written += len;
+            } catch (IOException e) {
+                log.warn("本地缓存写入失败:{}", e.getMessage());
+                this.abandon();
+            }
+        }
+
+        private void abandon() {
+            if (output == null) {
+                return;
+            }
+            try {
+                output.close();
+            } catch (IOException e) {
+                log.debug("本地缓存临时文件关闭失败:{}", e.getMessage());
+            }
+            output = null;
+            deleteQuietly(temp);
+        }
+
+    }
+
+    /**
+     * 读取内存映射缓冲区的输入流
+     */
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int length = Math.min(len, buffer.remaining());
+            buffer.get(b, off, length);
+            return length;
+        }
+
+        @Override
+        public long skip(long n) {
+            int length = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + length);
+            return length;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+
+    }
+
+}
@@ -0,0 +1,104 @@
+package org.liuxp.minioplus.core.cache;
+
+import cn.hutool.cache.impl.LRUCache;
+import org.liuxp.minioplus.common.config.MinioPlusProperties;
+import org.liuxp.minioplus.common.utils.SignWindowUtil;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 预签名地址缓存
+ * 下载、原图和缩略图地址在有效期内可以重复使用，缓存后同一对象的热点访问不再重复签名
+ * 缓存容量有上限，按最近最少使用淘汰；缓存时长为有效期的一半，保证下发的地址至少还有一半的有效期
+ * 开启签名时间窗口时，缓存到窗口结束为止，与窗口内地址不变的语义一致
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+@Component
+public class PresignedUrlCache {
+
+    /**
+     * 键的分隔符，不会出现在桶名称和对象名称中
+     */
+    private static final char SEPARATOR = '\n';
+
+    private final MinioPlusProperties properties;
+
+    /**
+     * 缓存，未开启时为null
+     */
+    private final LRUCache<String, String> cache;
+
+    public PresignedUrlCache(MinioPlusProperties properties) {
+        this.properties = properties;
+        MinioPlusProperties.UrlCache config = properties.getUrlCache();
+        this.cache = config.isEnable() && config.getCapacity() > 0 ? new LRUCache<>(config.getCapacity()) : null;
+    }
+
+    /**
+     * 取得预签名地址，缓存未命中时调用签名方法生成并放入缓存
+     *
+     * @param bucketName  桶名称
+     * @param objectName  对象名称含路径
+     * @param disposition 响应的Content-Disposition
+     * @param contentType 响应的Content-Type
+     * @param signer      签名方法
+     * @return 预签名地址
+     */
+    public String get(String bucketName, String objectName, String disposition, String contentType, Supplier<String> signer) {
+
+        if (cache == null) {
+            return signer.get();
+        }
+
+        String key = bucketName + SEPARATOR + objectName + SEPARATOR + disposition + SEPARATOR + contentType;
+
+        // 不刷新最后访问时间，缓存时长从签名时开始计算，热点地址也会按时过期
+        String url = cache.get(key, false);
+        if (url == null) {
+            url = signer.get();
+            cache.put(key, url, this.ttl());
+        }
+        return url;
+    }
+
+    /**
+     * 计算本次写入的缓存时长
+     *
+     * @return 缓存时长，单位为毫秒
+     */
+    private long ttl() {
+        Integer expiry = properties.getDownloadExpiry();
+        Integer window = properties.getDownloadSignWindow();
+        if (SignWindowUtil.isEnabled(window, expiry)) {
+            return TimeUnit.SECONDS.toMillis(SignWindowUtil.secondsToWindowEnd(Instant.now().getEpochSecond(), window));
+        }
+        return TimeUnit.MINUTES.toMillis(expiry) / 2;
+    }
+
+    /**
+     * 缓存命中次数
+     */
+    public long getHitCount() {
+        return cache == null ? 0 : cache.getHitCount();
+    }
+
+    /**
+     * 缓存未命中次数
+     */
+    public long getMissCount() {
+        return cache == null ? 0 : cache.getMissCount();
+    }
+
+    /**
+     * 当前缓存的地址数量
+     */
+    public int size() {
+        return cache == null ? 0 : cache.size();
+    }
+
+}
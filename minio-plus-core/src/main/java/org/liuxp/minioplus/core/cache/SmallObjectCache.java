@@ -0,0 +1,410 @@
+package org.liuxp.minioplus.core.cache;
+
+import org.liuxp.minioplus.common.config.MinioPlusProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 小文件内存缓存
+ * 按文件MD5值缓存长度不超过阈值的文件内容，内容相同的文件共用一份缓存，总长度有上限
+ * <p>
+ * 淘汰策略为W-TinyLFU：新文件先进入占1%空间的窗口区，从窗口区淘汰时与主区的淘汰对象比较访问频率，
+ * 频率更高才进入主区，一次性的批量读取不会挤掉热点文件。主区分为试用区和保护区（80%），
+ * 试用区中再次命中的文件进入保护区。访问频率由Count-Min Sketch统计，定期减半，旧的热点会逐渐冷却。
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+@Component
+public class SmallObjectCache {
+
+    private static final int WINDOW = 0;
+
+    private static final int PROBATION = 1;
+
+    private static final int PROTECTED = 2;
+
+    /**
+     * 是否开启
+     */
+    private final boolean enabled;
+
+    private final int threshold;
+
+    private final long windowMaxBytes;
+
+    private final long mainMaxBytes;
+
+    private final long protectedMaxBytes;
+
+    private final Map<String, Node> data = new HashMap<>();
+
+    /**
+     * 各区按最近访问顺序排列，第一个为最近最少使用
+     */
+    private final LinkedHashMap<String, Node> window = new LinkedHashMap<>();
+
+    private final LinkedHashMap<String, Node> probation = new LinkedHashMap<>();
+
+    private final LinkedHashMap<String, Node> protectedArea = new LinkedHashMap<>();
+
+    private long windowBytes;
+
+    private long probationBytes;
+
+    private long protectedBytes;
+
+    private final FrequencySketch sketch;
+
+    private long hitCount;
+
+    private long missCount;
+
+    private long evictionCount;
+
+    public SmallObjectCache(MinioPlusProperties properties) {
+        MinioPlusProperties.MemoryCache config = properties.getMemoryCache();
+        this.enabled = config.isEnable() && config.getMaxBytes() > 0 && config.getThreshold() > 0;
+        this.threshold = config.getThreshold();
+
+        long maxBytes = Math.max(0L, config.getMaxBytes());
+        this.windowMaxBytes = Math.max(1L, maxBytes / 100);
+        this.mainMaxBytes = maxBytes - windowMaxBytes;
+        this.protectedMaxBytes = mainMaxBytes * 8 / 10;
+
+        // 按平均长度为阈值的1/4估算文件数量，用于确定频率统计表的大小
+        long expectedEntries = enabled ? maxBytes / Math.max(1, threshold / 4) : 0;
+        this.sketch = enabled ? new FrequencySketch((int) Math.min(expectedEntries, 1 << 22)) : null;
+    }
+
+    /**
+     * 文件是否可以缓存
+     *
+     * @param fileSize 文件长度
+     * @return 是否可以缓存
+     */
+    public boolean isCacheable(long fileSize) {
+        return enabled && fileSize <= threshold;
+    }
+
+    /**
+     * 取得缓存的文件内容，未命中时调用读取方法并尝试放入缓存
+     *
+     * @param fileMd5  文件MD5值
+     * @param fileSize 文件长度
+     * @param loader   读取方法
+     * @return 文件内容
+     */
+    public byte[] get(String fileMd5, long fileSize, Supplier<byte[]> loader) {
+        if (!isCacheable(fileSize)) {
+            return loader.get();
+        }
+        byte[] cached = get(fileMd5);
+        if (cached != null) {
+            return cached;
+        }
+        byte[] fileBytes = loader.get();
+        put(fileMd5, fileBytes);
+        return fileBytes;
+    }
+
+    /**
+     * 取得缓存的文件内容
+     *
+     * @param fileMd5 文件MD5值
+     * @return 文件内容的副本，未命中时为null
+     */
+    public synchronized byte[] get(String fileMd5) {
+        if (!enabled) {
+            return null;
+        }
+        sketch.increment(fileMd5);
+
+        Node node = data.get(fileMd5);
+        if (node == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+
+        if (node.area == WINDOW) {
+            moveToTail(window, node);
+        } else if (node.area == PROBATION) {
+            // 试用区中再次命中，进入保护区
+            probation.remove(node.key);
+            probationBytes -= node.value.length;
+            node.area = PROTECTED;
+            protectedArea.put(node.key, node);
+            protectedBytes += node.value.length;
+            demoteProtected();
+        } else {
+            moveToTail(protectedArea, node);
+        }
+        return node.value.clone();
+    }
+
+    /**
+     * 放入缓存
+     * 文件内容不会变化，已缓存时不覆盖
+     *
+     * @param fileMd5   文件MD5值
+     * @param fileBytes 文件内容
+     */
+    public synchronized void put(String fileMd5, byte[] fileBytes) {
+        if (!enabled || fileBytes.length > threshold || data.containsKey(fileMd5)) {
+            return;
+        }
+        Node node = new Node(fileMd5, fileBytes.clone());
+        data.put(fileMd5, node);
+        window.put(fileMd5, node);
+        windowBytes += fileBytes.length;
+
+        // 窗口区超出上限时，淘汰的文件作为候选者尝试进入主区
+        Iterator<Node> iterator = window.values().iterator();
+        while (windowBytes > windowMaxBytes && iterator.hasNext()) {
+            Node candidate = iterator.next();
+            iterator.remove();
+            windowBytes -= candidate.value.length;
+            admit(candidate);
+        }
+    }
+
+    /**
+     * 候选者进入主区
+     * 主区空间不足时，从试用区、保护区的最近最少使用端依次选出淘汰对象，
+     * 候选者的访问频率高于全部淘汰对象时才进入主区，否则淘汰候选者
+     */
+    private void admit(Node candidate) {
+        long required = probationBytes + protectedBytes + candidate.value.length - mainMaxBytes;
+        List<Node> victims = new ArrayList<>();
+        if (required > 0) {
+            int candidateFrequency = sketch.frequency(candidate.key);
+            long released = 0;
+            for (Iterator<Node> iterator = new VictimIterator(); released < required && iterator.hasNext(); ) {
+                Node victim = iterator.next();
+                if (sketch.frequency(victim.key) >= candidateFrequency) {
+                    evict(candidate);
+                    return;
+                }
+                victims.add(victim);
+                released += victim.value.length;
+            }
+            if (released < required) {
+                evict(candidate);
+                return;
+            }
+        }
+
+        for (Node victim : victims) {
+            if (victim.area == PROBATION) {
+                probation.remove(victim.key);
+                probationBytes -= victim.value.length;
+            } else {
+                protectedArea.remove(victim.key);
+                protectedBytes -= victim.value.length;
+            }
+            evict(victim);
+        }
+        candidate.area = PROBATION;
+        probation.put(candidate.key, candidate);
+        probationBytes += candidate.value.length;
+    }
+
+    /**
+     * 保护区超出上限时，最近最少使用的文件降回试用区
+     */
+    private void demoteProtected() {
+        Iterator<Node> iterator = protectedArea.values().iterator();
+        while (protectedBytes > protectedMaxBytes && iterator.hasNext()) {
+            Node node = iterator.next();
+            iterator.remove();
+            protectedBytes -= node.value.length;
+            node.area = PROBATION;
+            probation.put(node.key, node);
+            probationBytes += node.value.length;
+        }
+    }
+
+    private void evict(Node node) {
+        data.remove(node.key);
+        evictionCount++;
+    }
+
+    private static void moveToTail(LinkedHashMap<String, Node> area, Node node) {
+        area.remove(node.key);
+        area.put(node.key, node);
+    }
+
+    /**
+     * 缓存命中次数
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * 缓存未命中次数
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * 缓存命中率
+     */
+    public synchronized double getHitRatio() {
+        long total = hitCount + missCount;
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * 淘汰和未进入主区的文件数量
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * 当前缓存的文件数量
+     */
+    public synchronized int size() {
+        return data.size();
+    }
+
+    /**
+     * 当前缓存文件的总长度
+     */
+    public synchronized long getTotalBytes() {
+        return windowBytes + probationBytes + protectedBytes;
+    }
+
+    /**
+     * 依次返回试用区、保护区中最近最少使用的文件
+     */
+    private class VictimIterator implements Iterator<Node> {
+
+        private final Iterator<Node> probationIterator = probation.values().iterator();
+
+        private final Iterator<Node> protectedIterator = protectedArea.values().iterator();
+
+        @Override
+        public boolean hasNext() {
+            return probationIterator.hasNext() || protectedIterator.hasNext();
+        }
+
+        @Override
+        public Node next() {
+            return probationIterator.hasNext() ? probationIterator.next() : protectedIterator.next();
+        }
+
+    }
+
+    private static class Node {
+
+        private final String key;
+
+        private final byte[] value;
+
+        private int area = WINDOW;
+
+        private Node(String key, byte[] value) {
+            this.key = key;
+            this.value = value;
+        }
+
+    }
+
+    /**
+     * Count-Min Sketch 访问频率统计
+     * 每个计数器4位，上限15；累计次数达到统计表大小的10倍时全部减半
+     */
+    private static class FrequencySketch {
+
+        private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        /**
+         * 每个long存放16个计数器
+         */
+        private final long[] table;
+
+        private final int tableMask;
+
+        private final int sampleSize;
+
+        private int additions;
+
+        private FrequencySketch(int expectedEntries) {
+            int size = Integer.highestOneBit(Math.max(64, expectedEntries) - 1) << 1;
+            this.table = new long[size / 16 * 4];
+            this.tableMask = table.length - 1;
+            this.sampleSize = size * 10;
+        }
+
+        private int frequency(String key) {
+            int hash = spread(key.hashCode());
+            int frequency = Integer.MAX_VALUE;
+            for (int i = 0; i < 4; i++) {
+                frequency = Math.min(frequency, counter(hash, i));
+            }
+            return frequency;
+        }
+
+        private void increment(String key) {
+            int hash = spread(key.hashCode());
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                int index = index(hash, i);
+                int offset = offset(hash, i);
+                if (((table[index] >>> offset) & 0xFL) != 0xFL) {
+                    table[index] += 1L << offset;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        /**
+         * 全部计数器减半
+         */
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (table[i] >>> 1) & RESET_MASK;
+            }
+            additions /= 2;
+        }
+
+        private int counter(int hash, int i) {
+            return (int) ((table[index(hash, i)] >>> offset(hash, i)) & 0xFL);
+        }
+
+        private int index(int hash, int i) {
+            long h = (hash + SEEDS[i]) * SEEDS[i];
+            h += h >>> 32;
+            return (int) h & tableMask;
+        }
+
+        private static int offset(int hash, int i) {
+            // 每个哈希函数使用不同的4位计数器
+            return (((hash >>> (i << 3)) & 3) << 2) + (i << 4) & 63;
+        }
+
+        private static int spread(int x) {
+            x = ((x >>> 16) ^ x) * 0x45d9f3b;
+            x = ((x >>> 16) ^ x) * 0x45d9f3b;
+            return (x >>> 16) ^ x;
+        }
+
+    }
+
+}
@@ -0,0 +1,95 @@
+package org.liuxp.minioplus.core.common.utils;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 限制读取长度的输入流
+ * 读取到指定长度后返回结束，关闭时同时关闭源输入流
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+public class BoundedInputStream extends FilterInputStream {
+
+    /**
+     * 剩余可读取的长度
+     */
+    private long remaining;
+
+    /**
+     * 构造方法
+     *
+     * @param source 源输入流
+     * @param limit  最大读取长度
+     */
+    public BoundedInputStream(InputStream source, long limit) {
+        super(source);
+        this.remaining = limit;
+    }
+
+    /**
+     * 跳过起始位置之前的数据，返回之后指定长度的输入流
+     * 用于无法按范围读取的源输入流，如压缩存储的文件解压后的输入流
+     *
+     * @param source 源输入流
+     * @param offset 起始位置
+     * @param length 读取长度
+     * @return 限制读取长度的输入流
+     * @throws IOException 源输入流在起始位置之前结束
+     */
+    public static BoundedInputStream range(InputStream source, long offset, long length) throws IOException {
+        long skipped = 0;
+        while (skipped < offset) {
+            long step = source.skip(offset - skipped);
+            if (step <= 0) {
+                throw new IOException("unexpected end of stream");
+            }
+            skipped += step;
+        }
+        return new BoundedInputStream(source, length);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (remaining <= 0) {
+            return -1;
+        }
+        int read = super.read();
+        if (read >= 0) {
+            remaining--;
+        }
+        return read;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (remaining <= 0) {
+            return -1;
+        }
+        int read = super.read(b, off, (int) Math.min(len, remaining));
+        if (read > 0) {
+            remaining -= read;
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(Math.min(n, remaining));
+        remaining -= skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(super.available(), remaining);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+}
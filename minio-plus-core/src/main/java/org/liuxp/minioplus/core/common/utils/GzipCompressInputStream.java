@@ -0,0 +1,129 @@
+package org.liuxp.minioplus.core.common.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 边读取边压缩的GZIP输入流
+ * 从源输入流读取数据，返回GZIP格式的压缩数据，内存占用与源数据长度无关
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+public class GzipCompressInputStream extends InputStream {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final InputStream source;
+
+    private final byte[] readBuffer = new byte[BUFFER_SIZE];
+
+    /**
+     * 尚未被读取的压缩数据
+     */
+    private final CompressedBuffer compressed = new CompressedBuffer();
+
+    private final GZIPOutputStream gzip;
+
+    /**
+     * 压缩数据中下一个可读取的位置
+     */
+    private int position;
+
+    /**
+     * 源输入流是否已读取完毕
+     */
+    private boolean finished;
+
+    /**
+     * 已返回的压缩数据长度
+     */
+    private long compressedSize;
+
+    /**
+     * 构造方法
+     *
+     * @param source 源输入流
+     * @param level  压缩级别，1-9
+     * @throws IOException IO异常
+     */
+    public GzipCompressInputStream(InputStream source, int level) throws IOException {
+        this.source = source;
+        this.gzip = new GZIPOutputStream(compressed, BUFFER_SIZE) {
+            {
+                def.setLevel(level);
+            }
+        };
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        // 压缩数据读完时继续压缩源数据，直到有可读数据或源输入流结束
+        while (position == compressed.size() && !finished) {
+            fill();
+        }
+        int available = compressed.size() - position;
+        if (available == 0) {
+            return -1;
+        }
+        int length = Math.min(len, available);
+        System.arraycopy(compressed.buffer(), position, b, off, length);
+        position += length;
+        compressedSize += length;
+        return length;
+    }
+
+    /**
+     * 已返回的压缩数据长度，读取完毕后为压缩后的总长度
+     *
+     * @return 压缩数据长度
+     */
+    public long getCompressedSize() {
+        return compressedSize;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            source.close();
+        } finally {
+            // 释放Deflater占用的堆外内存，未读取完毕就关闭时也需要释放
+            gzip.close();
+        }
+    }
+
+    private void fill() throws IOException {
+        compressed.reset();
+        position = 0;
+        int read = source.read(readBuffer);
+        if (read < 0) {
+            gzip.finish();
+            finished = true;
+        } else {
+            gzip.write(readBuffer, 0, read);
+        }
+    }
+
+    /**
+     * 可直接访问内部数组的缓冲区，避免复制
+     */
+    private static class CompressedBuffer extends ByteArrayOutputStream {
+
+        private byte[] buffer() {
+            return buf;
+        }
+
+    }
+
+}
@@ -0,0 +1,49 @@
+package org.liuxp.minioplus.core.common.utils;
+
+import cn.hutool.core.text.CharSequenceUtil;
+import org.liuxp.minioplus.s3.def.ListParts;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 分块校验工具类
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+public class PartCheckUtil {
+
+    private PartCheckUtil() {
+    }
+
+    /**
+     * 查找缺失或校验值不一致的块号
+     * 已上传的分块按块号建立索引，一次遍历完成校验，ETag忽略引号和大小写
+     *
+     * @param partList    已上传的分块
+     * @param partMd5List 按块号排列的分块MD5值
+     * @return 缺失的块号，从1开始
+     */
+    public static List<Integer> findMissingParts(List<ListParts.Part> partList, List<String> partMd5List) {
+
+        int chunkNum = partMd5List.size();
+
+        // 按块号建立索引，下标即块号
+        String[] etags = new String[chunkNum + 1];
+        for (ListParts.Part part : partList) {
+            if (part.getPartNumber() >= 1 && part.getPartNumber() <= chunkNum) {
+                etags[part.getPartNumber()] = CharSequenceUtil.strip(part.getEtag(), "\"");
+            }
+        }
+
+        List<Integer> missingNumbers = new ArrayList<>();
+        for (int i = 1; i <= chunkNum; i++) {
+            if (etags[i] == null || !CharSequenceUtil.equalsIgnoreCase(etags[i], CharSequenceUtil.strip(partMd5List.get(i - 1), "\""))) {
+                missingNumbers.add(i);
+            }
+        }
+        return missingNumbers;
+    }
+
+}
@@ -0,0 +1,181 @@
+package org.liuxp.minioplus.core.download;
+
+import lombok.extern.slf4j.Slf4j;
+import org.liuxp.minioplus.api.model.vo.FileMetadataInfoVo;
+import org.liuxp.minioplus.common.config.MinioPlusProperties;
+import org.liuxp.minioplus.common.enums.MinioPlusErrorCode;
+import org.liuxp.minioplus.common.exception.MinioPlusException;
+import org.liuxp.minioplus.core.engine.StorageEngineService;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 文件分段并发下载到本地
+ * 按分段大小切分后，每个分段使用独立的范围请求并发读取，按位置写入本地文件
+ * 对象名称为文件MD5值，内容不会变化，各分段无需校验一致性
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+@Slf4j
+@Component
+public class ParallelRangeDownloader implements DisposableBean {
+
+    /**
+     * 写入本地文件时的缓冲区大小
+     */
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final StorageEngineService storageEngineService;
+
+    private final MinioPlusProperties properties;
+
+    /**
+     * 分段下载线程池，所有下载任务共用
+     */
+    private final ExecutorService executor;
+
+    public ParallelRangeDownloader(StorageEngineService storageEngineService, MinioPlusProperties properties) {
+        this.storageEngineService = storageEngineService;
+        this.properties = properties;
+
+        int threads = Math.max(1, properties.getDownload().getThreads());
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor threadPool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "minioplus-download-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        threadPool.allowCoreThreadTimeOut(true);
+        this.executor = threadPool;
+    }
+
+    /**
+     * 下载文件到本地
+     * 本地文件已存在时覆盖，下载失败时删除不完整的本地文件
+     *
+     * @param metadata 文件元数据
+     * @param target   本地文件
+     */
+    public void download(FileMetadataInfoVo metadata, Path target) {
+
+        long fileSize = metadata.getFileSize();
+        long rangeSize = Math.max(1L, properties.getDownload().getRangeSize());
+
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            // 打包存储和压缩存储的文件不能按范围读取原始数据，与小文件一样按单个流下载
+            boolean sequential = fileSize <= rangeSize || Boolean.TRUE.equals(metadata.getIsPacked()) || metadata.getContentEncoding() != null;
+            if (sequential) {
+                downloadRange(metadata, channel, 0, fileSize);
+                return;
+            }
+
+            // 各工作任务依次领取分段，单个文件占用的线程数不超过parallelism
+            long rangeCount = (fileSize + rangeSize - 1) / rangeSize;
+            int parallelism = (int) Math.min(Math.max(1, properties.getDownload().getParallelism()), rangeCount);
+            AtomicLong nextRange = new AtomicLong();
+            AtomicBoolean failed = new AtomicBoolean();
+
+            List<CompletableFuture<Void>> futures = new ArrayList<>(parallelism);
+            for (int i = 0; i < parallelism; i++) {
+                futures.add(CompletableFuture.runAsync(() -> {
+                    long range;
+                    while (!failed.get() && (range = nextRange.getAndIncrement()) < rangeCount) {
+                        long start = range * rangeSize;
+                        try {
+                            downloadRange(metadata, channel, start, Math.min(rangeSize, fileSize - start));
+                        } catch (RuntimeException e) {
+                            // 一个分段失败时其余任务不再领取新的分段
+                            failed.set(true);
+                            throw e;
+                        }
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            deleteQuietly(target);
+            if (e.getCause() instanceof MinioPlusException) {
+                throw (MinioPlusException) e.getCause();
+            }
+            log.error("{}:{}", MinioPlusErrorCode.FILE_DOWNLOAD_FAILED.getMessage(), e.getMessage(), e);
+            throw new MinioPlusException(MinioPlusErrorCode.FILE_DOWNLOAD_FAILED);
+        } catch (MinioPlusException e) {
+            deleteQuietly(target);
+            throw e;
+        } catch (IOException e) {
+            deleteQuietly(target);
+            log.error("{}:{}", MinioPlusErrorCode.FILE_DOWNLOAD_FAILED.getMessage(), e.getMessage(), e);
+            throw new MinioPlusException(MinioPlusErrorCode.FILE_DOWNLOAD_FAILED);
+        }
+    }
+
+    /**
+     * 下载一个分段，写入本地文件的对应位置
+     * 失败时按配置的次数重试，从已写入的位置继续读取
+     */
+    private void downloadRange(FileMetadataInfoVo metadata, FileChannel channel, long start, long length) {
+        int retries = Math.max(0, properties.getDownload().getRetries());
+        long end = start + length;
+        long position = start;
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+
+        for (int attempt = 0; ; attempt++) {
+            try (InputStream inputStream = storageEngineService.readStream(metadata, position, end - position)) {
+                int read;
+                while (position < end && (read = inputStream.read(buffer)) >= 0) {
+                    ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, read);
+                    while (byteBuffer.hasRemaining()) {
+                        position += channel.write(byteBuffer, position);
+                    }
+                }
+                if (position != end) {
+                    throw new IOException("分段长度不一致，应为" + length + "，实际为" + (position - start));
+                }
+                return;
+            } catch (IOException | MinioPlusException e) {
+                if (attempt >= retries || Thread.currentThread().isInterrupted()) {
+                    if (e instanceof MinioPlusException) {
+                        throw (MinioPlusException) e;
+                    }
+                    log.error("{}:{}", MinioPlusErrorCode.FILE_DOWNLOAD_FAILED.getMessage(), e.getMessage(), e);
+                    throw new MinioPlusException(MinioPlusErrorCode.FILE_DOWNLOAD_FAILED);
+                }
+                log.warn("分段下载失败，第{}次重试，fileKey:{}，position:{}", attempt + 1, metadata.getFileKey(), position);
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path target) {
+        try {
+            Files.deleteIfExists(target);
+        } catch (IOException e) {
+            log.warn("删除不完整的本地文件失败:{}", target);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+}
@@ -5,9 +5,12 @@ import org.liuxp.minioplus.api.model.dto.FileMetadataInfoSaveDTO;
 import org.liuxp.minioplus.api.model.vo.CompleteResultVo;
 import org.liuxp.minioplus.api.model.vo.FileCheckResultVo;
 import org.liuxp.minioplus.api.model.vo.FileMetadataInfoVo;
+import org.liuxp.minioplus.api.model.vo.FilePartPageVo;
 
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 存储引擎Service接口定义
@@ -48,8 +51,19 @@ public interface StorageEngineService {
      */
     CompleteResultVo complete(String fileKey, List<String> partMd5List,String userId);
 
+    /**
+     * 取得下一页分块上传链接
+     *
+     * @param fileKey 文件KEY
+     * @param partNumber 起始块号
+     * @param userId  用户编号
+     * @return {@link FilePartPageVo}
+     */
+    FilePartPageVo nextParts(String fileKey, Integer partNumber, String userId);
+
     /**
      * 取得文件下载地址
+     * 打包存储的文件没有独立地址，抛出异常，需通过readStream读取
      *
      * @param fileKey 文件KEY
      * @param userId  用户编号
@@ -57,8 +71,28 @@ public interface StorageEngineService {
      */
     String download(String fileKey, String userId);
 
+    /**
+     * 取得已校验权限的文件下载地址
+     * 签名为本地计算，不访问存储引擎和数据库
+     *
+     * @param metadata 文件元数据
+     * @return 地址
+     */
+    String download(FileMetadataInfoVo metadata);
+
+    /**
+     * 取得有访问权限的文件元数据
+     * 文件不存在或没有访问权限时抛出文件不存在异常
+     *
+     * @param fileKey 文件KEY
+     * @param userId  用户编号
+     * @return 文件元数据
+     */
+    FileMetadataInfoVo one(String fileKey, String userId);
+
     /**
      * 取得原图地址
+     * 打包存储的文件没有独立地址，抛出异常，需通过readStream读取
      *
      * @param fileKey 文件KEY
      * @param userId  用户编号
@@ -66,6 +100,15 @@ public interface StorageEngineService {
      */
     String image(String fileKey, String userId);
 
+    /**
+     * 取得已校验权限的原图地址
+     * 签名为本地计算，不访问存储引擎和数据库
+     *
+     * @param metadata 文件元数据
+     * @return 地址
+     */
+    String image(FileMetadataInfoVo metadata);
+
     /**
      * 取得缩略图地址
      *
@@ -91,6 +134,22 @@ public interface StorageEngineService {
      */
     Boolean createFile(FileMetadataInfoSaveDTO saveDTO, InputStream inputStream);
 
+    /**
+     * 写入本地文件
+     * @param saveDTO 文件元数据信息保存入参
+     * @param channel 本地文件通道
+     * @return 是否成功
+     */
+    Boolean createFile(FileMetadataInfoSaveDTO saveDTO, FileChannel channel);
+
+    /**
+     * 删除已写入但未保存元数据的文件，批量写入失败时回滚使用
+     * 已存在相同MD5值的元数据时不删除；打包存储的文件没有独立对象，不删除
+     *
+     * @param saveDTO 文件元数据信息保存入参
+     */
+    void removeUnsaved(FileMetadataInfoSaveDTO saveDTO);
+
     /**
      * 读取文件流
      * @param fileKey 文件KEY
@@ -98,6 +157,34 @@ public interface StorageEngineService {
      */
     Pair<FileMetadataInfoVo,byte[]> read(String fileKey);
 
+    /**
+     * 打开文件指定范围的文件流
+     * 打包存储的文件按范围读取打包对象，压缩存储的文件边读取边解压
+     * @param metadata 文件元数据
+     * @param offset 起始位置，不超过文件长度
+     * @param length 读取长度，不超过起始位置之后的文件长度
+     * @return 文件流，调用方读取完毕后需关闭
+     */
+    InputStream readStream(FileMetadataInfoVo metadata, long offset, long length);
+
+    /**
+     * 异步写入文件
+     * 打包存储、压缩存储与同步写入一致，存储引擎的网络往返不阻塞调用线程
+     * @param saveDTO 文件元数据信息保存入参
+     * @param fileBytes 文件字节流
+     * @return 是否成功
+     */
+    CompletableFuture<Boolean> createFileAsync(FileMetadataInfoSaveDTO saveDTO, byte[] fileBytes);
+
+    /**
+     * 异步读取文件
+     * 与同步读取相同，依次读取内存缓存和本地磁盘缓存，未命中时异步读取后写入缓存
+     * 打包存储的文件按范围读取，压缩存储的文件解压后返回
+     * @param metadata 文件元数据
+     * @return 文件字节流
+     */
+    CompletableFuture<byte[]> readAsync(FileMetadataInfoVo metadata);
+
     /**
      * 删除文件
      * @param fileKey 文件KEY
@@ -105,6 +192,15 @@ public interface StorageEngineService {
      */
     Boolean remove(String fileKey);
 
+    /**
+     * 删除文件元数据，不删除物理文件
+     * 由调用方删除返回的物理对象，供异步客户端使用
+     *
+     * @param fileKey 文件KEY
+     * @return 需要删除的物理对象，桶名称和对象名称
+     */
+    List<Pair<String, String>> removeMetadata(String fileKey);
+
     /**
      * 删除文件
      * @param fileKey 文件KEY
@@ -3,9 +3,11 @@ package org.liuxp.minioplus.core.engine.impl;
 import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
 import cn.hutool.core.lang.Pair;
 import cn.hutool.core.text.CharSequenceUtil;
 import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.ZipUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.liuxp.minioplus.api.model.bo.CreateUploadUrlReqBO;
 import org.liuxp.minioplus.api.model.bo.CreateUploadUrlRespBO;
@@ -15,23 +17,42 @@ import org.liuxp.minioplus.api.model.dto.FileMetadataInfoUpdateDTO;
 import org.liuxp.minioplus.api.model.vo.CompleteResultVo;
 import org.liuxp.minioplus.api.model.vo.FileCheckResultVo;
 import org.liuxp.minioplus.api.model.vo.FileMetadataInfoVo;
+import org.liuxp.minioplus.api.model.vo.FilePartPageVo;
 import org.liuxp.minioplus.common.config.MinioPlusProperties;
 import org.liuxp.minioplus.common.enums.MinioPlusErrorCode;
 import org.liuxp.minioplus.common.enums.StorageBucketEnums;
 import org.liuxp.minioplus.common.exception.MinioPlusException;
+import org.liuxp.minioplus.core.cache.LocalDiskObjectCache;
+import org.liuxp.minioplus.core.cache.PresignedUrlCache;
+import org.liuxp.minioplus.core.cache.SmallObjectCache;
+import org.liuxp.minioplus.core.common.utils.BoundedInputStream;
 import org.liuxp.minioplus.core.common.utils.CommonUtil;
+import org.liuxp.minioplus.core.common.utils.GzipCompressInputStream;
+import org.liuxp.minioplus.core.common.utils.PartCheckUtil;
 import org.liuxp.minioplus.core.engine.StorageEngineService;
+import org.liuxp.minioplus.core.filter.FileMd5Filter;
+import org.liuxp.minioplus.core.lock.FileMd5Lock;
+import org.liuxp.minioplus.core.pack.SmallFilePackStore;
 import org.liuxp.minioplus.core.repository.MetadataRepository;
+import org.liuxp.minioplus.core.upload.ParallelMultipartUploader;
 import org.liuxp.minioplus.s3.def.ListParts;
+import org.liuxp.minioplus.s3.def.MinioS3AsyncClient;
 import org.liuxp.minioplus.s3.def.MinioS3Client;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Lock;
+import java.util.zip.GZIPInputStream;
 
 /**
  * 存储引擎Service接口实现类
@@ -43,22 +64,72 @@ import java.util.Optional;
 @Slf4j
 public class StorageEngineServiceImpl implements StorageEngineService {
 
+    /**
+     * 预览地址的Content-Disposition
+     */
+    private static final String INLINE = "inline";
+
+    /**
+     * 压缩存储的内容编码
+     */
+    private static final String GZIP = "gzip";
+
+    /**
+     * 解压缓冲区大小
+     */
+    private static final int BUFFER_SIZE = 8192;
+
     private final MetadataRepository metadataRepository;
 
     private final MinioPlusProperties properties;
 
     private final MinioS3Client minioS3Client;
 
+    private final PresignedUrlCache presignedUrlCache;
+
+    private final FileMd5Filter fileMd5Filter;
+
+    private final FileMd5Lock fileMd5Lock;
+
+    private final ParallelMultipartUploader multipartUploader;
+
+    private final SmallFilePackStore packStore;
+
+    private final MinioS3AsyncClient minioS3AsyncClient;
+
+    private final LocalDiskObjectCache diskCache;
+
+    private final SmallObjectCache memoryCache;
+
     /**
      * 构造方法
      * @param metadataRepository 文件元数据服务接口定义
      * @param properties MinioPlus配置类
      * @param minioS3Client MinIO S3文件存储引擎接口定义
+     * @param presignedUrlCache 预签名地址缓存
+     * @param fileMd5Filter 文件MD5存在性过滤器
+     * @param fileMd5Lock 文件MD5锁
+     * @param multipartUploader 服务端并发分片上传
+     * @param packStore 小文件打包存储
+     * @param minioS3AsyncClient MinIO S3文件存储引擎异步接口定义
+     * @param diskCache 本地磁盘读缓存
+     * @param memoryCache 小文件内存缓存
      */
-    public StorageEngineServiceImpl(MetadataRepository metadataRepository, MinioPlusProperties properties, MinioS3Client minioS3Client) {
+    public StorageEngineServiceImpl(MetadataRepository metadataRepository, MinioPlusProperties properties, MinioS3Client minioS3Client,
+                                    PresignedUrlCache presignedUrlCache, FileMd5Filter fileMd5Filter, FileMd5Lock fileMd5Lock,
+                                    ParallelMultipartUploader multipartUploader, SmallFilePackStore packStore, MinioS3AsyncClient minioS3AsyncClient,
+                                    LocalDiskObjectCache diskCache, SmallObjectCache memoryCache) {
         this.metadataRepository = metadataRepository;
         this.properties = properties;
         this.minioS3Client = minioS3Client;
+        this.presignedUrlCache = presignedUrlCache;
+        this.fileMd5Filter = fileMd5Filter;
+        this.fileMd5Lock = fileMd5Lock;
+        this.multipartUploader = multipartUploader;
+        this.packStore = packStore;
+        this.minioS3AsyncClient = minioS3AsyncClient;
+        this.diskCache = diskCache;
+        this.memoryCache = memoryCache;
     }
 
     /**
@@ -68,6 +139,7 @@ public class StorageEngineServiceImpl implements StorageEngineService {
      * 2.当前用户上传过，未完成，断点续传
      * 3.其他用户上传过，未完成，断点续传，新增文件元数据
      * 4.从未上传过，下发上传链接，新增文件元数据
+     * 同一MD5的初始化串行执行，后到的调用方按2、3处理，与先到的调用方共享同一个上传任务
      *
      * @param fileMd5      文件md5
      * @param fullFileName 文件名（含扩展名）
@@ -77,11 +149,21 @@ public class StorageEngineServiceImpl implements StorageEngineService {
      */
     @Override
     public FileCheckResultVo init(String fileMd5, String fullFileName, long fileSize, Boolean isPrivate, String userId) {
+        Lock lock = fileMd5Lock.getLock(fileMd5);
+        lock.lock();
+        try {
+            return this.doInit(fileMd5, fullFileName, fileSize, isPrivate, userId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private FileCheckResultVo doInit(String fileMd5, String fullFileName, long fileSize, Boolean isPrivate, String userId) {
 
-        // 根据MD5查询文件是否已上传过
+        // 根据MD5查询文件是否已上传过，过滤器判定一定不存在时跳过查询
         FileMetadataInfoDTO searchDTO = new FileMetadataInfoDTO();
         searchDTO.setFileMd5(fileMd5);
-        List<FileMetadataInfoVo> list = metadataRepository.list(searchDTO);
+        List<FileMetadataInfoVo> list = fileMd5Filter.mightContain(fileMd5) ? metadataRepository.list(searchDTO) : Collections.emptyList();
 
         FileMetadataInfoSaveDTO saveDTO = new FileMetadataInfoSaveDTO();
         CreateUploadUrlReqBO bo = new CreateUploadUrlReqBO();
@@ -99,6 +181,11 @@ public class StorageEngineServiceImpl implements StorageEngineService {
                     saveDTO.setFileSize(fileMetadataInfoVo.getFileSize()); // 文件长度
                     saveDTO.setStorageBucket(fileMetadataInfoVo.getStorageBucket()); // 存储桶
                     saveDTO.setStoragePath(fileMetadataInfoVo.getStoragePath()); // 存储桶路径
+                    saveDTO.setIsPacked(fileMetadataInfoVo.getIsPacked()); // 是否打包存储
+                    saveDTO.setPackObject(fileMetadataInfoVo.getPackObject()); // 打包对象名称
+                    saveDTO.setPackOffset(fileMetadataInfoVo.getPackOffset()); // 在打包对象中的起始位置
+                    saveDTO.setContentEncoding(fileMetadataInfoVo.getContentEncoding()); // 内容编码
+                    saveDTO.setStoredSize(fileMetadataInfoVo.getStoredSize()); // 存储长度
                     saveDTO.setIsFinished(fileMetadataInfoVo.getIsFinished()); // 状态 0:未完成 1:已完成
                     saveDTO.setIsPreview(fileMetadataInfoVo.getIsPreview()); // 预览图 0:无 1:有
                     saveDTO.setIsPrivate(isPrivate); // 是否私有 0:否 1:是
@@ -106,7 +193,7 @@ public class StorageEngineServiceImpl implements StorageEngineService {
                     saveDTO.setUpdateUser(userId); // 修改人
 
                     FileMetadataInfoVo metadataInfoVo = metadataRepository.save(saveDTO);
-                    return this.buildResult(metadataInfoVo, new ArrayList<>(1), 0, Boolean.TRUE);
+                    return this.buildResult(metadataInfoVo, new ArrayList<>(1), 0, null, Boolean.TRUE);
                 }
             }
 
@@ -135,13 +222,16 @@ public class StorageEngineServiceImpl implements StorageEngineService {
                 // 3.其他用户上传过，未完成，断点续传，新增文件元数据
                 // 插入自己的元数据
                 BeanUtil.copyProperties(uploadingMetadata, saveDTO);
+                // 共享上传任务，但每个调用方使用自己的文件KEY
+                saveDTO.setFileKey(IdUtil.fastSimpleUUID());
                 saveDTO.setFileName(fullFileName);
                 saveDTO.setCreateUser(userId);
+                saveDTO.setUpdateUser(userId);
                 saveDTO.setIsPrivate(isPrivate);
                 saveDTO.setUploadTaskId(respBO.getUploadTaskId());
                 FileMetadataInfoVo metadataInfoVo = metadataRepository.save(saveDTO);
 
-                return this.buildResult(metadataInfoVo, respBO.getParts(), respBO.getPartCount(), Boolean.FALSE);
+                return this.buildResult(metadataInfoVo, respBO.getParts(), respBO.getPartCount(), respBO.getNextPartNumber(), Boolean.FALSE);
             } else {
                 // 2.当前用户上传过，未完成，断点续传
                 if (CollUtil.isNotEmpty(respBO.getParts()) && !respBO.getUploadTaskId().equals(uploadingMetadata.getUploadTaskId())) {
@@ -154,7 +244,7 @@ public class StorageEngineServiceImpl implements StorageEngineService {
                     metadataRepository.update(updateDTO);
                 }
 
-                return this.buildResult(uploadingMetadata, respBO.getParts(), respBO.getPartCount(), Boolean.FALSE);
+                return this.buildResult(uploadingMetadata, respBO.getParts(), respBO.getPartCount(), respBO.getNextPartNumber(), Boolean.FALSE);
             }
         } else {
             // 4.从未上传过，下发上传链接，新增文件元数据
@@ -167,7 +257,7 @@ public class StorageEngineServiceImpl implements StorageEngineService {
 
             FileMetadataInfoVo metadataInfo = saveMetadataInfo(saveDTO, createUploadUrlRespBO, fileMd5, fullFileName, fileSize, isPrivate, userId);
 
-            return this.buildResult(metadataInfo, createUploadUrlRespBO.getParts(), createUploadUrlRespBO.getPartCount(), Boolean.FALSE);
+            return this.buildResult(metadataInfo, createUploadUrlRespBO.getParts(), createUploadUrlRespBO.getPartCount(), createUploadUrlRespBO.getNextPartNumber(), Boolean.FALSE);
         }
 
     }
@@ -179,10 +269,11 @@ public class StorageEngineServiceImpl implements StorageEngineService {
      * @param metadataInfo 元数据信息
      * @param partList     块信息
      * @param partCount    块数量
+     * @param nextPartNumber 下一页分块的起始块号
      * @param isDone       是否秒传
      * @return {@link FileCheckResultVo}
      */
-    private FileCheckResultVo buildResult(FileMetadataInfoVo metadataInfo, List<FileCheckResultVo.Part> partList, Integer partCount, Boolean isDone) {
+    private FileCheckResultVo buildResult(FileMetadataInfoVo metadataInfo, List<FileCheckResultVo.Part> partList, Integer partCount, Integer nextPartNumber, Boolean isDone) {
         FileCheckResultVo fileCheckResultVo = new FileCheckResultVo();
         // 主键
         fileCheckResultVo.setId(metadataInfo.getId());
@@ -206,6 +297,8 @@ public class StorageEngineServiceImpl implements StorageEngineService {
         fileCheckResultVo.setPartSize(properties.getPart().getSize());
         // 分块信息
         fileCheckResultVo.setPartList(partList);
+        // 下一页分块的起始块号
+        fileCheckResultVo.setNextPartNumber(nextPartNumber);
         return fileCheckResultVo;
     }
 
@@ -257,7 +350,10 @@ public class StorageEngineServiceImpl implements StorageEngineService {
         saveDTO.setCreateUser(userId);
         // 修改人
         saveDTO.setUpdateUser(userId);
-        return metadataRepository.save(saveDTO);
+        FileMetadataInfoVo metadataInfoVo = metadataRepository.save(saveDTO);
+        // 记录新文件的MD5
+        fileMd5Filter.put(fileMd5);
+        return metadataInfoVo;
     }
 
     /**
@@ -327,16 +423,87 @@ public class StorageEngineServiceImpl implements StorageEngineService {
         return completeResultVo;
     }
 
+    /**
+     * 取得下一页分块上传链接
+     * 跳过已上传的分块，从起始块号开始签发不超过一页的链接
+     *
+     * @param fileKey    文件KEY
+     * @param partNumber 起始块号
+     * @param userId     用户编号
+     * @return {@link FilePartPageVo}
+     */
+    @Override
+    public FilePartPageVo nextParts(String fileKey, Integer partNumber, String userId) {
+
+        FileMetadataInfoDTO searchDto = new FileMetadataInfoDTO();
+        // 用户id
+        searchDto.setCreateUser(userId);
+        // 文件key
+        searchDto.setFileKey(fileKey);
+
+        FileMetadataInfoVo metadata = metadataRepository.one(searchDto);
+
+        if (metadata == null) {
+            log.error(fileKey + MinioPlusErrorCode.FILE_EXIST_FAILED.getMessage());
+            throw new MinioPlusException(MinioPlusErrorCode.FILE_EXIST_FAILED.getCode(), fileKey + MinioPlusErrorCode.FILE_EXIST_FAILED.getMessage());
+        }
+
+        FilePartPageVo pageVo = new FilePartPageVo();
+        pageVo.setFileKey(fileKey);
+        pageVo.setPartCount(metadata.getPartNumber());
+
+        if (Boolean.TRUE.equals(metadata.getIsFinished()) || partNumber == null) {
+            // 文件已上传完成，无需继续下发链接
+            return pageVo;
+        }
+
+        // 分块数量
+        int chunkNum = metadata.getPartNumber();
+        // 未开启分页时，一次下发剩余全部链接
+        int pageSize = properties.getPart().getPageSize() > 0 ? properties.getPart().getPageSize() : chunkNum;
+        String objectName = metadata.getStoragePath() + "/" + metadata.getFileMd5();
+
+        List<Integer> partNumbers = new ArrayList<>(pageSize);
+        int start = Math.max(partNumber, 1);
+        while (partNumbers.size() < pageSize && start <= chunkNum) {
+            // 本轮检查的块号区间 [start, end)
+            int end = Math.min(start + pageSize - partNumbers.size(), chunkNum + 1);
+            // 只查询区间内的分块，标记已上传的块号
+            ListParts listParts = minioS3Client.listParts(metadata.getStorageBucket(), objectName, end - start, start - 1, metadata.getUploadTaskId());
+            boolean[] uploaded = new boolean[end - start];
+            for (ListParts.Part part : listParts.getPartList()) {
+                if (part.getPartNumber() >= start && part.getPartNumber() < end) {
+                    uploaded[part.getPartNumber() - start] = true;
+                }
+            }
+            for (int i = start; i < end; i++) {
+                if (!uploaded[i - start]) {
+                    partNumbers.add(i);
+                }
+            }
+            start = end;
+        }
+
+        pageVo.setPartList(this.buildResultParts(metadata.getStorageBucket(), objectName, metadata.getUploadTaskId(), metadata.getFileSize(), partNumbers));
+        pageVo.setNextPartNumber(start <= chunkNum ? start : null);
+        return pageVo;
+    }
+
     @Override
     public String download(String fileKey, String userId) {
+        // 文件权限校验
+        return this.download(this.one(fileKey, userId));
+    }
 
-        FileMetadataInfoVo metadata = getFileMetadataInfo(fileKey, userId);
+    @Override
+    public String download(FileMetadataInfoVo metadata) {
 
-        try {
-            // 文件权限校验，元数据为空或者当前登录用户不是文件所有者时抛出异常
-            this.authentication(metadata, fileKey, userId);
+        this.checkNotPacked(metadata);
 
-            return minioS3Client.getDownloadUrl(metadata.getFileName(), metadata.getFileMimeType(), metadata.getStorageBucket(), metadata.getStoragePath() + "/" + metadata.getFileMd5());
+        try {
+            String objectName = metadata.getStoragePath() + "/" + metadata.getFileMd5();
+            return presignedUrlCache.get(metadata.getStorageBucket(), objectName, metadata.getFileName(), metadata.getFileMimeType(),
+                    () -> minioS3Client.getDownloadUrl(metadata.getFileName(), metadata.getFileMimeType(), metadata.getStorageBucket(), objectName));
         } catch (Exception e) {
             // 打印日志
             log.error(e.getMessage(), e);
@@ -346,15 +513,40 @@ public class StorageEngineServiceImpl implements StorageEngineService {
     }
 
     @Override
-    public String image(String fileKey, String userId) {
+    public FileMetadataInfoVo one(String fileKey, String userId) {
 
         FileMetadataInfoVo metadata = getFileMetadataInfo(fileKey, userId);
 
         try {
             // 文件权限校验，元数据为空或者当前登录用户不是文件所有者时抛出异常
             this.authentication(metadata, fileKey, userId);
+            return metadata;
+        } catch (Exception e) {
+            // 打印日志
+            log.error(e.getMessage(), e);
+            // 任何异常，统一返回给前端文件不存在
+            throw new MinioPlusException(MinioPlusErrorCode.FILE_EXIST_FAILED);
+        }
+    }
 
-            return minioS3Client.getPreviewUrl(metadata.getFileMimeType(), metadata.getStorageBucket(), metadata.getStoragePath() + "/" + metadata.getFileMd5());
+    @Override
+    public String image(String fileKey, String userId) {
+        // 文件权限校验
+        return this.image(this.one(fileKey, userId));
+    }
+
+    @Override
+    public String image(FileMetadataInfoVo metadata) {
+
+        this.checkNotPacked(metadata);
+
+        try {
+            String objectName = metadata.getStoragePath() + "/" + metadata.getFileMd5();
+            if (this.isPublicRead(metadata, metadata.getStorageBucket())) {
+                return this.getPublicUrl(metadata.getStorageBucket(), objectName);
+            }
+            return presignedUrlCache.get(metadata.getStorageBucket(), objectName, INLINE, metadata.getFileMimeType(),
+                    () -> minioS3Client.getPreviewUrl(metadata.getFileMimeType(), metadata.getStorageBucket(), objectName));
 
         } catch (Exception e) {
             // 打印日志
@@ -381,7 +573,12 @@ public class StorageEngineServiceImpl implements StorageEngineService {
             // 生成缩略图
             generatePreviewImage(metadata);
             // 创建图片预览地址
-            return minioS3Client.getPreviewUrl(metadata.getFileMimeType(), StorageBucketEnums.IMAGE_PREVIEW.getCode(), metadata.getStoragePath() + "/" + metadata.getFileMd5());
+            String objectName = metadata.getStoragePath() + "/" + metadata.getFileMd5();
+            if (this.isPublicRead(metadata, StorageBucketEnums.IMAGE_PREVIEW.getCode())) {
+                return this.getPublicUrl(StorageBucketEnums.IMAGE_PREVIEW.getCode(), objectName);
+            }
+            return presignedUrlCache.get(StorageBucketEnums.IMAGE_PREVIEW.getCode(), objectName, INLINE, metadata.getFileMimeType(),
+                    () -> minioS3Client.getPreviewUrl(metadata.getFileMimeType(), StorageBucketEnums.IMAGE_PREVIEW.getCode(), objectName));
         } catch (Exception e) {
             // 打印日志
             log.error(e.getMessage(), e);
@@ -390,6 +587,31 @@ public class StorageEngineServiceImpl implements StorageEngineService {
         }
     }
 
+    /**
+     * 判断文件是否可以通过公共读地址访问
+     * 文件非私有，且所在桶配置为公共读
+     *
+     * @param metadata   文件元数据
+     * @param bucketName 桶名称
+     * @return 是否公共读
+     */
+    private boolean isPublicRead(FileMetadataInfoVo metadata, String bucketName) {
+        return Boolean.FALSE.equals(metadata.getIsPrivate()) && properties.getPublicBuckets().contains(bucketName);
+    }
+
+    /**
+     * 拼接公共读地址，不做签名
+     * 配置了浏览器访问地址时使用浏览器访问地址，否则使用MinIO引擎地址
+     *
+     * @param bucketName 桶名称
+     * @param objectName 对象名称含路径
+     * @return 公共读地址
+     */
+    private String getPublicUrl(String bucketName, String objectName) {
+        String baseUrl = CharSequenceUtil.isNotBlank(properties.getBrowserUrl()) ? properties.getBrowserUrl() : properties.getBackend();
+        return CharSequenceUtil.removeSuffix(baseUrl, "/") + "/" + bucketName + "/" + objectName;
+    }
+
     /**
      * 文件元数据
      *
@@ -401,7 +623,7 @@ public class StorageEngineServiceImpl implements StorageEngineService {
         try {
             if (Boolean.FALSE.equals(metadata.getIsPreview())) {
                 // 获取原图的bytes
-                byte[] imageOriginBytes = minioS3Client.getObject(StorageBucketEnums.IMAGE.getCode(), metadata.getStoragePath() + "/" + metadata.getFileMd5());
+                byte[] imageOriginBytes = this.readObject(metadata);
                 // 压缩缩略图
                 ByteArrayOutputStream largeImage = CommonUtil.resizeImage(new ByteArrayInputStream(imageOriginBytes), properties.getThumbnail().getSize());
                 byte[] largeImageBytes = largeImage.toByteArray();
@@ -426,11 +648,182 @@ public class StorageEngineServiceImpl implements StorageEngineService {
 
     @Override
     public Boolean createFile(FileMetadataInfoSaveDTO saveDTO, InputStream inputStream) {
+        if (packStore.isPackable(saveDTO.getFileSize())) {
+            // 小文件追加写入打包对象
+            SmallFilePackStore.PackLocation location = packStore.append(saveDTO.getStorageBucket(), IoUtil.readBytes(inputStream, false));
+            saveDTO.setIsPacked(true);
+            saveDTO.setPackObject(location.getPackObject());
+            saveDTO.setPackOffset(location.getOffset());
+            return true;
+        }
+        if (this.isCompressible(saveDTO)) {
+            // 开启压缩存储的桶，压缩后写入
+            return this.createCompressedFile(saveDTO, inputStream);
+        }
+        if (properties.getPart().isEnable() && saveDTO.getFileSize() > properties.getPart().getSize()) {
+            // 大于一个分块时，并发分片上传
+            multipartUploader.upload(saveDTO.getStorageBucket(), CommonUtil.getObjectName(saveDTO.getFileMd5()), inputStream, saveDTO.getFileMimeType());
+            return true;
+        }
         // 写入文件
         minioS3Client.putObject(saveDTO.getStorageBucket(), CommonUtil.getObjectName(saveDTO.getFileMd5()), inputStream, saveDTO.getFileSize(), saveDTO.getFileMimeType());
         return true;
     }
 
+    @Override
+    public Boolean createFile(FileMetadataInfoSaveDTO saveDTO, FileChannel channel) {
+        if (properties.getPart().isEnable() && saveDTO.getFileSize() > properties.getPart().getSize() && !this.isCompressible(saveDTO)) {
+            // 大于一个分块时，按位置读取各分块并发上传
+            multipartUploader.upload(saveDTO.getStorageBucket(), CommonUtil.getObjectName(saveDTO.getFileMd5()), channel, saveDTO.getFileMimeType());
+            return true;
+        }
+        // 写入文件，通道从头读取
+        try {
+            channel.position(0);
+        } catch (IOException e) {
+            log.error("{}:{}", MinioPlusErrorCode.WRITE_FAILED.getMessage(), e.getMessage(), e);
+            throw new MinioPlusException(MinioPlusErrorCode.WRITE_FAILED);
+        }
+        return createFile(saveDTO, Channels.newInputStream(channel));
+    }
+
+    @Override
+    public void removeUnsaved(FileMetadataInfoSaveDTO saveDTO) {
+        if (Boolean.TRUE.equals(saveDTO.getIsPacked())) {
+            return;
+        }
+        FileMetadataInfoDTO fileMetadataInfo = new FileMetadataInfoDTO();
+        fileMetadataInfo.setFileMd5(saveDTO.getFileMd5());
+        if (CollUtil.isEmpty(metadataRepository.list(fileMetadataInfo))) {
+            minioS3Client.removeObject(saveDTO.getStorageBucket(), saveDTO.getStoragePath() + "/" + saveDTO.getFileMd5());
+        }
+    }
+
+    /**
+     * 判断文件是否压缩存储
+     * 文件所在的桶开启了压缩存储，且文件不超过一个分块或开启了分块策略（压缩后长度未知，需要分片上传）
+     *
+     * @param saveDTO 文件元数据信息保存入参
+     * @return 是否压缩存储
+     */
+    private boolean isCompressible(FileMetadataInfoSaveDTO saveDTO) {
+        return properties.getCompression().getBuckets().contains(saveDTO.getStorageBucket())
+                && (saveDTO.getFileSize() <= properties.getPart().getSize() || properties.getPart().isEnable());
+    }
+
+    /**
+     * 压缩后写入文件
+     * 不超过一个分块的文件在内存中压缩，压缩后没有变小时按原文件写入；更大的文件边读取边压缩，分片上传
+     *
+     * @param saveDTO     文件元数据信息保存入参
+     * @param inputStream 文件流
+     * @return 是否成功
+     */
+    private Boolean createCompressedFile(FileMetadataInfoSaveDTO saveDTO, InputStream inputStream) {
+        String objectName = CommonUtil.getObjectName(saveDTO.getFileMd5());
+        int level = properties.getCompression().getLevel();
+        try {
+            if (saveDTO.getFileSize() <= properties.getPart().getSize()) {
+                byte[] fileBytes = IoUtil.readBytes(inputStream, false);
+                byte[] compressedBytes = this.gzip(fileBytes);
+                if (compressedBytes.length >= fileBytes.length) {
+                    // 已压缩格式的文件，按原文件写入
+                    minioS3Client.putObject(saveDTO.getStorageBucket(), objectName, new ByteArrayInputStream(fileBytes), fileBytes.length, saveDTO.getFileMimeType());
+                    return true;
+                }
+                minioS3Client.putObject(saveDTO.getStorageBucket(), objectName, new ByteArrayInputStream(compressedBytes), compressedBytes.length, saveDTO.getFileMimeType(), GZIP);
+                saveDTO.setStoredSize((long) compressedBytes.length);
+            } else {
+                GzipCompressInputStream compressedStream = new GzipCompressInputStream(inputStream, level);
+                multipartUploader.upload(saveDTO.getStorageBucket(), objectName, compressedStream, saveDTO.getFileMimeType(), GZIP);
+                saveDTO.setStoredSize(compressedStream.getCompressedSize());
+            }
+        } catch (IOException e) {
+            log.error("{}:{}", MinioPlusErrorCode.WRITE_FAILED.getMessage(), e.getMessage(), e);
+            throw new MinioPlusException(MinioPlusErrorCode.WRITE_FAILED);
+        }
+        saveDTO.setContentEncoding(GZIP);
+        return true;
+    }
+
+    /**
+     * 在内存中压缩文件
+     *
+     * @param fileBytes 文件内容
+     * @return 压缩后的文件内容
+     */
+    private byte[] gzip(byte[] fileBytes) throws IOException {
+        return IoUtil.readBytes(new GzipCompressInputStream(new ByteArrayInputStream(fileBytes), properties.getCompression().getLevel()));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> createFileAsync(FileMetadataInfoSaveDTO saveDTO, byte[] fileBytes) {
+        if (packStore.isPackable(saveDTO.getFileSize())) {
+            // 小文件追加写入打包对象
+            return packStore.appendAsync(saveDTO.getStorageBucket(), fileBytes).thenApply(location -> {
+                saveDTO.setIsPacked(true);
+                saveDTO.setPackObject(location.getPackObject());
+                saveDTO.setPackOffset(location.getOffset());
+                return true;
+            });
+        }
+
+        String objectName = CommonUtil.getObjectName(saveDTO.getFileMd5());
+        if (properties.getCompression().getBuckets().contains(saveDTO.getStorageBucket())) {
+            // 开启压缩存储的桶，压缩后变小时写入压缩数据
+            byte[] compressedBytes;
+            try {
+                compressedBytes = this.gzip(fileBytes);
+            } catch (IOException e) {
+                log.error("{}:{}", MinioPlusErrorCode.WRITE_FAILED.getMessage(), e.getMessage(), e);
+                throw new MinioPlusException(MinioPlusErrorCode.WRITE_FAILED);
+            }
+            if (compressedBytes.length < fileBytes.length) {
+                return minioS3AsyncClient.putObject(saveDTO.getStorageBucket(), objectName, compressedBytes, saveDTO.getFileMimeType(), GZIP).thenApply(result -> {
+                    saveDTO.setContentEncoding(GZIP);
+                    saveDTO.setStoredSize((long) compressedBytes.length);
+                    return result;
+                });
+            }
+        }
+        return minioS3AsyncClient.putObject(saveDTO.getStorageBucket(), objectName, fileBytes, saveDTO.getFileMimeType(), null);
+    }
+
+    @Override
+    public CompletableFuture<byte[]> readAsync(FileMetadataInfoVo metadata) {
+        boolean cacheable = memoryCache.isCacheable(metadata.getFileSize());
+        if (cacheable) {
+            byte[] cachedBytes = memoryCache.get(metadata.getFileMd5());
+            if (cachedBytes != null) {
+                return CompletableFuture.completedFuture(cachedBytes);
+            }
+        }
+        // 与同步读取相同，其次读取本地磁盘缓存
+        byte[] diskBytes = diskCache.getIfPresent(metadata);
+        if (diskBytes != null) {
+            if (cacheable) {
+                memoryCache.put(metadata.getFileMd5(), diskBytes);
+            }
+            return CompletableFuture.completedFuture(diskBytes);
+        }
+
+        CompletableFuture<byte[]> future;
+        if (Boolean.TRUE.equals(metadata.getIsPacked())) {
+            future = minioS3AsyncClient.getObject(metadata.getStorageBucket(), metadata.getPackObject(), metadata.getPackOffset(), metadata.getFileSize());
+        } else {
+            future = minioS3AsyncClient.getObject(metadata.getStorageBucket(), metadata.getStoragePath() + "/" + metadata.getFileMd5())
+                    // 压缩存储的文件解压后返回
+                    .thenApply(fileBytes -> GZIP.equals(metadata.getContentEncoding()) ? ZipUtil.unGzip(fileBytes) : fileBytes);
+        }
+        return future.thenApply(fileBytes -> {
+            diskCache.put(metadata, fileBytes);
+            if (cacheable) {
+                memoryCache.put(metadata.getFileMd5(), fileBytes);
+            }
+            return fileBytes;
+        });
+    }
+
     @Override
     public Pair<FileMetadataInfoVo, byte[]> read(String fileKey) {
 
@@ -444,11 +837,56 @@ public class StorageEngineServiceImpl implements StorageEngineService {
         }
 
         // 读取流
-        byte[] fileBytes = minioS3Client.getObject(fileMetadataInfoVo.getStorageBucket(), fileMetadataInfoVo.getStoragePath() + "/" + fileMetadataInfoVo.getFileMd5());
+        byte[] fileBytes = this.readObject(fileMetadataInfoVo);
 
         return Pair.of(fileMetadataInfoVo, fileBytes);
     }
 
+    @Override
+    public InputStream readStream(FileMetadataInfoVo metadata, long offset, long length) {
+        if (length == 0) {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+        if (memoryCache.isCacheable(metadata.getFileSize())) {
+            // 可缓存的小文件与readObject相同，整个读取后放入缓存，再按范围返回
+            byte[] fileBytes = this.readObject(metadata);
+            return new ByteArrayInputStream(fileBytes, (int) offset, (int) length);
+        }
+        return diskCache.openStream(metadata, offset, length, () -> this.openObjectStream(metadata, offset, length));
+    }
+
+    /**
+     * 从存储引擎打开指定范围的文件流
+     *
+     * @param metadata 文件元数据
+     * @param offset   起始位置
+     * @param length   读取长度
+     * @return 解压后指定范围的文件流
+     */
+    private InputStream openObjectStream(FileMetadataInfoVo metadata, long offset, long length) {
+        if (Boolean.TRUE.equals(metadata.getIsPacked())) {
+            return minioS3Client.getObjectStream(metadata.getStorageBucket(), metadata.getPackObject(), metadata.getPackOffset() + offset, length);
+        }
+
+        String objectName = metadata.getStoragePath() + "/" + metadata.getFileMd5();
+        if (!GZIP.equals(metadata.getContentEncoding())) {
+            if (offset == 0 && length == metadata.getFileSize()) {
+                return minioS3Client.getObjectStream(metadata.getStorageBucket(), objectName);
+            }
+            return minioS3Client.getObjectStream(metadata.getStorageBucket(), objectName, offset, length);
+        }
+
+        // 压缩存储的文件无法按范围读取，从头解压并跳过起始位置之前的数据
+        InputStream inputStream = minioS3Client.getObjectStream(metadata.getStorageBucket(), objectName);
+        try {
+            return BoundedInputStream.range(new GZIPInputStream(inputStream, BUFFER_SIZE), offset, length);
+        } catch (IOException e) {
+            IoUtil.close(inputStream);
+            log.error("{}:{}", MinioPlusErrorCode.READ_FAILED.getMessage(), e.getMessage(), e);
+            throw new MinioPlusException(MinioPlusErrorCode.READ_FAILED);
+        }
+    }
+
     @Override
     public Boolean remove(String fileKey) {
 
@@ -479,7 +917,30 @@ public class StorageEngineServiceImpl implements StorageEngineService {
         return true;
     }
 
+    @Override
+    public List<Pair<String, String>> removeMetadata(String fileKey) {
+
+        // 查询元数据信息
+        FileMetadataInfoDTO fileMetadataInfo = new FileMetadataInfoDTO();
+        fileMetadataInfo.setFileKey(fileKey);
+        FileMetadataInfoVo metadata = metadataRepository.one(fileMetadataInfo);
+
+        return null == metadata ? Collections.emptyList() : this.removeMetadata(metadata);
+    }
+
     private void remove(FileMetadataInfoVo metadata) {
+        for (Pair<String, String> object : this.removeMetadata(metadata)) {
+            minioS3Client.removeObject(object.getKey(), object.getValue());
+        }
+    }
+
+    /**
+     * 删除元数据，取得需要删除的物理对象
+     *
+     * @param metadata 文件元数据
+     * @return 需要删除的物理对象，桶名称和对象名称
+     */
+    private List<Pair<String, String>> removeMetadata(FileMetadataInfoVo metadata) {
         // 删除元数据信息
         metadataRepository.remove(metadata.getId());
 
@@ -487,13 +948,49 @@ public class StorageEngineServiceImpl implements StorageEngineService {
         fileMetadataInfo.setFileMd5(metadata.getFileMd5());
         List<FileMetadataInfoVo> metadataList = metadataRepository.list(fileMetadataInfo);
 
+        List<Pair<String, String>> objects = new ArrayList<>(2);
         if (CollUtil.isEmpty(metadataList)) {
+            fileMd5Filter.remove(metadata.getFileMd5());
             // 当不存在任何该MD5值的文件元数据时，删除物理文件
-            minioS3Client.removeObject(metadata.getStorageBucket(), metadata.getStoragePath() + "/" + metadata.getFileMd5());
+            // 打包存储时，打包对象中的其他文件可能还没有保存元数据，由整理任务回收
+            if (!Boolean.TRUE.equals(metadata.getIsPacked())) {
+                objects.add(Pair.of(metadata.getStorageBucket(), metadata.getStoragePath() + "/" + metadata.getFileMd5()));
+            }
             if (Boolean.TRUE.equals(metadata.getIsPreview())) {
                 // 当存在缩略图时，同步删除缩略图
-                minioS3Client.removeObject(StorageBucketEnums.IMAGE_PREVIEW.getCode(), metadata.getStoragePath() + "/" + metadata.getFileMd5());
+                objects.add(Pair.of(StorageBucketEnums.IMAGE_PREVIEW.getCode(), metadata.getStoragePath() + "/" + metadata.getFileMd5()));
+            }
+        }
+        return objects;
+    }
+
+    /**
+     * 读取文件内容
+     * 打包存储的文件按范围读取打包对象，压缩存储的文件解压，开启本地磁盘缓存时写入缓存
+     *
+     * @param metadata 文件元数据
+     * @return 文件内容
+     */
+    private byte[] readObject(FileMetadataInfoVo metadata) {
+        // 小文件优先读取内存缓存，开启本地磁盘缓存时其次读取磁盘缓存
+        return memoryCache.get(metadata.getFileMd5(), metadata.getFileSize(), () -> diskCache.get(metadata, () -> {
+            if (Boolean.TRUE.equals(metadata.getIsPacked())) {
+                return packStore.read(metadata);
             }
+            byte[] fileBytes = minioS3Client.getObject(metadata.getStorageBucket(), metadata.getStoragePath() + "/" + metadata.getFileMd5());
+            // 压缩存储的文件解压后返回
+            return GZIP.equals(metadata.getContentEncoding()) ? ZipUtil.unGzip(fileBytes) : fileBytes;
+        }));
+    }
+
+    /**
+     * 打包存储的文件没有独立对象，签发地址会暴露整个打包对象，需通过readStream由服务端传输
+     *
+     * @param metadata 文件元数据
+     */
+    private void checkNotPacked(FileMetadataInfoVo metadata) {
+        if (Boolean.TRUE.equals(metadata.getIsPacked())) {
+            throw new MinioPlusException(MinioPlusErrorCode.FILE_PACKED_URL_FAILED);
         }
     }
 
@@ -558,18 +1055,16 @@ public class StorageEngineServiceImpl implements StorageEngineService {
     /**
      * 构建响应给前端的分片信息
      *
-     * @param bucketName 桶名称
-     * @param objectName 对象名称（含路径）
      * @param uploadId   上传任务编号
+     * @param uploadUrl  上传地址
      * @param fileSize   文件大小
-     * @param start      开始位置
      * @param partNumber 块号
      * @return {@link FileCheckResultVo.Part}
      */
-    private FileCheckResultVo.Part buildResultPart(String bucketName, String objectName, String uploadId, Long fileSize, long start, Integer partNumber) {
+    private FileCheckResultVo.Part buildResultPart(String uploadId, String uploadUrl, Long fileSize, Integer partNumber) {
         // 计算起始位置
+        long start = (long) (partNumber - 1) * properties.getPart().getSize();
         long end = Math.min(start + properties.getPart().getSize(), fileSize);
-        String uploadUrl = minioS3Client.getUploadObjectUrl(bucketName, objectName, uploadId, String.valueOf(partNumber));
         FileCheckResultVo.Part part = new FileCheckResultVo.Part();
         part.setUploadId(uploadId);
         // 上传地址
@@ -581,6 +1076,29 @@ public class StorageEngineServiceImpl implements StorageEngineService {
         return part;
     }
 
+    /**
+     * 批量构建分片信息
+     * 同一上传任务的全部分片链接一次签出
+     *
+     * @param bucketName  桶名称
+     * @param objectName  对象名称（含路径）
+     * @param uploadId    上传任务编号
+     * @param fileSize    文件大小
+     * @param partNumbers 块号集合
+     * @return 分片信息集合
+     */
+    private List<FileCheckResultVo.Part> buildResultParts(String bucketName, String objectName, String uploadId, Long fileSize, List<Integer> partNumbers) {
+        if (partNumbers.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<String> uploadUrls = minioS3Client.getUploadObjectUrls(bucketName, objectName, uploadId, partNumbers);
+        List<FileCheckResultVo.Part> partList = new ArrayList<>(partNumbers.size());
+        for (int i = 0; i < partNumbers.size(); i++) {
+            partList.add(this.buildResultPart(uploadId, uploadUrls.get(i), fileSize, partNumbers.get(i)));
+        }
+        return partList;
+    }
+
     /**
      * 断点续传-创建断点的URL
      *
@@ -658,8 +1176,6 @@ public class StorageEngineServiceImpl implements StorageEngineService {
         // 获取所有的分片信息
         ListParts listParts = this.buildResultPart(metadataInfo);
 
-        List<Integer> missingNumbers = new ArrayList<>();
-
         // 分块数量
         Integer chunkNum = metadataInfo.getPartNumber();
 
@@ -668,17 +1184,7 @@ public class StorageEngineServiceImpl implements StorageEngineService {
         }
 
         // 校验文件完整性
-        for (int i = 1; i <= chunkNum; i++) {
-            boolean findPart = false;
-            for (ListParts.Part part : listParts.getPartList()) {
-                if (part.getPartNumber() == i && CharSequenceUtil.equalsIgnoreCase(part.getEtag(), partMd5List.get(i - 1))) {
-                    findPart = true;
-                }
-            }
-            if (!findPart) {
-                missingNumbers.add(i);
-            }
-        }
+        List<Integer> missingNumbers = PartCheckUtil.findMissingParts(listParts.getPartList(), partMd5List);
 
         if (CollUtil.isNotEmpty(missingNumbers)) {
             CreateUploadUrlReqBO bo = new CreateUploadUrlReqBO();
@@ -707,6 +1213,7 @@ public class StorageEngineServiceImpl implements StorageEngineService {
             completeResultVo.setIsComplete(false);
             completeResultVo.setUploadTaskId(createUploadUrlRespBO.getUploadTaskId());
             completeResultVo.setPartList(createUploadUrlRespBO.getParts());
+            completeResultVo.setNextPartNumber(createUploadUrlRespBO.getNextPartNumber());
         } else {
             // 合并分块
             boolean writeResponse = minioS3Client.completeMultipartUpload(metadataInfo.getStorageBucket()
@@ -741,8 +1248,8 @@ public class StorageEngineServiceImpl implements StorageEngineService {
     public CreateUploadUrlRespBO createUploadUrl(CreateUploadUrlReqBO bo) {
         // 计算分块数量
         Integer chunkNum = this.computeChunkNum(bo.getFileSize());
-        // 分块信息集合
-        List<FileCheckResultVo.Part> partList = new ArrayList<>();
+        // 需要下发链接的块号集合
+        List<Integer> partNumbers;
         // 存储桶
         String bucketName;
         // 存储路径
@@ -761,14 +1268,7 @@ public class StorageEngineServiceImpl implements StorageEngineService {
             // 文件key
             fileKey = bo.getFileKey();
             uploadId = bo.getUploadId();
-            // 开始位置
-            long start = (long) (bo.getMissPartNum().get(0) - 1) * properties.getPart().getSize();
-            for (int partNumber : bo.getMissPartNum()) {
-                FileCheckResultVo.Part part = this.buildResultPart(bucketName, storagePath, uploadId, bo.getFileSize(), start, partNumber);
-                // 更改下一次的开始位置
-                start = start + properties.getPart().getSize();
-                partList.add(part);
-            }
+            partNumbers = bo.getMissPartNum();
         } else {
             // 获取文件后缀
             String suffix = FileUtil.getSuffix(bo.getFullFileName());
@@ -787,14 +1287,20 @@ public class StorageEngineServiceImpl implements StorageEngineService {
 
             // 创建分片请求,获取uploadId
             uploadId = minioS3Client.createMultipartUpload(bucketName, CommonUtil.getObjectName(bo.getFileMd5()));
-            long start = 0;
-            for (Integer partNumber = 1; partNumber <= chunkNum; partNumber++) {
-                FileCheckResultVo.Part part = this.buildResultPart(bucketName, CommonUtil.getObjectName(bo.getFileMd5()), uploadId, bo.getFileSize(), start, partNumber);
-                // 更改下一次的开始位置
-                start = start + properties.getPart().getSize();
-                partList.add(part);
+            partNumbers = new ArrayList<>(chunkNum);
+            for (int partNumber = 1; partNumber <= chunkNum; partNumber++) {
+                partNumbers.add(partNumber);
             }
         }
+        // 开启分页下发时，只签发第一页链接
+        Integer nextPartNumber = null;
+        int pageSize = properties.getPart().getPageSize();
+        if (pageSize > 0 && partNumbers.size() > pageSize) {
+            nextPartNumber = partNumbers.get(pageSize);
+            partNumbers = partNumbers.subList(0, pageSize);
+        }
+        // 分块信息集合
+        List<FileCheckResultVo.Part> partList = this.buildResultParts(bucketName, CommonUtil.getObjectName(bo.getFileMd5()), uploadId, bo.getFileSize(), partNumbers);
         CreateUploadUrlRespBO respBO = new CreateUploadUrlRespBO();
         // 桶名字
         respBO.setBucketName(bucketName);
@@ -808,6 +1314,8 @@ public class StorageEngineServiceImpl implements StorageEngineService {
         respBO.setUploadTaskId(uploadId);
         // 分片信息-必填
         respBO.setParts(partList);
+        // 下一页分块的起始块号
+        respBO.setNextPartNumber(nextPartNumber);
         return respBO;
     }
 
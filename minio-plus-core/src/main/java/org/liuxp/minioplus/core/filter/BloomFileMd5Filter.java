@@ -0,0 +1,357 @@
+package org.liuxp.minioplus.core.filter;
+
+import cn.hutool.core.lang.hash.MurmurHash;
+import lombok.extern.slf4j.Slf4j;
+import org.liuxp.minioplus.api.model.dto.FileMetadataInfoDTO;
+import org.liuxp.minioplus.api.model.vo.FileMetadataInfoVo;
+import org.liuxp.minioplus.common.config.MinioPlusProperties;
+import org.liuxp.minioplus.core.repository.MetadataRepository;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 基于布隆过滤器的文件MD5存在性过滤器
+ * 启动时从元数据仓库按主键分页加载全部MD5，之后在新增元数据时写入
+ * 布隆过滤器不支持删除，删除元数据后对应的MD5仍判定为可能存在
+ * 未开启或尚未加载完成时，全部判定为可能存在，行为与没有过滤器时一致
+ * 过滤器保存在当前实例内存中，其他实例新增的MD5由后台线程定时增量加载，每次从已加载的最大主键往回多扫描一段，
+ * 补齐主键较小但提交较晚的元数据；判定过程不持有锁，不等待增量加载
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+@Slf4j
+@Component
+public class BloomFileMd5Filter implements FileMd5Filter, InitializingBean, DisposableBean {
+
+    /**
+     * 分页加载元数据的每页条数
+     */
+    private static final int PAGE_SIZE = 1000;
+
+    private final MetadataRepository metadataRepository;
+
+    private final boolean enable;
+
+    /**
+     * 判定为不存在前是否查询一页最近新增的元数据
+     */
+    private final boolean syncOnMiss;
+
+    /**
+     * 定时增量加载的间隔，单位：秒
+     */
+    private final long refreshInterval;
+
+    /**
+     * 增量加载时往回重新扫描的主键数量
+     */
+    private final long refreshLookback;
+
+    /**
+     * 元数据仓库是否实现了按主键分页查询，未实现时无法增量加载
+     */
+    private final boolean pagingSupported;
+
+    /**
+     * 已加载元数据的最大主键，只由启动加载和定时增量加载更新
+     */
+    private volatile Long loadedId;
+
+    /**
+     * 定时增量加载线程，未开启时为null
+     */
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * 位数组长度
+     */
+    private final long bitSize;
+
+    /**
+     * 哈希函数个数
+     */
+    private final int hashCount;
+
+    /**
+     * 位数组，未开启时为null
+     */
+    private final AtomicLongArray bits;
+
+    /**
+     * 已置位的位数
+     */
+    private final LongAdder bitCount = new LongAdder();
+
+    /**
+     * 查询次数
+     */
+    private final LongAdder probeCount = new LongAdder();
+
+    /**
+     * 判定为一定不存在的次数，即跳过的数据库查询次数
+     */
+    private final LongAdder skipCount = new LongAdder();
+
+    /**
+     * 是否加载完成
+     */
+    private volatile boolean ready = false;
+
+    public BloomFileMd5Filter(MetadataRepository metadataRepository, MinioPlusProperties properties) {
+        this.metadataRepository = metadataRepository;
+
+        MinioPlusProperties.Md5Filter config = properties.getMd5Filter();
+        this.enable = config.isEnable();
+        this.syncOnMiss = config.isSyncOnMiss();
+        this.refreshInterval = config.getRefreshInterval();
+        this.refreshLookback = Math.max(0L, config.getRefreshLookback());
+        this.pagingSupported = isPagingSupported(metadataRepository);
+
+        // m = -n * ln(p) / (ln2)^2，k = m / n * ln2
+        long expectedInsertions = Math.max(1L, config.getExpectedInsertions());
+        double fpp = config.getFpp() > 0 && config.getFpp() < 1 ? config.getFpp() : 0.01;
+        long size = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE, (size + 63) / 64);
+        this.bitSize = words * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+        this.bits = enable ? new AtomicLongArray(words) : null;
+    }
+
+    /**
+     * 启动时从元数据仓库分页加载全部MD5
+     * 加载失败时过滤器保持未就绪状态，不影响正常查询
+     */
+    @Override
+    public void afterPropertiesSet() {
+        if (!enable) {
+            return;
+        }
+        if (!pagingSupported && (syncOnMiss || refreshInterval > 0)) {
+            log.warn("元数据仓库未实现listAfter，MD5过滤器无法增量加载，其他实例新增的MD5不可见");
+        }
+        try {
+            long count = this.load(null);
+            ready = true;
+            log.info("MD5过滤器加载完成，元数据数量:{}，位数组长度:{}，哈希函数个数:{}", count, bitSize, hashCount);
+        } catch (Exception e) {
+            log.warn("MD5过滤器加载失败，将直接查询元数据:{}", e.getMessage(), e);
+            return;
+        }
+
+        if (pagingSupported && refreshInterval > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "minioplus-md5filter-1");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::refresh, refreshInterval, refreshInterval, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * 定时增量加载，从已加载的最大主键往回重新扫描一段
+     * 只在定时线程中执行，不与判定过程竞争锁
+     */
+    void refresh() {
+        try {
+            Long lastId = loadedId;
+            this.load(lastId == null ? null : Math.max(0L, lastId - refreshLookback));
+        } catch (Exception e) {
+            log.warn("MD5过滤器增量加载失败:{}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean mightContain(String fileMd5) {
+        if (!ready || fileMd5 == null) {
+            return true;
+        }
+        probeCount.increment();
+
+        if (this.test(fileMd5)) {
+            return true;
+        }
+        if (syncOnMiss && this.mightBeAddedRecently(fileMd5)) {
+            return true;
+        }
+        skipCount.increment();
+        return false;
+    }
+
+    /**
+     * 查询一页上次加载之后新增的元数据，判断其他实例是否刚新增了该MD5
+     * 不持有锁，也不更新已加载的最大主键，主键较小但提交较晚的元数据由定时增量加载补齐
+     *
+     * @return 是否可能存在，无法确认时按可能存在处理
+     */
+    private boolean mightBeAddedRecently(String fileMd5) {
+        if (!pagingSupported) {
+            return true;
+        }
+        try {
+            List<FileMetadataInfoVo> page = metadataRepository.listAfter(new FileMetadataInfoDTO(), loadedId, PAGE_SIZE);
+            for (FileMetadataInfoVo metadata : page) {
+                this.put(metadata.getFileMd5());
+            }
+            // 超过一页时未查询完，无法确认
+            return this.test(fileMd5) || page.size() >= PAGE_SIZE;
+        } catch (Exception e) {
+            log.warn("MD5过滤器查询新增元数据失败，将直接查询元数据:{}", e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * 按主键分页加载指定主键之后的元数据，更新已加载的最大主键
+     * 只在启动时和定时线程中调用
+     *
+     * @param fromId 起始主键，不含，为null时加载全部
+     * @return 加载的元数据数量
+     */
+    private long load(Long fromId) {
+        long count = 0;
+        Long lastId = fromId;
+        Long maxId = loadedId;
+        List<FileMetadataInfoVo> page;
+        do {
+            // 不带任何条件，查询全部元数据
+            page = metadataRepository.listAfter(new FileMetadataInfoDTO(), lastId, PAGE_SIZE);
+            for (FileMetadataInfoVo metadata : page) {
+                this.put(metadata.getFileMd5());
+                if (metadata.getId() != null && (lastId == null || metadata.getId() > lastId)) {
+                    lastId = metadata.getId();
+                }
+            }
+            count += page.size();
+        } while (page.size() >= PAGE_SIZE && lastId != null);
+        if (lastId != null && (maxId == null || lastId > maxId)) {
+            loadedId = lastId;
+        }
+        return count;
+    }
+
+    /**
+     * 判断MD5对应的位是否全部置位
+     */
+    private boolean test(String fileMd5) {
+        long[] hash = MurmurHash.hash128(fileMd5);
+        for (int i = 0; i < hashCount; i++) {
+            long index = index(hash, i);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 元数据仓库是否覆盖了listAfter，默认实现不分页，无法增量加载
+     */
+    private static boolean isPagingSupported(MetadataRepository metadataRepository) {
+        try {
+            // 元数据仓库可能被Spring代理，按目标类判断
+            Class<?> targetClass = ClassUtils.getUserClass(AopUtils.getTargetClass(metadataRepository));
+            return targetClass.getMethod("listAfter", FileMetadataInfoDTO.class, Long.class, int.class)
+                    .getDeclaringClass() != MetadataRepository.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void put(String fileMd5) {
+        if (!enable || fileMd5 == null) {
+            return;
+        }
+
+        long[] hash = MurmurHash.hash128(fileMd5);
+        for (int i = 0; i < hashCount; i++) {
+            long index = index(hash, i);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long oldValue;
+            do {
+                oldValue = bits.get(word);
+                if ((oldValue & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, oldValue, oldValue | mask));
+            if ((oldValue & mask) == 0) {
+                bitCount.increment();
+            }
+        }
+    }
+
+    @Override
+    public void remove(String fileMd5) {
+        // 布隆过滤器不支持删除
+    }
+
+    /**
+     * 双重哈希取得第i个位置：h1 + i * h2
+     */
+    private long index(long[] hash, int i) {
+        return ((hash[0] + i * hash[1]) & Long.MAX_VALUE) % bitSize;
+    }
+
+    /**
+     * 当前的误判率，即一个不存在的MD5被判定为可能存在的概率
+     */
+    public double getExpectedFpp() {
+        if (!enable) {
+            return 1;
+        }
+        return Math.pow((double) bitCount.sum() / bitSize, hashCount);
+    }
+
+    /**
+     * 按已置位的位数估算的MD5数量
+     */
+    public long getApproximateElementCount() {
+        if (!enable) {
+            return 0;
+        }
+        double fraction = (double) bitCount.sum() / bitSize;
+        return Math.round(-Math.log1p(-fraction) * bitSize / hashCount);
+    }
+
+    /**
+     * 位数组长度
+     */
+    public long getBitSize() {
+        return enable ? bitSize : 0;
+    }
+
+    /**
+     * 查询次数
+     */
+    public long getProbeCount() {
+        return probeCount.sum();
+    }
+
+    /**
+     * 判定为一定不存在的次数
+     */
+    public long getSkipCount() {
+        return skipCount.sum();
+    }
+
+}
@@ -0,0 +1,37 @@
+package org.liuxp.minioplus.core.filter;
+
+/**
+ * 文件MD5存在性过滤器接口定义
+ * 位于元数据查询之前，判定MD5一定不存在时跳过按MD5查询元数据的数据库访问
+ * 过滤器只允许误判为存在，不允许误判为不存在
+ * 自定义实现（如多实例共享的过滤器）声明为 @Primary 的Bean即可替换默认实现
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+public interface FileMd5Filter {
+
+    /**
+     * 判断MD5是否可能存在元数据
+     *
+     * @param fileMd5 文件MD5
+     * @return false表示一定不存在，true表示可能存在
+     */
+    boolean mightContain(String fileMd5);
+
+    /**
+     * 记录MD5，新增元数据后调用
+     *
+     * @param fileMd5 文件MD5
+     */
+    void put(String fileMd5);
+
+    /**
+     * 移除MD5，该MD5的全部元数据都删除后调用
+     * 不支持删除的实现可以忽略，残留的MD5只会多一次数据库查询
+     *
+     * @param fileMd5 文件MD5
+     */
+    void remove(String fileMd5);
+
+}
@@ -0,0 +1,23 @@
+package org.liuxp.minioplus.core.lock;
+
+import java.util.concurrent.locks.Lock;
+
+/**
+ * 文件MD5锁接口定义
+ * 同一MD5的上传任务初始化串行执行，并发的调用方共享同一个上传任务，避免重复创建分片上传
+ * 默认实现只在当前实例内生效，多实例部署时可以声明 @Primary 的Bean替换为分布式锁实现
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+public interface FileMd5Lock {
+
+    /**
+     * 取得MD5对应的锁
+     *
+     * @param fileMd5 文件MD5
+     * @return 锁
+     */
+    Lock getLock(String fileMd5);
+
+}
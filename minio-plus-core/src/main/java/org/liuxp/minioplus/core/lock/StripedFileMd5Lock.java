@@ -0,0 +1,39 @@
+package org.liuxp.minioplus.core.lock;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 基于分段锁的文件MD5锁
+ * 按MD5的哈希值映射到固定数量的锁上，锁的数量不随MD5增长，不同MD5偶尔共用一把锁只会多一些等待
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+@Component
+public class StripedFileMd5Lock implements FileMd5Lock {
+
+    /**
+     * 锁的数量，必须是2的幂
+     */
+    private static final int STRIPES = 256;
+
+    private final Lock[] locks = new Lock[STRIPES];
+
+    public StripedFileMd5Lock() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public Lock getLock(String fileMd5) {
+        int hash = fileMd5.hashCode();
+        // 混合高位，避免只用到哈希值的低位
+        hash ^= hash >>> 16;
+        return locks[hash & (STRIPES - 1)];
+    }
+
+}
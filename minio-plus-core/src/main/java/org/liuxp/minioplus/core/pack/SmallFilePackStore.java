@@ -0,0 +1,453 @@
+package org.liuxp.minioplus.core.pack;
+
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.util.IdUtil;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.liuxp.minioplus.api.model.dto.FileMetadataInfoDTO;
+import org.liuxp.minioplus.api.model.dto.FileMetadataInfoUpdateDTO;
+import org.liuxp.minioplus.api.model.vo.FileMetadataInfoVo;
+import org.liuxp.minioplus.common.config.MinioPlusProperties;
+import org.liuxp.minioplus.common.enums.MinioPlusErrorCode;
+import org.liuxp.minioplus.common.enums.StorageBucketEnums;
+import org.liuxp.minioplus.common.exception.MinioPlusException;
+import org.liuxp.minioplus.core.common.utils.CommonUtil;
+import org.liuxp.minioplus.core.repository.MetadataRepository;
+import org.liuxp.minioplus.s3.def.MinioS3Client;
+import org.liuxp.minioplus.s3.def.ObjectItem;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 小文件打包存储
+ * 小文件追加写入同一个桶下的打包对象，元数据中记录打包对象名称和起始位置，读取时按范围读取
+ * 等待时间内到达的小文件合并为一次写入，调用方阻塞到所在的打包对象写入完成后再保存元数据
+ * 文件删除后打包对象中留下无效数据，由定时整理任务删除没有有效文件的打包对象，重写有效数据占比过低的打包对象
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+@Slf4j
+@Component
+public class SmallFilePackStore implements InitializingBean, DisposableBean {
+
+    /**
+     * 打包对象名称前缀
+     */
+    private static final String PACK_PREFIX = "pack/";
+
+    /**
+     * 打包对象的数据类型
+     */
+    private static final String PACK_CONTENT_TYPE = "application/octet-stream";
+
+    /**
+     * 重写时更新元数据的最大轮数
+     */
+    private static final int MAX_MOVE_ROUNDS = 3;
+
+    private final MinioPlusProperties properties;
+
+    private final MinioS3Client minioS3Client;
+
+    private final MetadataRepository metadataRepository;
+
+    /**
+     * 各个桶正在追加的打包对象
+     */
+    private final Map<String, PackBuffer> openPacks = new HashMap<>();
+
+    /**
+     * 定时写入和整理线程，整理任务最多占用一个线程，不会阻塞打包对象的定时写入
+     */
+    private final ScheduledExecutorService scheduler;
+
+    public SmallFilePackStore(MinioPlusProperties properties, MinioS3Client minioS3Client, MetadataRepository metadataRepository) {
+        this.properties = properties;
+        this.minioS3Client = minioS3Client;
+        this.metadataRepository = metadataRepository;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "minioplus-pack-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        MinioPlusProperties.Pack pack = properties.getPack();
+        if (pack.isEnable() && pack.getCompactInterval() > 0) {
+            scheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    compact();
+                } catch (Exception e) {
+                    log.error("打包对象整理失败:{}", e.getMessage(), e);
+                }
+            }, pack.getCompactInterval(), pack.getCompactInterval(), TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * 判断文件是否打包存储
+     *
+     * @param fileSize 文件长度
+     * @return 是否打包存储
+     */
+    public boolean isPackable(long fileSize) {
+        return properties.getPack().isEnable() && fileSize > 0 && fileSize < properties.getPack().getThreshold();
+    }
+
+    /**
+     * 追加小文件
+     * 阻塞到所在的打包对象写入完成
+     *
+     * @param bucketName 桶名称
+     * @param data       文件内容
+     * @return 文件在打包对象中的位置
+     */
+    public PackLocation append(String bucketName, byte[] data) {
+        try {
+            return appendAsync(bucketName, data).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof MinioPlusException) {
+                throw (MinioPlusException) e.getCause();
+            }
+            log.error("{}:{}", MinioPlusErrorCode.WRITE_FAILED.getMessage(), e.getMessage(), e);
+            throw new MinioPlusException(MinioPlusErrorCode.WRITE_FAILED);
+        }
+    }
+
+    /**
+     * 追加小文件，不等待写入
+     * 批量写入时先追加全部文件再统一等待，打包对象按目标长度写满后写入
+     *
+     * @param bucketName 桶名称
+     * @param data       文件内容
+     * @return 所在的打包对象写入完成后返回文件在打包对象中的位置
+     */
+    public CompletableFuture<PackLocation> appendAsync(String bucketName, byte[] data) {
+
+        MinioPlusProperties.Pack config = properties.getPack();
+        PackBuffer pack;
+        long offset;
+        boolean full;
+        synchronized (openPacks) {
+            pack = openPacks.get(bucketName);
+            if (pack == null) {
+                pack = new PackBuffer(bucketName, PACK_PREFIX + CommonUtil.getObjectName(IdUtil.fastSimpleUUID()));
+                openPacks.put(bucketName, pack);
+                if (config.getMaxDelay() > 0) {
+                    PackBuffer delayed = pack;
+                    scheduler.schedule(() -> close(delayed), config.getMaxDelay(), TimeUnit.MILLISECONDS);
+                }
+            }
+            offset = pack.content.size();
+            pack.content.write(data, 0, data.length);
+            full = config.getMaxDelay() <= 0 || pack.content.size() >= config.getSize();
+            if (full) {
+                openPacks.remove(bucketName);
+            }
+        }
+
+        if (full) {
+            write(pack);
+        }
+
+        String objectName = pack.objectName;
+        return pack.written.thenApply(written -> new PackLocation(objectName, offset));
+    }
+
+    /**
+     * 读取打包存储的文件
+     *
+     * @param metadata 文件元数据
+     * @return 文件内容
+     */
+    public byte[] read(FileMetadataInfoVo metadata) {
+        return minioS3Client.getObject(metadata.getStorageBucket(), metadata.getPackObject(), metadata.getPackOffset(), metadata.getFileSize());
+    }
+
+    /**
+     * 整理打包对象
+     * 逐个桶列出打包对象，跳过保护时间内写入的，没有有效文件的直接删除，有效数据占比低于compactRatio的合并重写为新的打包对象
+     * 文件删除时不删除打包对象，打包对象只在这里回收，写入失败或未保存元数据遗留的打包对象也在保护时间过后回收
+     */
+    public void compact() {
+
+        MinioPlusProperties.Pack config = properties.getPack();
+        ZonedDateTime deadline = ZonedDateTime.now().minusMinutes(config.getCompactGracePeriod());
+        for (StorageBucketEnums bucket : StorageBucketEnums.values()) {
+            String bucketName = bucket.getCode();
+            if (!Boolean.TRUE.equals(minioS3Client.bucketExists(bucketName))) {
+                continue;
+            }
+            List<String> packObjects = new ArrayList<>();
+            for (ObjectItem packItem : minioS3Client.listObjects(bucketName, PACK_PREFIX)) {
+                if (packItem.getLastModified() == null || packItem.getLastModified().isAfter(deadline)) {
+                    // 打包对象先于元数据写入，保护时间内的打包对象可能还没有保存元数据
+                    continue;
+                }
+                // 同一位置的文件（MD5值相同）只计算一次
+                Map<Long, Long> liveRanges = new HashMap<>();
+                for (FileMetadataInfoVo metadata : listPacked(bucketName, packItem.getObjectName())) {
+                    liveRanges.put(metadata.getPackOffset(), metadata.getFileSize());
+                }
+                long liveSize = liveRanges.values().stream().mapToLong(Long::longValue).sum();
+                if (liveSize == 0) {
+                    minioS3Client.removeObject(bucketName, packItem.getObjectName());
+                } else if (liveSize < packItem.getSize() * config.getCompactRatio()) {
+                    packObjects.add(packItem.getObjectName());
+                }
+            }
+            if (!packObjects.isEmpty()) {
+                rewrite(bucketName, packObjects);
+            }
+        }
+    }
+
+    /**
+     * 重写打包对象
+     * 按起始位置顺序读取各个打包对象，跳过无效数据，有效文件按目标长度合并写入新的打包对象，更新元数据后删除原打包对象
+     * 内存中只保留正在写入的新打包对象，重写结束时删除没有被元数据引用的新打包对象
+     *
+     * @param bucketName  桶名称
+     * @param packObjects 打包对象名称集合
+     */
+    private void rewrite(String bucketName, List<String> packObjects) {
+
+        List<String> newPackObjects = new ArrayList<>();
+        try {
+            Map<String, Map<Long, PackLocation>> locationMap = this.copyLive(bucketName, packObjects, newPackObjects);
+            for (String packObject : packObjects) {
+                if (this.moveReferences(bucketName, packObject, locationMap.get(packObject))) {
+                    minioS3Client.removeObject(bucketName, packObject);
+                }
+            }
+        } finally {
+            // 读取失败、元数据未更新或更新轮数用尽时，新的打包对象没有引用，删除失败的由下次整理回收
+            for (String newPackObject : newPackObjects) {
+                try {
+                    if (listPacked(bucketName, newPackObject).isEmpty()) {
+                        minioS3Client.removeObject(bucketName, newPackObject);
+                    }
+                } catch (Exception e) {
+                    log.warn("删除未引用的打包对象{}失败:{}", newPackObject, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 复制有效文件到新的打包对象
+     *
+     * @param bucketName     桶名称
+     * @param packObjects    原打包对象名称集合
+     * @param newPackObjects 写入的新打包对象名称，写入前加入，失败时由调用方清理
+     * @return 原打包对象名称、原位置与新打包对象名称、新位置的对应关系
+     */
+    private Map<String, Map<Long, PackLocation>> copyLive(String bucketName, List<String> packObjects, List<String> newPackObjects) {
+
+        Map<String, Map<Long, PackLocation>> locationMap = new HashMap<>();
+        ByteArrayOutputStream newContent = new ByteArrayOutputStream();
+        String newPackObject = PACK_PREFIX + CommonUtil.getObjectName(IdUtil.fastSimpleUUID());
+        for (String packObject : packObjects) {
+            Map<Long, PackLocation> offsetMap = new HashMap<>();
+            locationMap.put(packObject, offsetMap);
+            List<FileMetadataInfoVo> liveList = listPacked(bucketName, packObject);
+            liveList.sort(Comparator.comparingLong(FileMetadataInfoVo::getPackOffset));
+            try (InputStream oldContent = minioS3Client.getObjectStream(bucketName, packObject)) {
+                long position = 0;
+                for (FileMetadataInfoVo metadata : liveList) {
+                    if (offsetMap.containsKey(metadata.getPackOffset())) {
+                        continue;
+                    }
+                    if (newContent.size() > 0 && newContent.size() + metadata.getFileSize() > properties.getPack().getSize()) {
+                        // 新的打包对象已达到目标长度，写入后开始下一个
+                        newPackObjects.add(newPackObject);
+                        minioS3Client.putObject(bucketName, newPackObject, new ByteArrayInputStream(newContent.toByteArray()), newContent.size(), PACK_CONTENT_TYPE);
+                        newContent.reset();
+                        newPackObject = PACK_PREFIX + CommonUtil.getObjectName(IdUtil.fastSimpleUUID());
+                    }
+                    skipFully(oldContent, metadata.getPackOffset() - position);
+                    byte[] segment = IoUtil.readBytes(oldContent, metadata.getFileSize().intValue());
+                    if (segment.length != metadata.getFileSize()) {
+                        throw new IOException("unexpected end of pack object " + packObject);
+                    }
+                    position = metadata.getPackOffset() + metadata.getFileSize();
+                    offsetMap.put(metadata.getPackOffset(), new PackLocation(newPackObject, newContent.size()));
+                    newContent.write(segment, 0, segment.length);
+                }
+            } catch (IOException e) {
+                log.error("{}:{}", MinioPlusErrorCode.READ_FAILED.getMessage(), e.getMessage(), e);
+                throw new MinioPlusException(MinioPlusErrorCode.READ_FAILED);
+            }
+        }
+        if (newContent.size() > 0) {
+            newPackObjects.add(newPackObject);
+            minioS3Client.putObject(bucketName, newPackObject, new ByteArrayInputStream(newContent.toByteArray()), newContent.size(), PACK_CONTENT_TYPE);
+        }
+        return locationMap;
+    }
+
+    /**
+     * 更新引用原打包对象的元数据到新的位置
+     * 整理期间秒传的文件也会引用原打包对象，逐轮更新到没有引用为止，最多MAX_MOVE_ROUNDS轮
+     *
+     * @param bucketName 桶名称
+     * @param packObject 原打包对象名称
+     * @param offsetMap  原位置与新位置的对应关系
+     * @return 原打包对象是否已没有引用，可以删除
+     */
+    private boolean moveReferences(String bucketName, String packObject, Map<Long, PackLocation> offsetMap) {
+        for (int round = 0; ; round++) {
+            List<FileMetadataInfoVo> packedList = listPacked(bucketName, packObject);
+            if (packedList.isEmpty()) {
+                return true;
+            }
+            if (round >= MAX_MOVE_ROUNDS) {
+                // 元数据仓库未保存打包对象名称和位置，或一直有新的引用
+                log.warn("打包对象{}更新{}轮后仍被引用，保留原打包对象", packObject, MAX_MOVE_ROUNDS);
+                return false;
+            }
+            for (FileMetadataInfoVo metadata : packedList) {
+                PackLocation location = offsetMap.get(metadata.getPackOffset());
+                if (location == null) {
+                    // 整理开始后才引用的位置，不在新的打包对象中，保留原打包对象
+                    log.warn("打包对象{}整理期间被引用，保留原打包对象", packObject);
+                    return false;
+                }
+                FileMetadataInfoUpdateDTO updateDTO = new FileMetadataInfoUpdateDTO();
+                updateDTO.setId(metadata.getId());
+                updateDTO.setPackObject(location.getPackObject());
+                updateDTO.setPackOffset(location.getOffset());
+                metadataRepository.update(updateDTO);
+            }
+        }
+    }
+
+    /**
+     * 查询打包对象中的有效文件
+     * 结果按打包对象名称再次过滤，查询条件不支持打包对象名称时也不会误判
+     *
+     * @param bucketName 桶名称
+     * @param packObject 打包对象名称
+     * @return 有效文件的元数据
+     */
+    private List<FileMetadataInfoVo> listPacked(String bucketName, String packObject) {
+        FileMetadataInfoDTO searchDTO = new FileMetadataInfoDTO();
+        searchDTO.setBucket(bucketName);
+        searchDTO.setPackObject(packObject);
+        searchDTO.setIsPacked(true);
+
+        List<FileMetadataInfoVo> packedList = new ArrayList<>();
+        for (FileMetadataInfoVo metadata : metadataRepository.list(searchDTO)) {
+            if (Boolean.TRUE.equals(metadata.getIsPacked()) && bucketName.equals(metadata.getStorageBucket()) && packObject.equals(metadata.getPackObject())) {
+                packedList.add(metadata);
+            }
+        }
+        return packedList;
+    }
+
+    /**
+     * 跳过指定长度，到达文件流末尾时抛出异常
+     */
+    private static void skipFully(InputStream inputStream, long length) throws IOException {
+        long skipped = 0;
+        while (skipped < length) {
+            long step = inputStream.skip(length - skipped);
+            if (step <= 0) {
+                throw new IOException("unexpected end of pack object");
+            }
+            skipped += step;
+        }
+    }
+
+    /**
+     * 等待时间结束，关闭打包对象并写入
+     * 打包对象已因写满被关闭时不做处理
+     */
+    private void close(PackBuffer pack) {
+        synchronized (openPacks) {
+            if (openPacks.get(pack.bucketName) != pack) {
+                return;
+            }
+            openPacks.remove(pack.bucketName);
+        }
+        write(pack);
+    }
+
+    private void write(PackBuffer pack) {
+        try {
+            byte[] content = pack.content.toByteArray();
+            minioS3Client.putObject(pack.bucketName, pack.objectName, new ByteArrayInputStream(content), content.length, PACK_CONTENT_TYPE);
+            pack.written.complete(null);
+        } catch (Exception e) {
+            pack.written.completeExceptionally(e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdown();
+    }
+
+    /**
+     * 文件在打包对象中的位置
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class PackLocation {
+
+        /**
+         * 打包对象名称
+         */
+        private final String packObject;
+
+        /**
+         * 起始位置
+         */
+        private final long offset;
+
+    }
+
+    /**
+     * 正在追加的打包对象
+     */
+    private static class PackBuffer {
+
+        private final String bucketName;
+
+        private final String objectName;
+
+        private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+        private final CompletableFuture<Void> written = new CompletableFuture<>();
+
+        private PackBuffer(String bucketName, String objectName) {
+            this.bucketName = bucketName;
+            this.objectName = objectName;
+        }
+
+    }
+
+}
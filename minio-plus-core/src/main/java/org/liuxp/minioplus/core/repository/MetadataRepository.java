@@ -5,6 +5,9 @@ import org.liuxp.minioplus.api.model.dto.FileMetadataInfoSaveDTO;
 import org.liuxp.minioplus.api.model.dto.FileMetadataInfoUpdateDTO;
 import org.liuxp.minioplus.api.model.vo.FileMetadataInfoVo;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -30,6 +33,37 @@ public interface MetadataRepository {
      */
     FileMetadataInfoVo one(FileMetadataInfoDTO searchDTO);
 
+    /**
+     * 根据MD5值批量查询
+     * 默认逐个MD5查询，建议实现类覆盖为一次IN查询
+     *
+     * @param fileMd5List MD5值集合
+     * @return 列表结果集
+     */
+    default List<FileMetadataInfoVo> listByMd5(Collection<String> fileMd5List) {
+        List<FileMetadataInfoVo> result = new ArrayList<>();
+        for (String fileMd5 : fileMd5List) {
+            FileMetadataInfoDTO searchDTO = new FileMetadataInfoDTO();
+            searchDTO.setFileMd5(fileMd5);
+            result.addAll(list(searchDTO));
+        }
+        return result;
+    }
+
+    /**
+     * 按主键顺序分页查询
+     * 返回符合条件且主键大于lastId的前limit条，按主键升序排列，用于遍历全表而不一次加载全部数据
+     * 默认不分页，lastId为null时返回全部结果，之后返回空集合，建议实现类覆盖为 WHERE id > lastId ORDER BY id LIMIT limit
+     *
+     * @param searchDTO 查询条件
+     * @param lastId    上一页最后一条的主键，第一页为null
+     * @param limit     每页条数
+     * @return 列表结果集
+     */
+    default List<FileMetadataInfoVo> listAfter(FileMetadataInfoDTO searchDTO, Long lastId, int limit) {
+        return lastId == null ? list(searchDTO) : Collections.emptyList();
+    }
+
     /**
      * 新增
      *
@@ -38,6 +72,21 @@ public interface MetadataRepository {
      */
     FileMetadataInfoVo save(FileMetadataInfoSaveDTO saveDTO);
 
+    /**
+     * 批量新增
+     * 默认逐条新增，建议实现类覆盖为批量插入
+     *
+     * @param saveDTOList 数据实体集合
+     * @return 执行结果，与入参顺序一致
+     */
+    default List<FileMetadataInfoVo> saveBatch(List<FileMetadataInfoSaveDTO> saveDTOList) {
+        List<FileMetadataInfoVo> result = new ArrayList<>(saveDTOList.size());
+        for (FileMetadataInfoSaveDTO saveDTO : saveDTOList) {
+            result.add(save(saveDTO));
+        }
+        return result;
+    }
+
     /**
      * 修改数据
      *
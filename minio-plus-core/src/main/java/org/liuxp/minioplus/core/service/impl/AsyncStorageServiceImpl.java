@@ -0,0 +1,199 @@
+package org.liuxp.minioplus.core.service.impl;
+
+import cn.hutool.core.lang.Pair;
+import org.liuxp.minioplus.api.AsyncStorageService;
+import org.liuxp.minioplus.api.model.dto.FileMetadataInfoDTO;
+import org.liuxp.minioplus.api.model.dto.FileMetadataInfoSaveDTO;
+import org.liuxp.minioplus.api.model.vo.CompleteResultVo;
+import org.liuxp.minioplus.api.model.vo.FileCheckResultVo;
+import org.liuxp.minioplus.api.model.vo.FileMetadataInfoVo;
+import org.liuxp.minioplus.api.model.vo.FilePartPageVo;
+import org.liuxp.minioplus.common.config.MinioPlusProperties;
+import org.liuxp.minioplus.core.engine.StorageEngineService;
+import org.liuxp.minioplus.core.filter.FileMd5Filter;
+import org.liuxp.minioplus.core.repository.MetadataRepository;
+import org.liuxp.minioplus.s3.def.MinioS3AsyncClient;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 存储组件异步接口实现类
+ * 只有元数据的查询和保存在异步线程池中执行，读取、创建和删除文件时存储引擎的读写组合异步客户端返回的CompletableFuture，不占用线程，
+ * 下载地址为本地签名计算，在元数据查询完成后直接计算
+ * 上传任务初始化、合并、分片查询和缩略图在文件锁内交替访问元数据和存储引擎，异步客户端没有对应操作，整体在异步线程池中执行
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+@Service
+public class AsyncStorageServiceImpl implements AsyncStorageService, DisposableBean {
+
+    /**
+     * 存储组件Service层公共方法实现类
+     */
+    private final StorageServiceImpl storageService;
+
+    /**
+     * 存储引擎Service接口定义
+     */
+    private final StorageEngineService storageEngineService;
+
+    /**
+     * 文件元数据服务接口定义
+     */
+    private final MetadataRepository fileMetadataRepository;
+
+    /**
+     * 文件MD5存在性过滤器
+     */
+    private final FileMd5Filter fileMd5Filter;
+
+    /**
+     * S3异步客户端
+     */
+    private final MinioS3AsyncClient minioS3AsyncClient;
+
+    /**
+     * 元数据操作线程池
+     */
+    private final ExecutorService executor;
+
+    /**
+     * 构造方法
+     * @param storageService 存储组件Service层公共方法实现类
+     * @param storageEngineService 存储引擎Service接口定义
+     * @param fileMetadataRepository 文件元数据服务接口定义
+     * @param fileMd5Filter 文件MD5存在性过滤器
+     * @param minioS3AsyncClient S3异步客户端
+     * @param properties MinioPlus配置类
+     */
+    public AsyncStorageServiceImpl(StorageServiceImpl storageService, StorageEngineService storageEngineService, MetadataRepository fileMetadataRepository,
+                                   FileMd5Filter fileMd5Filter, MinioS3AsyncClient minioS3AsyncClient, MinioPlusProperties properties) {
+        this.storageService = storageService;
+        this.storageEngineService = storageEngineService;
+        this.fileMetadataRepository = fileMetadataRepository;
+        this.fileMd5Filter = fileMd5Filter;
+        this.minioS3AsyncClient = minioS3AsyncClient;
+
+        int threads = Math.max(1, properties.getAsync().getThreads());
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor threadPool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "minioplus-async-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        threadPool.allowCoreThreadTimeOut(true);
+        this.executor = threadPool;
+    }
+
+    @Override
+    public CompletableFuture<FileCheckResultVo> init(String fileMd5, String fullFileName, long fileSize, Boolean isPrivate, String userId) {
+        return CompletableFuture.supplyAsync(() -> storageService.init(fileMd5, fullFileName, fileSize, isPrivate, userId), executor);
+    }
+
+    @Override
+    public CompletableFuture<FileCheckResultVo> init(String fileMd5, String fullFileName, long fileSize, Boolean isPrivate, String userId, Boolean compact) {
+        return CompletableFuture.supplyAsync(() -> storageService.init(fileMd5, fullFileName, fileSize, isPrivate, userId, compact), executor);
+    }
+
+    @Override
+    public CompletableFuture<CompleteResultVo> complete(String fileKey, List<String> partMd5List, String userId) {
+        return CompletableFuture.supplyAsync(() -> storageService.complete(fileKey, partMd5List, userId), executor);
+    }
+
+    @Override
+    public CompletableFuture<CompleteResultVo> complete(String fileKey, List<String> partMd5List, String userId, Boolean compact) {
+        return CompletableFuture.supplyAsync(() -> storageService.complete(fileKey, partMd5List, userId, compact), executor);
+    }
+
+    @Override
+    public CompletableFuture<FilePartPageVo> nextParts(String fileKey, Integer partNumber, String userId, Boolean compact) {
+        return CompletableFuture.supplyAsync(() -> storageService.nextParts(fileKey, partNumber, userId, compact), executor);
+    }
+
+    @Override
+    public CompletableFuture<String> download(String fileKey, String userId) {
+        // 线程池中只校验权限，签名在查询完成后计算
+        return CompletableFuture.supplyAsync(() -> storageEngineService.one(fileKey, userId), executor)
+                .thenApply(storageEngineService::download);
+    }
+
+    @Override
+    public CompletableFuture<FileMetadataInfoVo> one(String fileKey, String userId) {
+        return CompletableFuture.supplyAsync(() -> storageEngineService.one(fileKey, userId), executor);
+    }
+
+    @Override
+    public CompletableFuture<String> image(String fileKey, String userId) {
+        return CompletableFuture.supplyAsync(() -> storageEngineService.one(fileKey, userId), executor)
+                .thenApply(storageEngineService::image);
+    }
+
+    @Override
+    public CompletableFuture<String> preview(String fileKey, String userId) {
+        return CompletableFuture.supplyAsync(() -> storageService.preview(fileKey, userId), executor);
+    }
+
+    @Override
+    public CompletableFuture<Pair<FileMetadataInfoVo, byte[]>> read(String fileKey) {
+        return CompletableFuture.supplyAsync(() -> storageService.one(fileKey), executor)
+                .thenCompose(metadata -> {
+                    if (metadata == null) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    return storageEngineService.readAsync(metadata).thenApply(fileBytes -> Pair.of(metadata, fileBytes));
+                });
+    }
+
+    @Override
+    public CompletableFuture<Pair<FileMetadataInfoVo, InputStream>> readStream(String fileKey, long offset, long length) {
+        return CompletableFuture.supplyAsync(() -> storageService.readStream(fileKey, offset, length), executor);
+    }
+
+    @Override
+    public CompletableFuture<FileMetadataInfoVo> createFile(String fullFileName, Boolean isPrivate, String userId, byte[] fileBytes) {
+        return CompletableFuture.supplyAsync(() -> {
+                    // 计算MD5值，查询相同MD5值的已完成文件
+                    FileMetadataInfoSaveDTO saveDTO = storageService.buildSaveDto(fullFileName, isPrivate, userId, fileBytes);
+                    return Pair.of(saveDTO, storageService.reuseFinishedFile(saveDTO));
+                }, executor)
+                .thenCompose(checked -> {
+                    FileMetadataInfoSaveDTO saveDTO = checked.getKey();
+                    if (Boolean.TRUE.equals(checked.getValue())) {
+                        return CompletableFuture.completedFuture(saveDTO);
+                    }
+                    // 新文件时，异步写入
+                    return storageEngineService.createFileAsync(saveDTO, fileBytes).thenApply(written -> saveDTO);
+                })
+                .thenApplyAsync(saveDTO -> {
+                    FileMetadataInfoVo metadataInfoVo = fileMetadataRepository.save(saveDTO);
+                    fileMd5Filter.put(saveDTO.getFileMd5());
+                    return metadataInfoVo;
+                }, executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> remove(String fileKey) {
+        // 线程池中只删除元数据，物理文件由异步客户端删除
+        return CompletableFuture.supplyAsync(() -> storageEngineService.removeMetadata(fileKey), executor)
+                .thenCompose(objects -> CompletableFuture.allOf(objects.stream()
+                        .map(object -> minioS3AsyncClient.removeObject(object.getKey(), object.getValue()))
+                        .toArray(CompletableFuture[]::new)))
+                .thenApply(removed -> true);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+}
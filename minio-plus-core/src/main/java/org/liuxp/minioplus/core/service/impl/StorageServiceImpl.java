@@ -2,19 +2,26 @@ package org.liuxp.minioplus.core.service.impl;
 
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IORuntimeException;
 import cn.hutool.core.io.IoUtil;
 import cn.hutool.core.lang.Pair;
 import cn.hutool.core.text.CharSequenceUtil;
+import cn.hutool.core.util.HexUtil;
 import cn.hutool.core.util.IdUtil;
 import cn.hutool.crypto.SecureUtil;
+import cn.hutool.crypto.digest.DigestAlgorithm;
+import cn.hutool.crypto.digest.DigestUtil;
 import cn.hutool.http.HttpResponse;
 import cn.hutool.http.HttpUtil;
+import lombok.extern.slf4j.Slf4j;
 import org.liuxp.minioplus.api.StorageService;
 import org.liuxp.minioplus.api.model.dto.FileMetadataInfoDTO;
 import org.liuxp.minioplus.api.model.dto.FileMetadataInfoSaveDTO;
 import org.liuxp.minioplus.api.model.vo.CompleteResultVo;
 import org.liuxp.minioplus.api.model.vo.FileCheckResultVo;
 import org.liuxp.minioplus.api.model.vo.FileMetadataInfoVo;
+import org.liuxp.minioplus.api.model.vo.FilePartCompactVo;
+import org.liuxp.minioplus.api.model.vo.FilePartPageVo;
 import org.liuxp.minioplus.api.model.vo.FilePreShardingVo;
 import org.liuxp.minioplus.common.config.MinioPlusProperties;
 import org.liuxp.minioplus.common.enums.MinioPlusErrorCode;
@@ -22,13 +29,42 @@ import org.liuxp.minioplus.common.enums.StorageBucketEnums;
 import org.liuxp.minioplus.common.exception.MinioPlusException;
 import org.liuxp.minioplus.core.common.utils.CommonUtil;
 import org.liuxp.minioplus.core.common.utils.ContentTypeUtil;
+import org.liuxp.minioplus.core.download.ParallelRangeDownloader;
 import org.liuxp.minioplus.core.engine.StorageEngineService;
+import org.liuxp.minioplus.core.filter.FileMd5Filter;
+import org.liuxp.minioplus.core.pack.SmallFilePackStore;
 import org.liuxp.minioplus.core.repository.MetadataRepository;
+import org.liuxp.minioplus.core.upload.ParallelRangeFetcher;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.stereotype.Service;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * 存储组件Service层公共方法实现类
@@ -36,8 +72,24 @@ import java.util.List;
  * @author contact@liuxp.me
  * @since 2023/06/26
  */
+@Slf4j
 @Service
-public class StorageServiceImpl implements StorageService {
+public class StorageServiceImpl implements StorageService, DisposableBean {
+
+    /**
+     * 分块上传地址中的块号参数
+     */
+    private static final String PART_NUMBER_PARAM = "partNumber=";
+
+    /**
+     * 分块上传地址中的签名参数
+     */
+    private static final String SIGNATURE_PARAM = "X-Amz-Signature=";
+
+    /**
+     * 流式写入时临时文件的前缀
+     */
+    private static final String TEMP_FILE_PREFIX = "minioplus-";
 
     /**
      * 存储引擎Service接口定义
@@ -54,16 +106,66 @@ public class StorageServiceImpl implements StorageService {
      */
     private final MinioPlusProperties properties;
 
+    /**
+     * 文件MD5存在性过滤器
+     */
+    private final FileMd5Filter fileMd5Filter;
+
+    /**
+     * 远程文件分段并发下载
+     */
+    private final ParallelRangeFetcher rangeFetcher;
+
+    /**
+     * 文件分段并发下载到本地
+     */
+    private final ParallelRangeDownloader rangeDownloader;
+
+    /**
+     * 小文件打包存储
+     */
+    private final SmallFilePackStore packStore;
+
+    /**
+     * 批量创建文件线程池，所有批量任务共用
+     */
+    private final ExecutorService batchExecutor;
+
     /**
      * 构造方法
      * @param storageEngineService 存储引擎Service接口定义
      * @param fileMetadataRepository 文件元数据服务接口定义
      * @param properties MinioPlus配置类
+     * @param fileMd5Filter 文件MD5存在性过滤器
+     * @param rangeFetcher 远程文件分段并发下载
+     * @param packStore 小文件打包存储
+     * @param rangeDownloader 文件分段并发下载到本地
      */
-    public StorageServiceImpl(StorageEngineService storageEngineService, MetadataRepository fileMetadataRepository, MinioPlusProperties properties) {
+    public StorageServiceImpl(StorageEngineService storageEngineService, MetadataRepository fileMetadataRepository, MinioPlusProperties properties,
+                              FileMd5Filter fileMd5Filter, ParallelRangeFetcher rangeFetcher, SmallFilePackStore packStore,
+                              ParallelRangeDownloader rangeDownloader) {
         this.storageEngineService = storageEngineService;
         this.fileMetadataRepository = fileMetadataRepository;
         this.properties = properties;
+        this.fileMd5Filter = fileMd5Filter;
+        this.rangeFetcher = rangeFetcher;
+        this.packStore = packStore;
+        this.rangeDownloader = rangeDownloader;
+
+        int threads = Math.max(1, properties.getBatch().getThreads());
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor threadPool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "minioplus-batch-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        threadPool.allowCoreThreadTimeOut(true);
+        this.batchExecutor = threadPool;
+    }
+
+    @Override
+    public void destroy() {
+        batchExecutor.shutdown();
     }
 
     @Override
@@ -101,6 +203,11 @@ public class StorageServiceImpl implements StorageService {
 
     @Override
     public FileCheckResultVo init(String fileMd5, String fullFileName, long fileSize, Boolean isPrivate, String userId) {
+        return init(fileMd5, fullFileName, fileSize, isPrivate, userId, false);
+    }
+
+    @Override
+    public FileCheckResultVo init(String fileMd5, String fullFileName, long fileSize, Boolean isPrivate, String userId, Boolean compact) {
 
         // isPrivate 为空时，设置为 false
         isPrivate = isPrivate != null && isPrivate;
@@ -108,8 +215,10 @@ public class StorageServiceImpl implements StorageService {
         FileCheckResultVo resultVo = storageEngineService.init(fileMd5, fullFileName, fileSize, isPrivate, userId);
 
         if (resultVo != null) {
-            for (FileCheckResultVo.Part part : resultVo.getPartList()) {
-                part.setUrl(remakeUrl(part.getUrl()));
+            FilePartCompactVo compactVo = remakeParts(resultVo.getPartList(), compact);
+            if (compactVo != null) {
+                resultVo.setCompactParts(compactVo);
+                resultVo.setPartList(new ArrayList<>());
             }
         }
 
@@ -118,17 +227,42 @@ public class StorageServiceImpl implements StorageService {
 
     @Override
     public CompleteResultVo complete(String fileKey, List<String> partMd5List, String userId) {
+        return complete(fileKey, partMd5List, userId, false);
+    }
+
+    @Override
+    public CompleteResultVo complete(String fileKey, List<String> partMd5List, String userId, Boolean compact) {
         CompleteResultVo completeResultVo = storageEngineService.complete(fileKey, partMd5List, userId);
 
         if (completeResultVo != null) {
-            for (FileCheckResultVo.Part part : completeResultVo.getPartList()) {
-                part.setUrl(remakeUrl(part.getUrl()));
+            FilePartCompactVo compactVo = remakeParts(completeResultVo.getPartList(), compact);
+            if (compactVo != null) {
+                completeResultVo.setCompactParts(compactVo);
+                completeResultVo.setPartList(new ArrayList<>());
             }
         }
 
         return completeResultVo;
     }
 
+    @Override
+    public FilePartPageVo nextParts(String fileKey, Integer partNumber, String userId) {
+        return nextParts(fileKey, partNumber, userId, false);
+    }
+
+    @Override
+    public FilePartPageVo nextParts(String fileKey, Integer partNumber, String userId, Boolean compact) {
+        FilePartPageVo pageVo = storageEngineService.nextParts(fileKey, partNumber, userId);
+
+        FilePartCompactVo compactVo = remakeParts(pageVo.getPartList(), compact);
+        if (compactVo != null) {
+            pageVo.setCompactParts(compactVo);
+            pageVo.setPartList(new ArrayList<>());
+        }
+
+        return pageVo;
+    }
+
     @Override
     public String download(String fileKey, String userId) {
         return storageEngineService.download(fileKey, userId);
@@ -153,6 +287,11 @@ public class StorageServiceImpl implements StorageService {
 
     }
 
+    @Override
+    public FileMetadataInfoVo one(String fileKey, String userId) {
+        return storageEngineService.one(fileKey, userId);
+    }
+
     @Override
     public List<FileMetadataInfoVo> list(FileMetadataInfoDTO fileMetadataInfo) {
         // 列表查询，取得全部符合条件的数据
@@ -164,78 +303,197 @@ public class StorageServiceImpl implements StorageService {
 
         // 组装文件保存入参
         FileMetadataInfoSaveDTO saveDTO = buildSaveDto(fullFileName, isPrivate, userId, fileBytes);
+        return saveFile(saveDTO, dto -> storageEngineService.createFile(dto, fileBytes));
 
-        // 查询MinIO中是否存在相同MD5值的文件
-        FileMetadataInfoDTO fileMetadataInfo = new FileMetadataInfoDTO();
-        fileMetadataInfo.setFileMd5(saveDTO.getFileMd5());
-        List<FileMetadataInfoVo> alreadyFileList = fileMetadataRepository.list(fileMetadataInfo);
-
-        boolean sameMd5 = false;
+    }
 
-        if (CollUtil.isNotEmpty(alreadyFileList)) {
-            for (FileMetadataInfoVo fileMetadataInfoVo : alreadyFileList) {
-                if (Boolean.TRUE.equals(fileMetadataInfoVo.getIsFinished())) {
-                    saveDTO.setStorageBucket(fileMetadataInfoVo.getStorageBucket());
-                    saveDTO.setStoragePath(fileMetadataInfoVo.getStoragePath());
-                    sameMd5 = true;
-                    break;
-                }
-            }
-        }
+    @Override
+    public FileMetadataInfoVo createFile(String fullFileName, Boolean isPrivate, String userId, InputStream inputStream) {
 
-        if (!sameMd5) {
-            // 新文件时，执行写入逻辑
-            storageEngineService.createFile(saveDTO, fileBytes);
+        if (null == inputStream) {
+            throw new MinioPlusException(MinioPlusErrorCode.FILE_BYTES_FAILED);
         }
 
-        return fileMetadataRepository.save(saveDTO);
+        File tempFile = null;
+        try {
+            // 先写入临时文件，写入的同时计算MD5值，堆内存占用与文件大小无关
+            tempFile = FileUtil.createTempFile(TEMP_FILE_PREFIX, null, null, true);
+            MessageDigest digest = DigestUtil.digester(DigestAlgorithm.MD5).getDigest();
+            try (DigestInputStream digestInputStream = new DigestInputStream(inputStream, digest)) {
+                Files.copy(digestInputStream, tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            String md5 = HexUtil.encodeHexStr(digest.digest());
 
+            // MD5确定后按大文件流程处理：已存在相同文件时只新增元数据，否则从临时文件写入
+            try (InputStream fileInputStream = Files.newInputStream(tempFile.toPath())) {
+                return createBigFile(fullFileName, md5, tempFile.length(), isPrivate, userId, fileInputStream);
+            }
+        } catch (IOException e) {
+            throw new MinioPlusException(MinioPlusErrorCode.FILE_UPLOAD_FAILED.getCode(), MinioPlusErrorCode.FILE_UPLOAD_FAILED.getMessage() + ":" + e.getMessage());
+        } finally {
+            FileUtil.del(tempFile);
+        }
     }
 
     @Override
-    public FileMetadataInfoVo createFile(String fullFileName, Boolean isPrivate, String userId, InputStream inputStream) {
-        return createFile(fullFileName, isPrivate, userId, IoUtil.readBytes(inputStream));
+    public FileMetadataInfoVo createFile(String fullFileName, Boolean isPrivate, String userId, String url) {
+
+        File tempFile = FileUtil.createTempFile(TEMP_FILE_PREFIX, null, null, true);
+        try {
+            // 源站支持Range请求时，分段并发下载到临时文件，再按本地文件处理
+            if (rangeFetcher.fetch(url, tempFile.toPath())) {
+                return createFile(fullFileName, isPrivate, userId, tempFile.toPath());
+            }
+        } finally {
+            FileUtil.del(tempFile);
+        }
+
+        // 请求文件，异步模式下响应体不会读入内存
+        try (HttpResponse httpResponse = HttpUtil.createGet(url).executeAsync()) {
+            // 获得输入流
+            InputStream inputStream = httpResponse.bodyStream();
+            // 调用处理函数
+            return createFile(fullFileName, isPrivate, userId, inputStream);
+        }
     }
 
     @Override
-    public FileMetadataInfoVo createFile(String fullFileName, Boolean isPrivate, String userId, String url) {
-        // 请求文件
-        HttpResponse httpResponse = HttpUtil.createGet(url).execute();
-        // 获得输入流
-        InputStream inputStream = httpResponse.bodyStream();
-        // 调用处理函数
-        return createFile(fullFileName, isPrivate, userId, inputStream);
+    public FileMetadataInfoVo createFile(String fullFileName, Boolean isPrivate, String userId, Path path) {
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // 组装文件保存入参
+            FileMetadataInfoSaveDTO saveDTO = buildSaveDto(fullFileName, md5(channel), channel.size(), isPrivate, userId);
+            return saveFile(saveDTO, dto -> storageEngineService.createFile(dto, channel));
+        } catch (IOException e) {
+            throw new MinioPlusException(MinioPlusErrorCode.FILE_UPLOAD_FAILED.getCode(), MinioPlusErrorCode.FILE_UPLOAD_FAILED.getMessage() + ":" + e.getMessage());
+        }
     }
 
     @Override
-    public FileMetadataInfoVo createBigFile(String fullFileName, String md5, long fileSize, Boolean isPrivate, String userId, InputStream inputStream) {
-        // 组装文件保存入参
-        FileMetadataInfoSaveDTO saveDTO = buildSaveDto(fullFileName, md5, fileSize, isPrivate, userId);
+    public List<FileMetadataInfoVo> createFiles(List<Path> paths, Boolean isPrivate, String userId) {
 
-        // 查询MinIO中是否存在相同MD5值的文件
-        FileMetadataInfoDTO fileMetadataInfo = new FileMetadataInfoDTO();
-        fileMetadataInfo.setFileMd5(saveDTO.getFileMd5());
-        List<FileMetadataInfoVo> alreadyFileList = fileMetadataRepository.list(fileMetadataInfo);
+        if (CollUtil.isEmpty(paths)) {
+            return new ArrayList<>();
+        }
 
-        boolean sameMd5 = false;
+        // 线程池为所有批量任务共用，按批提交，队列中最多只有一批任务
+        int batchSize = Math.max(1, properties.getBatch().getSaveSize());
+
+        // 并发计算MD5值，组装文件保存入参
+        List<FileMetadataInfoSaveDTO> saveDTOList = new ArrayList<>(paths.size());
+        for (int from = 0; from < paths.size(); from += batchSize) {
+            List<CompletableFuture<FileMetadataInfoSaveDTO>> digestFutures = new ArrayList<>(batchSize);
+            for (Path path : paths.subList(from, Math.min(from + batchSize, paths.size()))) {
+                digestFutures.add(CompletableFuture.supplyAsync(() -> {
+                    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                        return buildSaveDto(path.getFileName().toString(), md5(channel), channel.size(), isPrivate, userId);
+                    } catch (IOException e) {
+                        throw new MinioPlusException(MinioPlusErrorCode.FILE_UPLOAD_FAILED.getCode(), MinioPlusErrorCode.FILE_UPLOAD_FAILED.getMessage() + ":" + e.getMessage());
+                    }
+                }, batchExecutor));
+            }
+            saveDTOList.addAll(joinAll(digestFutures));
+        }
 
-        if (CollUtil.isNotEmpty(alreadyFileList)) {
-            for (FileMetadataInfoVo fileMetadataInfoVo : alreadyFileList) {
+        // 整批文件只查询一次元数据，过滤器判定一定不存在的MD5值不参与查询
+        Set<String> queryMd5Set = new HashSet<>();
+        for (FileMetadataInfoSaveDTO saveDTO : saveDTOList) {
+            if (fileMd5Filter.mightContain(saveDTO.getFileMd5())) {
+                queryMd5Set.add(saveDTO.getFileMd5());
+            }
+        }
+        Map<String, FileMetadataInfoVo> finishedFileMap = new HashMap<>();
+        if (!queryMd5Set.isEmpty()) {
+            for (FileMetadataInfoVo fileMetadataInfoVo : fileMetadataRepository.listByMd5(queryMd5Set)) {
                 if (Boolean.TRUE.equals(fileMetadataInfoVo.getIsFinished())) {
-                    saveDTO.setStorageBucket(fileMetadataInfoVo.getStorageBucket());
-                    saveDTO.setStoragePath(fileMetadataInfoVo.getStoragePath());
-                    sameMd5 = true;
-                    break;
+                    finishedFileMap.putIfAbsent(fileMetadataInfoVo.getFileMd5(), fileMetadataInfoVo);
                 }
             }
         }
 
-        if (!sameMd5) {
-            // 新文件时，执行写入逻辑
-            storageEngineService.createFile(saveDTO, inputStream);
+        // 已存在的文件只新增元数据，新文件按MD5值分组，每组只写入第一个文件
+        Map<String, List<FileMetadataInfoSaveDTO>> newFileMap = new LinkedHashMap<>();
+        Map<String, Path> newFilePathMap = new HashMap<>();
+        for (int i = 0; i < saveDTOList.size(); i++) {
+            FileMetadataInfoSaveDTO saveDTO = saveDTOList.get(i);
+            FileMetadataInfoVo finishedFile = finishedFileMap.get(saveDTO.getFileMd5());
+            if (finishedFile != null) {
+                copyStorage(finishedFile, saveDTO);
+            } else {
+                newFileMap.computeIfAbsent(saveDTO.getFileMd5(), key -> new ArrayList<>()).add(saveDTO);
+                newFilePathMap.putIfAbsent(saveDTO.getFileMd5(), paths.get(i));
+            }
         }
 
-        return fileMetadataRepository.save(saveDTO);
+        // 并发读取并写入新文件，同一批的小文件全部追加后统一等待，按打包对象目标长度写入
+        // 任一批写入失败时不再提交后续批次，回滚此前各批已写入的文件
+        List<CompletableFuture<Boolean>> writeFutures = new ArrayList<>(newFileMap.size());
+        List<FileMetadataInfoSaveDTO> writeDTOList = new ArrayList<>(newFileMap.size());
+        for (Map.Entry<String, List<FileMetadataInfoSaveDTO>> entry : newFileMap.entrySet()) {
+            int submitted = writeFutures.size();
+            if (submitted > 0 && submitted % batchSize == 0 && !awaitQuietly(writeFutures.subList(submitted - batchSize, submitted))) {
+                break;
+            }
+            Path path = newFilePathMap.get(entry.getKey());
+            List<FileMetadataInfoSaveDTO> sameFileList = entry.getValue();
+            FileMetadataInfoSaveDTO first = sameFileList.get(0);
+            CompletableFuture<Boolean> writeFuture;
+            if (packStore.isPackable(first.getFileSize())) {
+                writeFuture = CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return Files.readAllBytes(path);
+                    } catch (IOException e) {
+                        throw new MinioPlusException(MinioPlusErrorCode.FILE_UPLOAD_FAILED.getCode(), MinioPlusErrorCode.FILE_UPLOAD_FAILED.getMessage() + ":" + e.getMessage());
+                    }
+                }, batchExecutor).thenCompose(fileBytes -> packStore.appendAsync(first.getStorageBucket(), fileBytes)).thenApply(location -> {
+                    first.setIsPacked(true);
+                    first.setPackObject(location.getPackObject());
+                    first.setPackOffset(location.getOffset());
+                    return true;
+                });
+            } else {
+                writeFuture = CompletableFuture.supplyAsync(() -> {
+                    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                        return storageEngineService.createFile(first, channel);
+                    } catch (IOException e) {
+                        throw new MinioPlusException(MinioPlusErrorCode.FILE_UPLOAD_FAILED.getCode(), MinioPlusErrorCode.FILE_UPLOAD_FAILED.getMessage() + ":" + e.getMessage());
+                    }
+                }, batchExecutor);
+            }
+            writeFutures.add(writeFuture.thenApply(written -> {
+                for (FileMetadataInfoSaveDTO saveDTO : sameFileList) {
+                    saveDTO.setStorageBucket(first.getStorageBucket());
+                    saveDTO.setStoragePath(first.getStoragePath());
+                    saveDTO.setIsPacked(first.getIsPacked());
+                    saveDTO.setPackObject(first.getPackObject());
+                    saveDTO.setPackOffset(first.getPackOffset());
+                    saveDTO.setContentEncoding(first.getContentEncoding());
+                    saveDTO.setStoredSize(first.getStoredSize());
+                }
+                return true;
+            }));
+            writeDTOList.add(first);
+        }
+        this.joinAllOrRollback(writeFutures, writeDTOList);
+
+        // 分批保存元数据
+        List<FileMetadataInfoVo> result = new ArrayList<>(saveDTOList.size());
+        for (int from = 0; from < saveDTOList.size(); from += batchSize) {
+            List<FileMetadataInfoSaveDTO> batch = saveDTOList.subList(from, Math.min(from + batchSize, saveDTOList.size()));
+            result.addAll(fileMetadataRepository.saveBatch(batch));
+            for (FileMetadataInfoSaveDTO saveDTO : batch) {
+                fileMd5Filter.put(saveDTO.getFileMd5());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public FileMetadataInfoVo createBigFile(String fullFileName, String md5, long fileSize, Boolean isPrivate, String userId, InputStream inputStream) {
+        // 组装文件保存入参
+        FileMetadataInfoSaveDTO saveDTO = buildSaveDto(fullFileName, md5, fileSize, isPrivate, userId);
+
+        return saveFile(saveDTO, dto -> storageEngineService.createFile(dto, inputStream));
     }
 
     @Override
@@ -243,11 +501,202 @@ public class StorageServiceImpl implements StorageService {
         return storageEngineService.read(fileKey);
     }
 
+    @Override
+    public Pair<FileMetadataInfoVo, byte[]> read(String fileKey, long offset, long length) {
+        Pair<FileMetadataInfoVo, InputStream> stream = readStream(fileKey, offset, length);
+        if (stream == null) {
+            return null;
+        }
+        try (InputStream inputStream = stream.getValue()) {
+            return Pair.of(stream.getKey(), IoUtil.readBytes(inputStream, false));
+        } catch (IOException | IORuntimeException e) {
+            throw new MinioPlusException(MinioPlusErrorCode.READ_FAILED.getCode(), MinioPlusErrorCode.READ_FAILED.getMessage() + ":" + e.getMessage());
+        }
+    }
+
+    @Override
+    public Pair<FileMetadataInfoVo, InputStream> readStream(String fileKey) {
+        return readStream(fileKey, 0, -1);
+    }
+
+    @Override
+    public Pair<FileMetadataInfoVo, InputStream> readStream(String fileKey, long offset, long length) {
+        FileMetadataInfoVo metadata = one(fileKey);
+        if (metadata == null) {
+            return null;
+        }
+        long fileSize = metadata.getFileSize();
+        if (offset < 0 || offset > fileSize) {
+            throw new MinioPlusException(MinioPlusErrorCode.FILE_RANGE_FAILED);
+        }
+        // 读取长度不超过起始位置之后的文件长度
+        long readLength = length < 0 ? fileSize - offset : Math.min(length, fileSize - offset);
+        return Pair.of(metadata, storageEngineService.readStream(metadata, offset, readLength));
+    }
+
+    @Override
+    public FileMetadataInfoVo download(String fileKey, Path target) {
+        FileMetadataInfoVo metadata = one(fileKey);
+        if (metadata == null) {
+            return null;
+        }
+        rangeDownloader.download(metadata, target);
+        return metadata;
+    }
+
+    @Override
+    public FileMetadataInfoVo read(String fileKey, OutputStream outputStream) {
+        Pair<FileMetadataInfoVo, InputStream> stream = readStream(fileKey);
+        if (stream == null) {
+            return null;
+        }
+        try (InputStream inputStream = stream.getValue()) {
+            IoUtil.copy(inputStream, outputStream);
+            return stream.getKey();
+        } catch (IOException | IORuntimeException e) {
+            throw new MinioPlusException(MinioPlusErrorCode.READ_FAILED.getCode(), MinioPlusErrorCode.READ_FAILED.getMessage() + ":" + e.getMessage());
+        }
+    }
+
     @Override
     public Boolean remove(String fileKey) {
         return storageEngineService.remove(fileKey);
     }
 
+    /**
+     * 保存文件
+     * 已存在相同MD5值的已完成文件时只新增元数据，否则先写入文件再新增元数据
+     *
+     * @param saveDTO 文件元数据信息保存入参
+     * @param writer  文件写入方法
+     * @return 文件元数据信息
+     */
+    private FileMetadataInfoVo saveFile(FileMetadataInfoSaveDTO saveDTO, Consumer<FileMetadataInfoSaveDTO> writer) {
+
+        if (!reuseFinishedFile(saveDTO)) {
+            // 新文件时，执行写入逻辑
+            writer.accept(saveDTO);
+        }
+
+        FileMetadataInfoVo metadataInfoVo = fileMetadataRepository.save(saveDTO);
+        fileMd5Filter.put(saveDTO.getFileMd5());
+        return metadataInfoVo;
+    }
+
+    /**
+     * 按分块大小映射文件计算MD5值，数据不经过堆内存
+     *
+     * @param channel 文件通道
+     * @return MD5值
+     */
+    private String md5(FileChannel channel) throws IOException {
+        long fileSize = channel.size();
+        MessageDigest digest = DigestUtil.digester(DigestAlgorithm.MD5).getDigest();
+        long regionSize = properties.getPart().getSize();
+        for (long position = 0; position < fileSize; position += regionSize) {
+            digest.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(regionSize, fileSize - position)));
+        }
+        return HexUtil.encodeHexStr(digest.digest());
+    }
+
+    /**
+     * 等待全部任务完成
+     * 任一任务失败时抛出该任务的异常
+     *
+     * @param futures 任务集合
+     * @return 任务结果，与任务顺序一致
+     */
+    private <T> List<T> joinAll(List<CompletableFuture<T>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof MinioPlusException) {
+                throw (MinioPlusException) e.getCause();
+            }
+            throw new MinioPlusException(MinioPlusErrorCode.FILE_UPLOAD_FAILED.getCode(), MinioPlusErrorCode.FILE_UPLOAD_FAILED.getMessage() + ":" + e.getMessage());
+        }
+        List<T> result = new ArrayList<>(futures.size());
+        for (CompletableFuture<T> future : futures) {
+            result.add(future.join());
+        }
+        return result;
+    }
+
+    /**
+     * 等待全部任务结束，不抛出异常
+     *
+     * @param futures 任务集合
+     * @return 是否全部成功
+     */
+    private boolean awaitQuietly(List<? extends CompletableFuture<?>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).handle((result, e) -> e == null).join();
+    }
+
+    /**
+     * 等待全部文件写入完成，任一文件写入失败时删除已写入的文件后抛出异常
+     * 元数据尚未保存，不删除时写入的对象不会被引用；打包存储的文件与其他文件共用打包对象，不删除
+     *
+     * @param writeFutures 文件写入结果
+     * @param writeDTOList 与写入结果对应的文件元数据信息保存入参
+     */
+    private void joinAllOrRollback(List<CompletableFuture<Boolean>> writeFutures, List<FileMetadataInfoSaveDTO> writeDTOList) {
+        try {
+            joinAll(writeFutures);
+        } catch (MinioPlusException e) {
+            // allOf在全部写入结束后才完成，此时没有仍在写入的文件
+            for (int i = 0; i < writeFutures.size(); i++) {
+                if (!writeFutures.get(i).isCompletedExceptionally()) {
+                    try {
+                        storageEngineService.removeUnsaved(writeDTOList.get(i));
+                    } catch (Exception rollbackException) {
+                        log.warn("批量写入回滚失败fileMd5={}:{}", writeDTOList.get(i).getFileMd5(), rollbackException.getMessage());
+                    }
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 查询MinIO中是否存在相同MD5值的已完成文件，存在时复制其存储信息
+     * 过滤器判定一定不存在时跳过查询
+     *
+     * @param saveDTO 文件元数据信息保存入参
+     * @return 是否存在
+     */
+    boolean reuseFinishedFile(FileMetadataInfoSaveDTO saveDTO) {
+
+        FileMetadataInfoDTO fileMetadataInfo = new FileMetadataInfoDTO();
+        fileMetadataInfo.setFileMd5(saveDTO.getFileMd5());
+        List<FileMetadataInfoVo> alreadyFileList = fileMd5Filter.mightContain(saveDTO.getFileMd5()) ? fileMetadataRepository.list(fileMetadataInfo) : Collections.emptyList();
+
+        if (CollUtil.isNotEmpty(alreadyFileList)) {
+            for (FileMetadataInfoVo fileMetadataInfoVo : alreadyFileList) {
+                if (Boolean.TRUE.equals(fileMetadataInfoVo.getIsFinished())) {
+                    copyStorage(fileMetadataInfoVo, saveDTO);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 复制已存在文件的存储信息，新增的元数据与已存在的文件共用同一份数据
+     *
+     * @param source 已存在文件的元数据
+     * @param target 文件元数据信息保存入参
+     */
+    static void copyStorage(FileMetadataInfoVo source, FileMetadataInfoSaveDTO target) {
+        target.setStorageBucket(source.getStorageBucket());
+        target.setStoragePath(source.getStoragePath());
+        target.setIsPacked(source.getIsPacked());
+        target.setPackObject(source.getPackObject());
+        target.setPackOffset(source.getPackOffset());
+        target.setContentEncoding(source.getContentEncoding());
+        target.setStoredSize(source.getStoredSize());
+    }
+
     FileMetadataInfoSaveDTO buildSaveDto(String fullFileName, Boolean isPrivate, String userId, byte[] fileBytes) {
 
         if (null == fileBytes) {
@@ -297,6 +746,88 @@ public class StorageServiceImpl implements StorageService {
         return fileMetadataInfoSaveDTO;
     }
 
+    /**
+     * 重写分块上传地址
+     * 请求紧凑格式且分块地址可以压缩时，返回紧凑格式的分块信息，只需重写一次公共前缀
+     * 否则逐个重写分块地址，返回null
+     *
+     * @param partList 分块信息
+     * @param compact  是否返回紧凑格式
+     * @return 紧凑格式的分块信息
+     */
+    private FilePartCompactVo remakeParts(List<FileCheckResultVo.Part> partList, Boolean compact) {
+
+        if (Boolean.TRUE.equals(compact)) {
+            FilePartCompactVo compactVo = compactParts(partList);
+            if (compactVo != null) {
+                compactVo.setUrlPrefix(remakeUrl(compactVo.getUrlPrefix()));
+                return compactVo;
+            }
+        }
+
+        for (FileCheckResultVo.Part part : partList) {
+            part.setUrl(remakeUrl(part.getUrl()));
+        }
+        return null;
+    }
+
+    /**
+     * 将分块信息压缩为紧凑格式
+     * 每个分块地址去掉 partNumber 和 X-Amz-Signature 两个查询参数后必须完全一致，否则无法压缩
+     *
+     * @param partList 分块信息
+     * @return 紧凑格式的分块信息，无法压缩时返回null
+     */
+    private FilePartCompactVo compactParts(List<FileCheckResultVo.Part> partList) {
+
+        if (CollUtil.isEmpty(partList)) {
+            return null;
+        }
+
+        FilePartCompactVo compactVo = new FilePartCompactVo();
+        compactVo.setUploadId(partList.get(0).getUploadId());
+        compactVo.setPartSize(properties.getPart().getSize());
+
+        StringBuilder prefix = new StringBuilder();
+        for (FileCheckResultVo.Part part : partList) {
+            String url = part.getUrl();
+            int queryIndex = url.indexOf('?');
+            if (queryIndex < 0) {
+                return null;
+            }
+
+            prefix.setLength(0);
+            prefix.append(url, 0, queryIndex + 1);
+            String partNumber = null;
+            String signature = null;
+            for (String param : url.substring(queryIndex + 1).split("&")) {
+                if (param.startsWith(PART_NUMBER_PARAM)) {
+                    partNumber = param.substring(PART_NUMBER_PARAM.length());
+                } else if (param.startsWith(SIGNATURE_PARAM)) {
+                    signature = param.substring(SIGNATURE_PARAM.length());
+                } else {
+                    if (prefix.length() > queryIndex + 1) {
+                        prefix.append('&');
+                    }
+                    prefix.append(param);
+                }
+            }
+
+            if (partNumber == null || signature == null) {
+                return null;
+            }
+            if (compactVo.getUrlPrefix() == null) {
+                compactVo.setUrlPrefix(prefix.toString());
+            } else if (!CharSequenceUtil.equals(compactVo.getUrlPrefix(), prefix)) {
+                return null;
+            }
+            compactVo.getPartNumbers().add(Integer.valueOf(partNumber));
+            compactVo.getSignatures().add(signature);
+        }
+
+        return compactVo;
+    }
+
     /**
      * 重写文件地址
      *
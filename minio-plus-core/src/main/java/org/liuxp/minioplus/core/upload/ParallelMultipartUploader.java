@@ -0,0 +1,288 @@
+package org.liuxp.minioplus.core.upload;
+
+import lombok.extern.slf4j.Slf4j;
+import org.liuxp.minioplus.common.config.MinioPlusProperties;
+import org.liuxp.minioplus.common.enums.MinioPlusErrorCode;
+import org.liuxp.minioplus.common.exception.MinioPlusException;
+import org.liuxp.minioplus.s3.def.ListParts;
+import org.liuxp.minioplus.s3.def.MinioS3Client;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 服务端并发分片上传
+ * 将文件流按分块大小切分，多个分片并发上传到MinIO，失败的分片单独重试，全部成功后合并
+ * 每个上传任务同时在途的分片数量不超过并发数，分片数据使用分片缓冲区池中的缓冲区，总内存占用受缓冲区池上限约束
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+@Slf4j
+@Component
+public class ParallelMultipartUploader implements DisposableBean {
+
+    private final MinioS3Client minioS3Client;
+
+    private final MinioPlusProperties properties;
+
+    private final PartBufferPool bufferPool;
+
+    /**
+     * 分片上传线程池，所有上传任务共用
+     */
+    private final ExecutorService executor;
+
+    public ParallelMultipartUploader(MinioS3Client minioS3Client, MinioPlusProperties properties, PartBufferPool bufferPool) {
+        this.minioS3Client = minioS3Client;
+        this.properties = properties;
+        this.bufferPool = bufferPool;
+
+        int threads = Math.max(1, properties.getPart().getUploadThreads());
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor threadPool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "minioplus-upload-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        threadPool.allowCoreThreadTimeOut(true);
+        this.executor = threadPool;
+    }
+
+    /**
+     * 并发分片上传文件流
+     *
+     * @param bucketName  桶名称
+     * @param objectName  对象名称（含路径）
+     * @param inputStream 文件流
+     * @param contentType 数据类型
+     */
+    public void upload(String bucketName, String objectName, InputStream inputStream, String contentType) {
+        this.upload(bucketName, objectName, inputStream, contentType, null);
+    }
+
+    /**
+     * 并发分片上传文件流，并指定对象的内容编码
+     * 文件流长度未知时按读取到的数据分片，适用于边读取边压缩的文件流
+     *
+     * @param bucketName      桶名称
+     * @param objectName      对象名称（含路径）
+     * @param inputStream     文件流
+     * @param contentType     数据类型
+     * @param contentEncoding 内容编码
+     */
+    public void upload(String bucketName, String objectName, InputStream inputStream, String contentType, String contentEncoding) {
+        this.upload(bucketName, objectName, contentType, contentEncoding, (buffer, length) -> readFully(inputStream, buffer, length));
+    }
+
+    /**
+     * 并发分片上传本地文件
+     * 按位置从文件通道读取各分块，不改变通道的当前位置
+     *
+     * @param bucketName  桶名称
+     * @param objectName  对象名称（含路径）
+     * @param channel     本地文件通道
+     * @param contentType 数据类型
+     */
+    public void upload(String bucketName, String objectName, FileChannel channel, String contentType) {
+        long[] position = {0L};
+        this.upload(bucketName, objectName, contentType, null, (buffer, length) -> {
+            int read = readFully(channel, position[0], buffer, length);
+            position[0] += read;
+            return read;
+        });
+    }
+
+    private void upload(String bucketName, String objectName, String contentType, String contentEncoding, PartReader partReader) {
+
+        MinioPlusProperties.Part config = properties.getPart();
+        int partSize = config.getSize();
+
+        // 检查存储桶，不存在时创建
+        minioS3Client.makeBucket(bucketName);
+        String uploadId = minioS3Client.createMultipartUpload(bucketName, objectName, contentType, contentEncoding);
+
+        // 每个上传任务的在途分片数量
+        Semaphore permits = new Semaphore(Math.max(1, config.getUploadParallelism()));
+        List<CompletableFuture<ListParts.Part>> futures = new ArrayList<>();
+        // 是否有分片最终失败
+        AtomicBoolean failed = new AtomicBoolean(false);
+
+        try {
+            int partNumber = 1;
+            while (true) {
+                // 先取得许可和缓冲区再读取数据，在途分片或缓冲区达到上限时读取线程等待
+                permits.acquire();
+                byte[] buffer;
+                int length;
+                try {
+                    buffer = bufferPool.acquire();
+                } catch (InterruptedException | RuntimeException e) {
+                    permits.release();
+                    throw e;
+                }
+                try {
+                    length = partReader.read(buffer, partSize);
+                } catch (IOException e) {
+                    bufferPool.release(buffer);
+                    permits.release();
+                    throw e;
+                }
+                if (length == 0 && partNumber > 1) {
+                    bufferPool.release(buffer);
+                    permits.release();
+                    break;
+                }
+
+                final int number = partNumber;
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return uploadPart(bucketName, objectName, uploadId, number, buffer, length);
+                    } catch (RuntimeException e) {
+                        failed.set(true);
+                        throw e;
+                    } finally {
+                        bufferPool.release(buffer);
+                        permits.release();
+                    }
+                }, executor));
+
+                // 有分片失败时不再读取后续数据
+                if (length < partSize || failed.get()) {
+                    break;
+                }
+                partNumber++;
+            }
+
+            List<ListParts.Part> parts = new ArrayList<>(futures.size());
+            for (CompletableFuture<ListParts.Part> future : futures) {
+                parts.add(future.get());
+            }
+
+            minioS3Client.completeMultipartUpload(bucketName, objectName, uploadId, parts);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // 重新设置中断状态
+            this.abort(bucketName, objectName, uploadId, futures);
+            throw new MinioPlusException(MinioPlusErrorCode.WRITE_FAILED);
+        } catch (ExecutionException e) {
+            this.abort(bucketName, objectName, uploadId, futures);
+            if (e.getCause() instanceof MinioPlusException) {
+                throw (MinioPlusException) e.getCause();
+            }
+            log.error("{}:{}", MinioPlusErrorCode.WRITE_FAILED.getMessage(), e.getMessage(), e);
+            throw new MinioPlusException(MinioPlusErrorCode.WRITE_FAILED);
+        } catch (IOException e) {
+            this.abort(bucketName, objectName, uploadId, futures);
+            log.error("{}:{}", MinioPlusErrorCode.WRITE_FAILED.getMessage(), e.getMessage(), e);
+            throw new MinioPlusException(MinioPlusErrorCode.WRITE_FAILED);
+        } catch (MinioPlusException e) {
+            this.abort(bucketName, objectName, uploadId, futures);
+            throw e;
+        }
+    }
+
+    /**
+     * 上传单个分片，失败时按配置的次数重试
+     */
+    private ListParts.Part uploadPart(String bucketName, String objectName, String uploadId, int partNumber, byte[] buffer, int length) {
+        int retries = Math.max(0, properties.getPart().getUploadRetries());
+        for (int attempt = 0; ; attempt++) {
+            try {
+                String etag = minioS3Client.uploadPart(bucketName, objectName, uploadId, partNumber, buffer, length);
+                ListParts.Part part = new ListParts.Part();
+                part.setPartNumber(partNumber);
+                part.setEtag(etag);
+                part.setSize((long) length);
+                return part;
+            } catch (MinioPlusException e) {
+                if (attempt >= retries || Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                log.warn("分片上传失败，第{}次重试，uploadId:{}，partNumber:{}", attempt + 1, uploadId, partNumber);
+            }
+        }
+    }
+
+    /**
+     * 取消上传任务，等待在途分片结束后删除已上传的分片
+     */
+    private void abort(String bucketName, String objectName, String uploadId, List<CompletableFuture<ListParts.Part>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).exceptionally(e -> null).join();
+            minioS3Client.abortMultipartUpload(bucketName, objectName, uploadId);
+        } catch (Exception e) {
+            // 取消失败只记录日志，未合并的分片由MinIO的生命周期策略清理
+            log.warn("{}:{}", MinioPlusErrorCode.ABORT_MULTIPART_FAILED.getMessage(), e.getMessage());
+        }
+    }
+
+    /**
+     * 读满一个分块，直到流结束
+     *
+     * @return 读取的长度
+     */
+    private static int readFully(InputStream inputStream, byte[] buffer, int partSize) throws IOException {
+        int offset = 0;
+        while (offset < partSize) {
+            int read = inputStream.read(buffer, offset, partSize - offset);
+            if (read < 0) {
+                break;
+            }
+            offset += read;
+        }
+        return offset;
+    }
+
+    /**
+     * 从指定位置读满一个分块，直到文件结束
+     *
+     * @return 读取的长度
+     */
+    private static int readFully(FileChannel channel, long position, byte[] buffer, int partSize) throws IOException {
+        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, partSize);
+        while (byteBuffer.hasRemaining()) {
+            int read = channel.read(byteBuffer, position + byteBuffer.position());
+            if (read < 0) {
+                break;
+            }
+        }
+        return byteBuffer.position();
+    }
+
+    /**
+     * 分块数据读取
+     */
+    @FunctionalInterface
+    private interface PartReader {
+
+        /**
+         * 读取下一个分块
+         *
+         * @param buffer 缓冲区
+         * @param length 分块大小
+         * @return 读取的长度，小于分块大小时表示数据已读完
+         */
+        int read(byte[] buffer, int length) throws IOException;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+}
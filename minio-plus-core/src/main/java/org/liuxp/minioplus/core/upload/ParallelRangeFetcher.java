@@ -0,0 +1,204 @@
+package org.liuxp.minioplus.core.upload;
+
+import cn.hutool.core.text.CharSequenceUtil;
+import cn.hutool.http.Header;
+import cn.hutool.http.HttpException;
+import cn.hutool.http.HttpRequest;
+import cn.hutool.http.HttpResponse;
+import cn.hutool.http.HttpStatus;
+import cn.hutool.http.HttpUtil;
+import cn.hutool.http.Method;
+import lombok.extern.slf4j.Slf4j;
+import org.liuxp.minioplus.common.config.MinioPlusProperties;
+import org.liuxp.minioplus.common.enums.MinioPlusErrorCode;
+import org.liuxp.minioplus.common.exception.MinioPlusException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 远程文件分段并发下载
+ * 源站支持Range请求时，按分块大小切分后并发下载，按位置写入本地文件
+ * 使用HEAD返回的强ETag作为If-Range条件，下载过程中源文件发生变化时服务端返回完整内容，改为按流式下载，不会拼出错误的文件
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+@Slf4j
+@Component
+public class ParallelRangeFetcher implements DisposableBean {
+
+    /**
+     * 写入本地文件时的缓冲区大小
+     */
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final MinioPlusProperties properties;
+
+    /**
+     * 分段下载线程池，所有下载任务共用
+     */
+    private final ExecutorService executor;
+
+    public ParallelRangeFetcher(MinioPlusProperties properties) {
+        this.properties = properties;
+
+        int threads = Math.max(1, properties.getPart().getFetchThreads());
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor threadPool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "minioplus-fetch-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        threadPool.allowCoreThreadTimeOut(true);
+        this.executor = threadPool;
+    }
+
+    /**
+     * 分段并发下载到本地文件
+     *
+     * @param url    文件地址
+     * @param target 本地文件
+     * @return 是否已下载，源站不支持Range请求、只返回弱ETag、文件不大于一个分块，或分段请求返回完整内容时返回false，由调用方按流式处理
+     */
+    public boolean fetch(String url, Path target) {
+
+        long contentLength;
+        String etag;
+        try (HttpResponse head = HttpUtil.createRequest(Method.HEAD, url).execute()) {
+            if (!head.isOk() || !"bytes".equalsIgnoreCase(head.header("Accept-Ranges"))) {
+                return false;
+            }
+            contentLength = head.contentLength();
+            etag = head.header(Header.ETAG);
+        } catch (Exception e) {
+            // HEAD不可用时按流式处理
+            log.debug("HEAD请求失败，按流式下载:{}", e.getMessage());
+            return false;
+        }
+
+        if (etag != null && etag.startsWith("W/")) {
+            // 弱ETag作为If-Range条件时，服务端必须忽略Range返回完整内容
+            return false;
+        }
+
+        long rangeSize = properties.getPart().getSize();
+        if (contentLength <= rangeSize) {
+            return false;
+        }
+
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            // 各工作任务依次领取分段，一个分段失败后其余任务不再领取新的分段
+            long rangeCount = (contentLength + rangeSize - 1) / rangeSize;
+            int parallelism = (int) Math.min(Math.max(1, properties.getPart().getFetchThreads()), rangeCount);
+            AtomicLong nextRange = new AtomicLong();
+            AtomicBoolean stopped = new AtomicBoolean();
+            AtomicBoolean rangeIgnored = new AtomicBoolean();
+
+            List<CompletableFuture<Void>> futures = new ArrayList<>(parallelism);
+            for (int i = 0; i < parallelism; i++) {
+                futures.add(CompletableFuture.runAsync(() -> {
+                    long range;
+                    while (!stopped.get() && (range = nextRange.getAndIncrement()) < rangeCount) {
+                        long start = range * rangeSize;
+                        try {
+                            if (!fetchRange(url, etag, channel, start, Math.min(start + rangeSize, contentLength) - 1)) {
+                                rangeIgnored.set(true);
+                                stopped.set(true);
+                            }
+                        } catch (RuntimeException e) {
+                            stopped.set(true);
+                            throw e;
+                        }
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+            if (rangeIgnored.get()) {
+                // 源文件已变化或源站忽略了Range请求，由调用方重新按流式下载
+                log.debug("分段请求返回完整内容，按流式下载:{}", url);
+                return false;
+            }
+            return true;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof MinioPlusException) {
+                throw (MinioPlusException) e.getCause();
+            }
+            log.error("{}:{}", MinioPlusErrorCode.FILE_UPLOAD_FAILED.getMessage(), e.getMessage(), e);
+            throw new MinioPlusException(MinioPlusErrorCode.FILE_UPLOAD_FAILED);
+        } catch (IOException e) {
+            log.error("{}:{}", MinioPlusErrorCode.FILE_UPLOAD_FAILED.getMessage(), e.getMessage(), e);
+            throw new MinioPlusException(MinioPlusErrorCode.FILE_UPLOAD_FAILED);
+        }
+    }
+
+    /**
+     * 下载一段数据，写入本地文件的对应位置
+     * 失败时按配置的次数重试，从已写入的位置继续下载
+     *
+     * @return 是否按分段写入，服务端返回200和完整内容时返回false
+     */
+    private boolean fetchRange(String url, String etag, FileChannel channel, long start, long end) {
+        int retries = Math.max(0, properties.getPart().getFetchRetries());
+        long position = start;
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+
+        for (int attempt = 0; ; attempt++) {
+            HttpRequest request = HttpUtil.createGet(url).header("Range", "bytes=" + position + "-" + end);
+            if (CharSequenceUtil.isNotBlank(etag)) {
+                request.header("If-Range", etag);
+            }
+
+            try (HttpResponse response = request.executeAsync(); InputStream inputStream = response.bodyStream()) {
+                // 源文件变化或不支持Range时服务端返回200和完整内容，此时不能按分段写入
+                if (response.getStatus() == HttpStatus.HTTP_OK) {
+                    return false;
+                }
+                if (response.getStatus() != HttpStatus.HTTP_PARTIAL) {
+                    throw new IOException("分段下载响应状态" + response.getStatus());
+                }
+
+                int read;
+                while (position <= end && (read = inputStream.read(buffer)) >= 0) {
+                    ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, read);
+                    while (byteBuffer.hasRemaining()) {
+                        position += channel.write(byteBuffer, position);
+                    }
+                }
+                if (position != end + 1) {
+                    throw new IOException("分段长度不一致，应为" + (end - start + 1) + "，实际为" + (position - start));
+                }
+                return true;
+            } catch (IOException | HttpException e) {
+                if (attempt >= retries || Thread.currentThread().isInterrupted()) {
+                    log.error("{}:{}", MinioPlusErrorCode.FILE_UPLOAD_FAILED.getMessage(), e.getMessage(), e);
+                    throw new MinioPlusException(MinioPlusErrorCode.FILE_UPLOAD_FAILED);
+                }
+                log.warn("分段下载失败，第{}次重试，url:{}，position:{}", attempt + 1, url, position);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+}
@@ -0,0 +1,162 @@
+package org.liuxp.minioplus.core.upload;
+
+import org.liuxp.minioplus.common.config.MinioPlusProperties;
+import org.liuxp.minioplus.common.enums.MinioPlusErrorCode;
+import org.liuxp.minioplus.common.exception.MinioPlusException;
+import org.springframework.stereotype.Component;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 分片缓冲区池
+ * 服务端分片上传复用固定大小的缓冲区，避免每个分片都分配新的大数组
+ * 所有上传任务同时持有的缓冲区总字节数不超过上限，超过时等待其他分片释放，等待超时后拒绝本次上传
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+@Component
+public class PartBufferPool {
+
+    /**
+     * 缓冲区大小，与分块大小一致
+     */
+    private final int bufferSize;
+
+    /**
+     * 缓冲区数量上限
+     */
+    private final int maxBuffers;
+
+    /**
+     * 取得缓冲区的最长等待时间，单位为毫秒，0表示一直等待
+     */
+    private final long acquireTimeout;
+
+    /**
+     * 剩余可借出的缓冲区数量
+     */
+    private final Semaphore permits;
+
+    /**
+     * 空闲的缓冲区
+     */
+    private final Queue<byte[]> idleBuffers = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 借出次数
+     */
+    private final LongAdder acquireCount = new LongAdder();
+
+    /**
+     * 借出时的累计等待时长，单位为纳秒
+     */
+    private final LongAdder waitNanos = new LongAdder();
+
+    /**
+     * 等待超时被拒绝的次数
+     */
+    private final LongAdder rejectCount = new LongAdder();
+
+    public PartBufferPool(MinioPlusProperties properties) {
+        MinioPlusProperties.Part config = properties.getPart();
+        this.bufferSize = config.getSize();
+        this.maxBuffers = (int) Math.max(1L, config.getBufferMaxBytes() / bufferSize);
+        this.acquireTimeout = config.getBufferAcquireTimeout();
+        this.permits = new Semaphore(maxBuffers, true);
+    }
+
+    /**
+     * 借出一个缓冲区，缓冲区总量达到上限时等待
+     *
+     * @return 缓冲区，长度为分块大小
+     */
+    public byte[] acquire() throws InterruptedException {
+        long start = System.nanoTime();
+        if (acquireTimeout > 0) {
+            if (!permits.tryAcquire(acquireTimeout, TimeUnit.MILLISECONDS)) {
+                waitNanos.add(System.nanoTime() - start);
+                rejectCount.increment();
+                throw new MinioPlusException(MinioPlusErrorCode.UPLOAD_BUSY);
+            }
+        } else {
+            permits.acquire();
+        }
+        waitNanos.add(System.nanoTime() - start);
+        acquireCount.increment();
+
+        byte[] buffer = idleBuffers.poll();
+        return buffer != null ? buffer : new byte[bufferSize];
+    }
+
+    /**
+     * 归还缓冲区
+     *
+     * @param buffer 借出的缓冲区
+     */
+    public void release(byte[] buffer) {
+        idleBuffers.offer(buffer);
+        permits.release();
+    }
+
+    /**
+     * 缓冲区大小
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * 缓冲区数量上限
+     */
+    public int getMaxBuffers() {
+        return maxBuffers;
+    }
+
+    /**
+     * 当前借出的缓冲区数量
+     */
+    public int getBorrowedCount() {
+        return maxBuffers - permits.availablePermits();
+    }
+
+    /**
+     * 当前空闲的缓冲区数量
+     */
+    public int getIdleCount() {
+        return idleBuffers.size();
+    }
+
+    /**
+     * 等待缓冲区的线程数量
+     */
+    public int getWaitingCount() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * 借出次数
+     */
+    public long getAcquireCount() {
+        return acquireCount.sum();
+    }
+
+    /**
+     * 借出时的累计等待时长，单位为毫秒
+     */
+    public long getWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(waitNanos.sum());
+    }
+
+    /**
+     * 等待超时被拒绝的次数
+     */
+    public long getRejectCount() {
+        return rejectCount.sum();
+    }
+
+}
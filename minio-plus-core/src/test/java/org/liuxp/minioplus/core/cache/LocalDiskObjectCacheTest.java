@@ -0,0 +1,124 @@
+package org.liuxp.minioplus.core.cache;
+
+import cn.hutool.core.io.IoUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.liuxp.minioplus.api.model.vo.FileMetadataInfoVo;
+import org.liuxp.minioplus.common.config.MinioPlusProperties;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 本地磁盘读缓存测试
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+class LocalDiskObjectCacheTest {
+
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void getIfPresentReadsCachedFile() {
+        LocalDiskObjectCache cache = cache();
+        FileMetadataInfoVo metadata = metadata();
+
+        assertNull(cache.getIfPresent(metadata));
+        cache.put(metadata, CONTENT);
+
+        assertArrayEquals(CONTENT, cache.getIfPresent(metadata));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(CONTENT.length, cache.getSavedBytes());
+    }
+
+    @Test
+    void openStreamReadsCachedRange() throws Exception {
+        LocalDiskObjectCache cache = cache();
+        FileMetadataInfoVo metadata = metadata();
+        cache.put(metadata, CONTENT);
+
+        try (InputStream inputStream = cache.openStream(metadata, 2, 4, () -> {
+            throw new IllegalStateException("loader should not be called");
+        })) {
+            assertArrayEquals("2345".getBytes(StandardCharsets.US_ASCII), IoUtil.readBytes(inputStream));
+        }
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    void readFailureKeepsEntry() throws Exception {
+        LocalDiskObjectCache cache = cache();
+        FileMetadataInfoVo metadata = metadata();
+        cache.put(metadata, CONTENT);
+
+        // 缓存文件暂时无法读取
+        Path path = directory.resolve("document").resolve("2026/10").resolve(metadata.getFileMd5());
+        Files.delete(path);
+        Files.createDirectory(path);
+
+        assertNull(cache.getIfPresent(metadata));
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void mapFailureKeepsEntry() throws Exception {
+        LocalDiskObjectCache cache = cache();
+        FileMetadataInfoVo metadata = metadata();
+        cache.put(metadata, CONTENT);
+
+        // 缓存文件暂时无法映射，改为调用读取方法
+        Path path = directory.resolve("document").resolve("2026/10").resolve(metadata.getFileMd5());
+        Files.delete(path);
+        Files.createDirectory(path);
+
+        try (InputStream inputStream = cache.openStream(metadata, 2, 4, () -> new ByteArrayInputStream("2345".getBytes(StandardCharsets.US_ASCII)))) {
+            assertArrayEquals("2345".getBytes(StandardCharsets.US_ASCII), IoUtil.readBytes(inputStream));
+        }
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void truncatedFileIsRemoved() throws Exception {
+        LocalDiskObjectCache cache = cache();
+        FileMetadataInfoVo metadata = metadata();
+        cache.put(metadata, CONTENT);
+
+        Path path = directory.resolve("document").resolve("2026/10").resolve(metadata.getFileMd5());
+        Files.write(path, new byte[3]);
+
+        assertNull(cache.getIfPresent(metadata));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getTotalBytes());
+    }
+
+    private LocalDiskObjectCache cache() {
+        MinioPlusProperties properties = new MinioPlusProperties();
+        properties.getDiskCache().setEnable(true);
+        properties.getDiskCache().setDirectory(directory.toString());
+        return new LocalDiskObjectCache(properties);
+    }
+
+    private static FileMetadataInfoVo metadata() {
+        FileMetadataInfoVo metadata = new FileMetadataInfoVo();
+        metadata.setStorageBucket("document");
+        metadata.setStoragePath("2026/10");
+        metadata.setFileMd5("0123456789abcdef0123456789abcdef");
+        metadata.setFileSize((long) CONTENT.length);
+        return metadata;
+    }
+
+}
@@ -0,0 +1,123 @@
+package org.liuxp.minioplus.core.cache;
+
+import org.junit.jupiter.api.Test;
+import org.liuxp.minioplus.common.config.MinioPlusProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 小文件内存缓存测试
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+class SmallObjectCacheTest {
+
+    private static final int THRESHOLD = 1024;
+
+    private static final long MAX_BYTES = 100 * 1024L;
+
+    @Test
+    void hotEntriesSurviveOneOffScan() {
+        SmallObjectCache cache = cache(true);
+
+        // 热点文件多次访问
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                cache.get("hot-" + i, THRESHOLD, () -> new byte[THRESHOLD]);
+            }
+        }
+        // 一次性读取远超缓存容量的文件
+        for (int i = 0; i < 1000; i++) {
+            cache.get("scan-" + i, THRESHOLD, () -> new byte[THRESHOLD]);
+        }
+
+        for (int i = 0; i < 50; i++) {
+            assertNotNull(cache.get("hot-" + i), "hot-" + i);
+        }
+    }
+
+    @Test
+    void boundedByTotalBytes() {
+        SmallObjectCache cache = cache(true);
+
+        for (int i = 0; i < 1000; i++) {
+            cache.put("file-" + i, new byte[THRESHOLD]);
+        }
+
+        assertTrue(cache.getTotalBytes() <= MAX_BYTES, "totalBytes=" + cache.getTotalBytes());
+        assertTrue(cache.getEvictionCount() > 0);
+    }
+
+    @Test
+    void sameMd5SharesOneEntry() {
+        SmallObjectCache cache = cache(true);
+        AtomicInteger loads = new AtomicInteger();
+
+        byte[] first = cache.get("same", 3, () -> {
+            loads.incrementAndGet();
+            return new byte[]{1, 2, 3};
+        });
+        byte[] second = cache.get("same", 3, () -> {
+            loads.incrementAndGet();
+            return new byte[]{4, 5, 6};
+        });
+
+        assertEquals(1, loads.get());
+        assertArrayEquals(first, second);
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void largerThanThresholdIsNotCached() {
+        SmallObjectCache cache = cache(true);
+
+        assertFalse(cache.isCacheable(THRESHOLD + 1));
+        cache.put("large", new byte[THRESHOLD + 1]);
+        assertNull(cache.get("large"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void returnsCopyOfCachedBytes() {
+        SmallObjectCache cache = cache(true);
+        byte[] fileBytes = {1, 2, 3};
+        cache.put("copy", fileBytes);
+
+        fileBytes[0] = 9;
+        byte[] cached = cache.get("copy");
+        cached[1] = 9;
+
+        assertArrayEquals(new byte[]{1, 2, 3}, cache.get("copy"));
+    }
+
+    @Test
+    void disabledCacheAlwaysLoads() {
+        SmallObjectCache cache = cache(false);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("file", 3, () -> new byte[loads.incrementAndGet()]);
+        cache.get("file", 3, () -> new byte[loads.incrementAndGet()]);
+
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.size());
+    }
+
+    private static SmallObjectCache cache(boolean enable) {
+        MinioPlusProperties properties = new MinioPlusProperties();
+        properties.getMemoryCache().setEnable(enable);
+        properties.getMemoryCache().setThreshold(THRESHOLD);
+        properties.getMemoryCache().setMaxBytes(MAX_BYTES);
+        return new SmallObjectCache(properties);
+    }
+
+}
@@ -0,0 +1,93 @@
+package org.liuxp.minioplus.core.common.utils;
+
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.util.ZipUtil;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 限制读取长度的输入流测试
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+class BoundedInputStreamTest {
+
+    private static final byte[] DATA = data(200_000);
+
+    @Test
+    void stopsAtLimit() throws IOException {
+        try (InputStream inputStream = new BoundedInputStream(new ByteArrayInputStream(DATA), 10)) {
+            assertEquals(DATA[0] & 0xFF, inputStream.read());
+            byte[] buffer = new byte[100];
+            assertEquals(9, inputStream.read(buffer, 0, buffer.length));
+            assertArrayEquals(Arrays.copyOfRange(DATA, 1, 10), Arrays.copyOf(buffer, 9));
+            assertEquals(-1, inputStream.read());
+            assertEquals(-1, inputStream.read(buffer, 0, buffer.length));
+        }
+    }
+
+    @Test
+    void skipAndAvailableRespectLimit() throws IOException {
+        try (InputStream inputStream = new BoundedInputStream(new ByteArrayInputStream(DATA), 10)) {
+            assertEquals(10, inputStream.available());
+            assertEquals(4, inputStream.skip(4));
+            assertEquals(6, inputStream.available());
+            assertEquals(6, inputStream.skip(100));
+            assertEquals(0, inputStream.available());
+            assertEquals(-1, inputStream.read());
+        }
+    }
+
+    @Test
+    void closesSource() throws IOException {
+        boolean[] closed = {false};
+        InputStream source = new ByteArrayInputStream(DATA) {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        new BoundedInputStream(source, 10).close();
+        assertTrue(closed[0]);
+    }
+
+    @Test
+    void rangeOfGzipStream() throws IOException {
+        byte[] compressed = ZipUtil.gzip(DATA);
+        long[][] ranges = {{0, 1}, {0, DATA.length}, {1, 100}, {65_535, 70_000}, {DATA.length - 1, 1}, {DATA.length, 0}};
+        for (long[] range : ranges) {
+            int offset = (int) range[0];
+            int length = (int) range[1];
+            InputStream gzipStream = new GZIPInputStream(new ByteArrayInputStream(compressed), 8192);
+            try (InputStream inputStream = BoundedInputStream.range(gzipStream, offset, length)) {
+                assertArrayEquals(Arrays.copyOfRange(DATA, offset, offset + length), IoUtil.readBytes(inputStream, false),
+                        "offset=" + offset + ",length=" + length);
+            }
+        }
+    }
+
+    @Test
+    void rangeBeyondEndFails() throws IOException {
+        InputStream gzipStream = new GZIPInputStream(new ByteArrayInputStream(ZipUtil.gzip(DATA)), 8192);
+        assertThrows(IOException.class, () -> BoundedInputStream.range(gzipStream, DATA.length + 1L, 1));
+    }
+
+    private static byte[] data(int size) {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return data;
+    }
+
+}
@@ -0,0 +1,90 @@
+package org.liuxp.minioplus.core.common.utils;
+
+import cn.hutool.core.text.CharSequenceUtil;
+import org.liuxp.minioplus.s3.def.ListParts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 合并分片时分块校验的基准测试
+ * 对比按块号索引的一次遍历和原有的嵌套循环，运行main方法执行
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PartCheckBenchmark {
+
+    @Param({"1000", "5000", "10000"})
+    private int chunkNum;
+
+    private List<ListParts.Part> partList;
+
+    private List<String> partMd5List;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(chunkNum);
+        ListParts listParts = ListParts.build();
+        partMd5List = new ArrayList<>(chunkNum);
+        for (int i = 1; i <= chunkNum; i++) {
+            String md5 = String.format("%032x", random.nextLong());
+            partMd5List.add(md5);
+            // S3返回的ETag带引号
+            listParts.addPart(i, "\"" + md5 + "\"", null, 0L);
+        }
+        // S3不保证按块号返回，打乱顺序
+        partList = listParts.getPartList();
+        Collections.shuffle(partList, random);
+    }
+
+    @Benchmark
+    public List<Integer> indexed() {
+        return PartCheckUtil.findMissingParts(partList, partMd5List);
+    }
+
+    @Benchmark
+    public List<Integer> nestedLoop() {
+        List<Integer> missingNumbers = new ArrayList<>();
+        for (int i = 1; i <= chunkNum; i++) {
+            boolean findPart = false;
+            for (ListParts.Part part : partList) {
+                if (part.getPartNumber() == i && CharSequenceUtil.equalsIgnoreCase(CharSequenceUtil.strip(part.getEtag(), "\""), partMd5List.get(i - 1))) {
+                    findPart = true;
+                }
+            }
+            if (!findPart) {
+                missingNumbers.add(i);
+            }
+        }
+        return missingNumbers;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PartCheckBenchmark.class.getSimpleName()).build()).run();
+    }
+
+}
@@ -0,0 +1,243 @@
+package org.liuxp.minioplus.core.filter;
+
+import cn.hutool.crypto.SecureUtil;
+import org.junit.jupiter.api.Test;
+import org.liuxp.minioplus.api.model.dto.FileMetadataInfoDTO;
+import org.liuxp.minioplus.api.model.dto.FileMetadataInfoSaveDTO;
+import org.liuxp.minioplus.api.model.dto.FileMetadataInfoUpdateDTO;
+import org.liuxp.minioplus.api.model.vo.FileMetadataInfoVo;
+import org.liuxp.minioplus.common.config.MinioPlusProperties;
+import org.liuxp.minioplus.core.repository.MetadataRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 基于布隆过滤器的文件MD5存在性过滤器测试
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+class BloomFileMd5FilterTest {
+
+    @Test
+    void loadsAllPagesWithoutFalseNegatives() {
+        PagingRepository repository = new PagingRepository();
+        for (int i = 0; i < 2500; i++) {
+            repository.add(md5("stored-" + i));
+        }
+        BloomFileMd5Filter filter = filter(repository, true, true);
+
+        // 每页1000条，2500条分3页加载
+        assertEquals(3, repository.pageCount);
+        for (int i = 0; i < 2500; i++) {
+            assertTrue(filter.mightContain(md5("stored-" + i)));
+        }
+    }
+
+    @Test
+    void skipsMostAbsentMd5() {
+        PagingRepository repository = new PagingRepository();
+        for (int i = 0; i < 2500; i++) {
+            repository.add(md5("stored-" + i));
+        }
+        BloomFileMd5Filter filter = filter(repository, true, true);
+
+        int skipped = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (!filter.mightContain(md5("absent-" + i))) {
+                skipped++;
+            }
+        }
+        // 预期误判率为1%
+        assertTrue(skipped > 950, "skipped=" + skipped);
+        assertEquals(skipped, filter.getSkipCount());
+    }
+
+    @Test
+    void putMakesMd5Visible() {
+        BloomFileMd5Filter filter = filter(new PagingRepository(), true, false);
+        String fileMd5 = md5("new");
+
+        assertFalse(filter.mightContain(fileMd5));
+        filter.put(fileMd5);
+        assertTrue(filter.mightContain(fileMd5));
+    }
+
+    @Test
+    void catchesUpOnMissWithMd5AddedByOtherInstance() {
+        PagingRepository repository = new PagingRepository();
+        repository.add(md5("stored"));
+        BloomFileMd5Filter filter = filter(repository, true, true);
+        int pageCount = repository.pageCount;
+
+        // 其他实例新增的元数据
+        String fileMd5 = md5("other-instance");
+        repository.add(fileMd5);
+
+        assertTrue(filter.mightContain(fileMd5));
+        // 从上次加载的最大主键之后增量加载一页
+        assertEquals(pageCount + 1, repository.pageCount);
+        assertEquals(repository.rows.get(0).getId(), repository.lastIdQueried);
+        assertFalse(filter.mightContain(md5("absent")));
+    }
+
+    @Test
+    void defaultMissDoesNotQueryRepository() {
+        PagingRepository repository = new PagingRepository();
+        repository.add(md5("stored"));
+        MinioPlusProperties properties = new MinioPlusProperties();
+        properties.getMd5Filter().setEnable(true);
+        properties.getMd5Filter().setRefreshInterval(0L);
+        BloomFileMd5Filter filter = new BloomFileMd5Filter(repository, properties);
+        filter.afterPropertiesSet();
+        int pageCount = repository.pageCount;
+
+        assertFalse(filter.mightContain(md5("absent")));
+        assertEquals(pageCount, repository.pageCount);
+    }
+
+    @Test
+    void refreshPicksUpRowsCommittedOutOfIdOrder() {
+        PagingRepository repository = new PagingRepository();
+        repository.add(md5("row-1"), 1L);
+        repository.add(md5("row-2"), 2L);
+        repository.add(md5("row-4"), 4L);
+        BloomFileMd5Filter filter = filter(repository, true, false);
+
+        // 主键为3的事务晚于主键为4的事务提交
+        String fileMd5 = md5("row-3");
+        repository.add(fileMd5, 3L);
+        String newMd5 = md5("row-5");
+        repository.add(newMd5, 5L);
+        assertFalse(filter.mightContain(fileMd5));
+
+        filter.refresh();
+
+        assertTrue(filter.mightContain(fileMd5));
+        assertTrue(filter.mightContain(newMd5));
+        // 下次从已加载的最大主键往回扫描
+        filter.refresh();
+        assertEquals(Long.valueOf(0L), repository.lastIdQueried);
+    }
+
+    @Test
+    void withoutSyncOnMissTrustsLocalState() {
+        PagingRepository repository = new PagingRepository();
+        BloomFileMd5Filter filter = filter(repository, true, false);
+        String fileMd5 = md5("other-instance");
+        repository.add(fileMd5);
+
+        assertFalse(filter.mightContain(fileMd5));
+    }
+
+    @Test
+    void missIsNotTrustedWhenRepositoryCannotPage() {
+        DefaultRepository repository = new DefaultRepository();
+        repository.add(md5("stored"));
+        BloomFileMd5Filter filter = filter(repository, true, true);
+
+        assertTrue(filter.mightContain(md5("stored")));
+        assertTrue(filter.mightContain(md5("absent")));
+        assertEquals(0, filter.getSkipCount());
+    }
+
+    @Test
+    void disabledFilterAlwaysMightContain() {
+        PagingRepository repository = new PagingRepository();
+        BloomFileMd5Filter filter = filter(repository, false, true);
+
+        assertTrue(filter.mightContain(md5("absent")));
+        assertEquals(0, repository.pageCount);
+    }
+
+    private static BloomFileMd5Filter filter(MetadataRepository repository, boolean enable, boolean syncOnMiss) {
+        MinioPlusProperties properties = new MinioPlusProperties();
+        properties.getMd5Filter().setEnable(enable);
+        properties.getMd5Filter().setSyncOnMiss(syncOnMiss);
+        properties.getMd5Filter().setExpectedInsertions(10000L);
+        // 测试中手动调用refresh
+        properties.getMd5Filter().setRefreshInterval(0L);
+        BloomFileMd5Filter filter = new BloomFileMd5Filter(repository, properties);
+        filter.afterPropertiesSet();
+        return filter;
+    }
+
+    private static String md5(String value) {
+        return SecureUtil.md5(value);
+    }
+
+    /**
+     * 未实现分页查询的元数据仓库
+     */
+    static class DefaultRepository implements MetadataRepository {
+
+        final List<FileMetadataInfoVo> rows = new ArrayList<>();
+
+        void add(String fileMd5) {
+            this.add(fileMd5, (long) rows.size() + 1);
+        }
+
+        void add(String fileMd5, long id) {
+            FileMetadataInfoVo metadata = new FileMetadataInfoVo();
+            metadata.setId(id);
+            metadata.setFileMd5(fileMd5);
+            rows.add(metadata);
+        }
+
+        @Override
+        public List<FileMetadataInfoVo> list(FileMetadataInfoDTO searchDTO) {
+            return new ArrayList<>(rows);
+        }
+
+        @Override
+        public FileMetadataInfoVo one(FileMetadataInfoDTO searchDTO) {
+            return null;
+        }
+
+        @Override
+        public FileMetadataInfoVo save(FileMetadataInfoSaveDTO saveDTO) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FileMetadataInfoVo update(FileMetadataInfoUpdateDTO updateDTO) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Boolean remove(Long id) {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+    /**
+     * 按主键分页查询的元数据仓库
+     */
+    static class PagingRepository extends DefaultRepository {
+
+        int pageCount;
+
+        Long lastIdQueried;
+
+        @Override
+        public List<FileMetadataInfoVo> listAfter(FileMetadataInfoDTO searchDTO, Long lastId, int limit) {
+            pageCount++;
+            lastIdQueried = lastId;
+            return rows.stream()
+                    .filter(metadata -> lastId == null || metadata.getId() > lastId)
+                    .sorted(Comparator.comparing(FileMetadataInfoVo::getId))
+                    .limit(limit)
+                    .collect(Collectors.toList());
+        }
+
+    }
+
+}
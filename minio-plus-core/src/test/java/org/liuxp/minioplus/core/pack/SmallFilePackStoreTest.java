@@ -0,0 +1,266 @@
+package org.liuxp.minioplus.core.pack;
+
+import cn.hutool.core.io.IoUtil;
+import org.junit.jupiter.api.Test;
+import org.liuxp.minioplus.api.model.dto.FileMetadataInfoDTO;
+import org.liuxp.minioplus.api.model.dto.FileMetadataInfoSaveDTO;
+import org.liuxp.minioplus.api.model.dto.FileMetadataInfoUpdateDTO;
+import org.liuxp.minioplus.api.model.vo.FileMetadataInfoVo;
+import org.liuxp.minioplus.common.config.MinioPlusProperties;
+import org.liuxp.minioplus.common.exception.MinioPlusException;
+import org.liuxp.minioplus.core.repository.MetadataRepository;
+import org.liuxp.minioplus.s3.def.MinioS3Client;
+import org.liuxp.minioplus.s3.def.ObjectItem;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 小文件打包存储整理测试
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+class SmallFilePackStoreTest {
+
+    private static final String BUCKET = "document";
+
+    @Test
+    void compactRemovesPackWithoutLiveFiles() {
+        MemoryStorage storage = new MemoryStorage();
+        MemoryRepository repository = new MemoryRepository(true);
+        SmallFilePackStore packStore = packStore(storage, repository, 0L);
+
+        packStore.append(BUCKET, bytes("orphan"));
+        packStore.compact();
+
+        assertTrue(storage.objects.isEmpty());
+    }
+
+    @Test
+    void compactKeepsPackWithinGracePeriod() {
+        MemoryStorage storage = new MemoryStorage();
+        MemoryRepository repository = new MemoryRepository(true);
+        SmallFilePackStore packStore = packStore(storage, repository, 60L);
+
+        // 打包对象已写入，元数据还没有保存
+        String packObject = packStore.append(BUCKET, bytes("pending")).getPackObject();
+        packStore.compact();
+
+        assertTrue(storage.objects.containsKey(packObject));
+    }
+
+    @Test
+    void compactRewritesSparsePack() {
+        MemoryStorage storage = new MemoryStorage();
+        MemoryRepository repository = new MemoryRepository(true);
+        SmallFilePackStore packStore = packStore(storage, repository, 0L);
+
+        String packObject = appendAll(packStore, repository, "first", "second", "third");
+        repository.rows.remove(0);
+        repository.rows.remove(1);
+        packStore.compact();
+
+        FileMetadataInfoVo live = repository.rows.get(0);
+        assertNotEquals(packObject, live.getPackObject());
+        assertEquals(1, storage.objects.size());
+        assertArrayEquals(bytes("second"), packStore.read(live));
+    }
+
+    @Test
+    void rewriteStopsWhenUpdateIsNotPersisted() {
+        MemoryStorage storage = new MemoryStorage();
+        MemoryRepository repository = new MemoryRepository(false);
+        SmallFilePackStore packStore = packStore(storage, repository, 0L);
+
+        String packObject = appendAll(packStore, repository, "first", "second", "third");
+        repository.rows.remove(0);
+        repository.rows.remove(1);
+        packStore.compact();
+
+        // 更新轮数用尽后保留原打包对象，删除没有引用的新打包对象
+        assertEquals(3, repository.updateCount);
+        assertEquals(Arrays.asList(packObject), new ArrayList<>(storage.objects.keySet()));
+        assertArrayEquals(bytes("second"), packStore.read(repository.rows.get(0)));
+    }
+
+    @Test
+    void rewriteRemovesNewPackWhenReadFails() {
+        MemoryStorage storage = new MemoryStorage();
+        MemoryRepository repository = new MemoryRepository(true);
+        MinioPlusProperties properties = properties(0L);
+        // 每个有效文件单独写入一个新的打包对象
+        properties.getPack().setSize(1);
+        SmallFilePackStore packStore = new SmallFilePackStore(properties, storage.client(), repository);
+
+        String sparsePack = appendAll(packStore, repository, "other");
+        repository.rows.get(0).setFileSize(1L);
+        String brokenPack = appendAll(packStore, repository, "first", "second", "third");
+        repository.rows.remove(3);
+        repository.rows.remove(1);
+        // 元数据记录的位置超出打包对象长度，读取失败
+        repository.rows.get(1).setPackOffset(1024L);
+        repository.rows.get(1).setFileSize(1L);
+
+        assertThrows(MinioPlusException.class, packStore::compact);
+        assertEquals(Arrays.asList(sparsePack, brokenPack), new ArrayList<>(storage.objects.keySet()));
+    }
+
+    private static SmallFilePackStore packStore(MemoryStorage storage, MemoryRepository repository, long gracePeriod) {
+        return new SmallFilePackStore(properties(gracePeriod), storage.client(), repository);
+    }
+
+    private static MinioPlusProperties properties(long gracePeriod) {
+        MinioPlusProperties properties = new MinioPlusProperties();
+        properties.getPack().setEnable(true);
+        // 每次追加立即写入
+        properties.getPack().setMaxDelay(0L);
+        properties.getPack().setCompactGracePeriod(gracePeriod);
+        return properties;
+    }
+
+    /**
+     * 在同一个打包对象中追加文件并保存元数据
+     */
+    private static String appendAll(SmallFilePackStore packStore, MemoryRepository repository, String... contents) {
+        StringBuilder joined = new StringBuilder();
+        for (String content : contents) {
+            joined.append(content);
+        }
+        String packObject = packStore.append(BUCKET, bytes(joined.toString())).getPackObject();
+        long offset = 0;
+        for (String content : contents) {
+            FileMetadataInfoVo metadata = new FileMetadataInfoVo();
+            metadata.setId(++repository.lastId);
+            metadata.setStorageBucket(BUCKET);
+            metadata.setIsPacked(true);
+            metadata.setPackObject(packObject);
+            metadata.setPackOffset(offset);
+            metadata.setFileSize((long) content.length());
+            repository.rows.add(metadata);
+            offset += content.length();
+        }
+        return packObject;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 内存中的对象存储
+     */
+    static class MemoryStorage {
+
+        final Map<String, byte[]> objects = new LinkedHashMap<>();
+
+        final Map<String, ZonedDateTime> modified = new LinkedHashMap<>();
+
+        MinioS3Client client() {
+            return (MinioS3Client) Proxy.newProxyInstance(MinioS3Client.class.getClassLoader(), new Class<?>[]{MinioS3Client.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "bucketExists":
+                        // 只有一个桶，对象名称不区分桶
+                        return BUCKET.equals(args[0]);
+                    case "putObject":
+                        objects.put((String) args[1], IoUtil.readBytes((InputStream) args[2]));
+                        modified.put((String) args[1], ZonedDateTime.now());
+                        return true;
+                    case "getObject":
+                        byte[] content = objects.get((String) args[1]);
+                        int offset = (int) (long) args[2];
+                        return Arrays.copyOfRange(content, offset, offset + (int) (long) args[3]);
+                    case "getObjectStream":
+                        return new ByteArrayInputStream(objects.get((String) args[1]));
+                    case "listObjects":
+                        List<ObjectItem> items = new ArrayList<>();
+                        objects.forEach((name, value) -> {
+                            if (name.startsWith((String) args[1])) {
+                                items.add(new ObjectItem(name, value.length, modified.get(name)));
+                            }
+                        });
+                        return items;
+                    case "removeObject":
+                        objects.remove((String) args[1]);
+                        modified.remove((String) args[1]);
+                        return null;
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+        }
+
+    }
+
+    /**
+     * 内存中的元数据仓库，可以模拟不保存打包对象名称和位置的实现
+     */
+    static class MemoryRepository implements MetadataRepository {
+
+        final List<FileMetadataInfoVo> rows = new ArrayList<>();
+
+        final boolean persistPackLocation;
+
+        int updateCount;
+
+        long lastId;
+
+        MemoryRepository(boolean persistPackLocation) {
+            this.persistPackLocation = persistPackLocation;
+        }
+
+        @Override
+        public List<FileMetadataInfoVo> list(FileMetadataInfoDTO searchDTO) {
+            return rows.stream()
+                    .filter(metadata -> searchDTO.getPackObject() == null || searchDTO.getPackObject().equals(metadata.getPackObject()))
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public FileMetadataInfoVo one(FileMetadataInfoDTO searchDTO) {
+            return null;
+        }
+
+        @Override
+        public FileMetadataInfoVo save(FileMetadataInfoSaveDTO saveDTO) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FileMetadataInfoVo update(FileMetadataInfoUpdateDTO updateDTO) {
+            updateCount++;
+            for (FileMetadataInfoVo metadata : rows) {
+                if (metadata.getId().equals(updateDTO.getId())) {
+                    if (persistPackLocation) {
+                        metadata.setPackObject(updateDTO.getPackObject());
+                        metadata.setPackOffset(updateDTO.getPackOffset());
+                    }
+                    return metadata;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Boolean remove(Long id) {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+}
@@ -3,6 +3,7 @@ package org.liuxp.minioplus.extension.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.liuxp.minioplus.api.model.vo.FileCheckResultVo;
+import org.liuxp.minioplus.api.model.vo.FilePartPageVo;
 import org.liuxp.minioplus.api.model.vo.FilePreShardingVo;
 import org.liuxp.minioplus.extension.context.Response;
 import org.liuxp.minioplus.extension.dto.FileCheckDTO;
@@ -10,6 +11,7 @@ import org.liuxp.minioplus.extension.dto.FileCompleteDTO;
 import org.liuxp.minioplus.extension.dto.PreShardingDTO;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.ModelAndView;
 
 /**
  * 对象存储标准接口定义
@@ -55,6 +57,21 @@ public interface StorageWebAPI {
     @ResponseBody
     Response<FileCheckResultVo> init(@RequestBody @Validated FileCheckDTO fileCheckDTO);
 
+    /**
+     * 取得下一页分块上传链接
+     * 开启分页下发时，前端上传完当前页后使用返回的nextPartNumber继续获取链接
+     *
+     * @param fileKey    文件KEY
+     * @param partNumber 起始块号
+     * @param compact    是否返回紧凑格式的分块信息
+     * @return 分块上传链接分页结果
+     */
+    @Operation(summary = "获取分块上传链接")
+    @GetMapping("/upload/parts/{fileKey}")
+    @ResponseBody
+    Response<FilePartPageVo> parts(@PathVariable("fileKey") String fileKey, @RequestParam("partNumber") Integer partNumber,
+                                   @RequestParam(value = "compact", required = false) Boolean compact);
+
     /**
      * 文件上传完成
      *
@@ -69,23 +86,25 @@ public interface StorageWebAPI {
 
     /**
      * 文件下载
+     * 开启代理下载时，由服务端传输文件内容
      *
      * @param fileKey 文件KEY
-     * @return 文件下载地址
+     * @return 重定向到文件下载地址，代理下载时响应已写出，返回null
      */
     @Operation(summary = "文件下载")
     @GetMapping("/download/{fileKey}")
-    String download(@PathVariable("fileKey") String fileKey);
+    ModelAndView download(@PathVariable("fileKey") String fileKey);
 
     /**
      * 获取图像
+     * 开启代理下载时，由服务端传输文件内容
      *
      * @param fileKey 文件KEY
-     * @return 原图地址
+     * @return 重定向到原图地址，代理下载时响应已写出，返回null
      */
     @Operation(summary = "图片预览 - 原图")
     @GetMapping("/image/{fileKey}")
-    String previewOriginal(@PathVariable("fileKey") String fileKey);
+    ModelAndView previewOriginal(@PathVariable("fileKey") String fileKey);
 
     /**
      * 文件预览
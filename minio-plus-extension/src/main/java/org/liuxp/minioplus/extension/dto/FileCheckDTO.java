@@ -29,5 +29,8 @@ public class FileCheckDTO {
     @Schema(description = "是否私有 false:否 true:是")
     private Boolean isPrivate;
 
+    @Schema(description = "是否返回紧凑格式的分块信息 false:否 true:是")
+    private Boolean compact;
+
 
 }
\ No newline at end of file
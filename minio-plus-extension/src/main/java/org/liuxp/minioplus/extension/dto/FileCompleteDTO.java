@@ -22,4 +22,7 @@ public class FileCompleteDTO {
     @Schema(description = "文件md5", requiredMode = Schema.RequiredMode.REQUIRED)
     private List<String> partMd5List;
 
+    @Schema(description = "是否返回紧凑格式的分块信息 false:否 true:是")
+    private Boolean compact;
+
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package org.liuxp.minioplus.s3.def;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * MinIO S3文件存储引擎异步接口定义
+ * 各方法直接返回存储引擎请求的CompletableFuture，调用线程不等待网络往返
+ * 失败时CompletableFuture以MinioPlusException异常结束
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+public interface MinioS3AsyncClient {
+
+    /**
+     * 写入文件，桶不存在时创建
+     * @param bucketName 桶名称
+     * @param objectName 对象名称含路径
+     * @param data 文件内容
+     * @param contentType 文件类型
+     * @param contentEncoding 内容编码，为空时不设置
+     * @return 是否成功
+     */
+    CompletableFuture<Boolean> putObject(String bucketName, String objectName, byte[] data, String contentType, String contentEncoding);
+
+    /**
+     * 读取文件
+     * @param bucketName 桶名称
+     * @param objectName 对象名称含路径
+     * @return 文件内容
+     */
+    CompletableFuture<byte[]> getObject(String bucketName, String objectName);
+
+    /**
+     * 读取文件的指定范围
+     * @param bucketName 桶名称
+     * @param objectName 对象名称含路径
+     * @param offset 起始位置
+     * @param length 读取长度
+     * @return 文件内容
+     */
+    CompletableFuture<byte[]> getObject(String bucketName, String objectName, long offset, long length);
+
+    /**
+     * 删除文件
+     * @param bucketName 桶名称
+     * @param objectName 对象名称含路径
+     * @return 删除完成
+     */
+    CompletableFuture<Void> removeObject(String bucketName, String objectName);
+
+}
@@ -33,6 +33,45 @@ public interface MinioS3Client {
      */
     String createMultipartUpload(String bucketName, String objectName);
 
+    /**
+     * 创建上传任务，并指定对象的数据类型
+     * @param bucketName 桶名称
+     * @param objectName 对象名称（含路径）
+     * @param contentType 数据类型
+     * @return UploadId 上传任务编号
+     */
+    String createMultipartUpload(String bucketName, String objectName, String contentType);
+
+    /**
+     * 创建上传任务，并指定对象的数据类型和内容编码
+     * @param bucketName 桶名称
+     * @param objectName 对象名称（含路径）
+     * @param contentType 数据类型
+     * @param contentEncoding 内容编码，为空时不设置
+     * @return UploadId 上传任务编号
+     */
+    String createMultipartUpload(String bucketName, String objectName, String contentType, String contentEncoding);
+
+    /**
+     * 上传分片
+     * @param bucketName 桶名称
+     * @param objectName 对象名称（含路径）
+     * @param uploadId 上传任务编号
+     * @param partNumber 分片序号
+     * @param data 分片数据
+     * @param length 分片长度，从data的起始位置计算
+     * @return 分片的etag
+     */
+    String uploadPart(String bucketName, String objectName, String uploadId, int partNumber, byte[] data, int length);
+
+    /**
+     * 取消上传任务，删除已上传的分片
+     * @param bucketName 桶名称
+     * @param objectName 对象名称（含路径）
+     * @param uploadId 上传任务编号
+     */
+    void abortMultipartUpload(String bucketName, String objectName, String uploadId);
+
     /**
      * 合并分片
      * @param bucketName 桶名称
@@ -45,14 +84,27 @@ public interface MinioS3Client {
 
     /**
      * 获取分片信息列表
+     * 分片数量超过单页上限（1000）时自动分页查询
      * @param bucketName 桶名称
      * @param objectName 对象名称（含路径）
-     * @param maxParts 分片数量
+     * @param maxParts 分片数量，为null时查询全部分片
      * @param uploadId 上传任务编号
      * @return 分片信息
      */
     ListParts listParts(String bucketName,String objectName,Integer maxParts,String uploadId);
 
+    /**
+     * 获取分片信息列表，仅返回块号在 (partNumberMarker, partNumberMarker + maxParts] 范围内的分片
+     * 范围超过单页上限（1000）时按块号切分并发查询
+     * @param bucketName 桶名称
+     * @param objectName 对象名称（含路径）
+     * @param maxParts 块号范围，为null时逐页查询全部分片
+     * @param partNumberMarker 起始块号（不含）
+     * @param uploadId 上传任务编号
+     * @return 分片信息
+     */
+    ListParts listParts(String bucketName,String objectName,Integer maxParts,Integer partNumberMarker,String uploadId);
+
     /**
      * 获得对象和分片上传链接
      * @param bucketName  桶名称
@@ -63,6 +115,17 @@ public interface MinioS3Client {
      */
     String getUploadObjectUrl(String bucketName, String objectName, String uploadId, String partNumber);
 
+    /**
+     * 批量获得分片上传链接
+     * 同一上传任务的全部分片只推导一次签名密钥
+     * @param bucketName  桶名称
+     * @param objectName  对象名称（含路径）
+     * @param uploadId  上传任务编号
+     * @param partNumbers 分片序号集合
+     * @return 分片上传链接集合，与分片序号顺序一致
+     */
+    List<String> getUploadObjectUrls(String bucketName, String objectName, String uploadId, List<Integer> partNumbers);
+
     /**
      * 取得下载链接
      * @param fileName 文件全名含扩展名
@@ -93,6 +156,19 @@ public interface MinioS3Client {
      */
     Boolean putObject(String bucketName, String objectName, InputStream stream, long size, String contentType);
 
+    /**
+     * 写入文件，并指定内容编码
+     * 下载时MinIO按内容编码返回Content-Encoding响应头
+     * @param bucketName 桶名称
+     * @param objectName 对象名称含路径
+     * @param stream 文件流
+     * @param size 文件长度
+     * @param contentType 文件类型
+     * @param contentEncoding 内容编码，为空时不设置
+     * @return 是否成功
+     */
+    Boolean putObject(String bucketName, String objectName, InputStream stream, long size, String contentType, String contentEncoding);
+
     /**
      * 读取文件
      * @param bucketName 桶名称
@@ -101,6 +177,52 @@ public interface MinioS3Client {
      */
     byte[] getObject(String bucketName, String objectName);
 
+    /**
+     * 读取文件的指定范围
+     * @param bucketName 桶名称
+     * @param objectName 对象名称含路径
+     * @param offset 起始位置
+     * @param length 读取长度
+     * @return 文件流
+     */
+    byte[] getObject(String bucketName, String objectName, long offset, long length);
+
+    /**
+     * 打开文件流
+     * 数据边读取边传输，调用方读取完毕后需关闭文件流
+     * @param bucketName 桶名称
+     * @param objectName 对象名称含路径
+     * @return 文件流
+     */
+    InputStream getObjectStream(String bucketName, String objectName);
+
+    /**
+     * 打开文件指定范围的文件流
+     * 数据边读取边传输，调用方读取完毕后需关闭文件流
+     * @param bucketName 桶名称
+     * @param objectName 对象名称含路径
+     * @param offset 起始位置
+     * @param length 读取长度
+     * @return 文件流
+     */
+    InputStream getObjectStream(String bucketName, String objectName, long offset, long length);
+
+    /**
+     * 取得文件长度
+     * @param bucketName 桶名称
+     * @param objectName 对象名称含路径
+     * @return 文件长度
+     */
+    long getObjectSize(String bucketName, String objectName);
+
+    /**
+     * 查询指定前缀下的全部对象，包含子路径
+     * @param bucketName 桶名称
+     * @param prefix 对象名称前缀
+     * @return 对象信息集合
+     */
+    List<ObjectItem> listObjects(String bucketName, String prefix);
+
     /**
      * 删除文件
      * @param bucketName 桶名称
@@ -0,0 +1,35 @@
+package org.liuxp.minioplus.s3.def;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.ZonedDateTime;
+
+/**
+ * 对象信息
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ObjectItem {
+
+    /**
+     * 对象名称含路径
+     */
+    private final String objectName;
+
+    /**
+     * 对象长度
+     */
+    private final long size;
+
+    /**
+     * 最后修改时间
+     */
+    private final ZonedDateTime lastModified;
+
+}
@@ -0,0 +1,177 @@
+package org.liuxp.minioplus.s3.official;
+
+import io.minio.S3Escaper;
+import io.minio.Time;
+import io.minio.credentials.Credentials;
+import io.minio.http.HttpUtils;
+import okhttp3.HttpUrl;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 分片上传链接批量签名器
+ * <p>
+ * 按照 AWS Signature V4 规则生成分片上传预签名URL，与 MinIO SDK 的 GetPresignedObjectUrl 结果等价。
+ * 同一上传任务的所有分片只推导一次签名密钥，规范请求中除 partNumber 外的内容全部预先编码，
+ * 循环内复用摘要、HMAC实例和缓冲区，只为最终的URL字符串分配内存。
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+public class BatchPresigner {
+
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+
+    private static final String HMAC_SHA256 = "HmacSHA256";
+
+    private static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+
+    private static final String SIGNED_HEADERS = "host";
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * SHA-256 摘要长度
+     */
+    private static final int HASH_LENGTH = 32;
+
+    private BatchPresigner() {
+    }
+
+    /**
+     * 批量生成分片上传链接
+     *
+     * @param objectUrl   对象地址，不含查询参数
+     * @param region      区域
+     * @param credentials 访问凭证，为null时生成不带签名的地址
+     * @param date        签名时间
+     * @param expires     有效期，单位为秒
+     * @param uploadId    上传任务编号
+     * @param partNumbers 分片序号集合
+     * @return 分片上传链接集合，与分片序号顺序一致
+     */
+    public static List<String> presignUploadParts(HttpUrl objectUrl, String region, Credentials credentials, ZonedDateTime date,
+                                                  int expires, String uploadId, List<Integer> partNumbers)
+            throws NoSuchAlgorithmException, InvalidKeyException, DigestException, ShortBufferException {
+
+        List<String> urls = new ArrayList<>(partNumbers.size());
+        String encodedUploadId = S3Escaper.encode(uploadId);
+
+        if (credentials == null) {
+            // 匿名访问，与SDK行为一致，不做签名
+            String prefix = objectUrl + "?uploadId=" + encodedUploadId + "&partNumber=";
+            for (Integer partNumber : partNumbers) {
+                urls.add(prefix + partNumber);
+            }
+            return urls;
+        }
+
+        String amzDate = date.format(Time.AMZ_DATE_FORMAT);
+        String scope = date.format(Time.SIGNER_DATE_FORMAT) + "/" + region + "/s3/aws4_request";
+
+        // 规范查询串按参数名字节序排列，大写的 X-Amz-* 排在 partNumber、uploadId 之前
+        StringBuilder query = new StringBuilder(512)
+                .append("X-Amz-Algorithm=").append(ALGORITHM)
+                .append("&X-Amz-Credential=").append(S3Escaper.encode(credentials.accessKey() + "/" + scope))
+                .append("&X-Amz-Date=").append(amzDate)
+                .append("&X-Amz-Expires=").append(expires);
+        if (credentials.sessionToken() != null) {
+            query.append("&X-Amz-Security-Token=").append(S3Escaper.encode(credentials.sessionToken()));
+        }
+        query.append("&X-Amz-SignedHeaders=").append(SIGNED_HEADERS)
+                .append("&partNumber=");
+        String queryPrefix = query.toString();
+        String querySuffix = "&uploadId=" + encodedUploadId;
+
+        // 规范请求 = 固定头部 + 分片序号 + 固定尾部
+        byte[] canonicalHead = ("PUT\n" + objectUrl.encodedPath() + "\n" + queryPrefix).getBytes(StandardCharsets.UTF_8);
+        byte[] canonicalTail = (querySuffix + "\nhost:" + HttpUtils.getHostHeader(objectUrl) + "\n\n"
+                + SIGNED_HEADERS + "\n" + UNSIGNED_PAYLOAD).getBytes(StandardCharsets.UTF_8);
+        // 待签名串 = 固定头部 + 规范请求摘要
+        byte[] stringToSignHead = (ALGORITHM + "\n" + amzDate + "\n" + scope + "\n").getBytes(StandardCharsets.UTF_8);
+
+        MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+        Mac mac = Mac.getInstance(HMAC_SHA256);
+        mac.init(new SecretKeySpec(signingKey(mac, credentials.secretKey(), date, region), HMAC_SHA256));
+
+        byte[] digits = new byte[11];
+        byte[] hash = new byte[HASH_LENGTH];
+        byte[] hashHex = new byte[HASH_LENGTH * 2];
+        byte[] signature = new byte[HASH_LENGTH];
+        char[] signatureHex = new char[HASH_LENGTH * 2];
+
+        StringBuilder url = new StringBuilder(objectUrl.toString().length() + queryPrefix.length() + querySuffix.length() + 96)
+                .append(objectUrl).append('?').append(queryPrefix);
+        int urlPrefixLength = url.length();
+
+        for (Integer partNumber : partNumbers) {
+            int digitsLength = writeDigits(partNumber, digits);
+
+            sha256.update(canonicalHead);
+            sha256.update(digits, digits.length - digitsLength, digitsLength);
+            sha256.update(canonicalTail);
+            sha256.digest(hash, 0, HASH_LENGTH);
+            toHex(hash, hashHex);
+
+            mac.update(stringToSignHead);
+            mac.update(hashHex);
+            mac.doFinal(signature, 0);
+            for (int i = 0; i < HASH_LENGTH; i++) {
+                signatureHex[i * 2] = (char) HEX[(signature[i] >> 4) & 0x0F];
+                signatureHex[i * 2 + 1] = (char) HEX[signature[i] & 0x0F];
+            }
+
+            url.setLength(urlPrefixLength);
+            url.append(partNumber.intValue()).append(querySuffix).append("&X-Amz-Signature=").append(signatureHex);
+            urls.add(url.toString());
+        }
+
+        return urls;
+    }
+
+    /**
+     * 推导签名密钥
+     * kSigning = HMAC(HMAC(HMAC(HMAC("AWS4" + secret, date), region), "s3"), "aws4_request")
+     */
+    private static byte[] signingKey(Mac mac, String secretKey, ZonedDateTime date, String region) throws InvalidKeyException {
+        byte[] key = ("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8);
+        String[] parts = {date.format(Time.SIGNER_DATE_FORMAT), region, "s3", "aws4_request"};
+        for (String part : parts) {
+            mac.init(new SecretKeySpec(key, HMAC_SHA256));
+            key = mac.doFinal(part.getBytes(StandardCharsets.UTF_8));
+        }
+        return key;
+    }
+
+    /**
+     * 将正整数写入缓冲区尾部
+     *
+     * @return 写入的位数
+     */
+    private static int writeDigits(int value, byte[] buffer) {
+        int position = buffer.length;
+        do {
+            buffer[--position] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        return buffer.length - position;
+    }
+
+    private static void toHex(byte[] bytes, byte[] hex) {
+        for (int i = 0; i < bytes.length; i++) {
+            hex[i * 2] = HEX[(bytes[i] >> 4) & 0x0F];
+            hex[i * 2 + 1] = HEX[bytes[i] & 0x0F];
+        }
+    }
+
+}
@@ -2,12 +2,21 @@ package org.liuxp.minioplus.s3.official;
 
 import com.google.common.collect.Multimap;
 import io.minio.*;
+import io.minio.credentials.Credentials;
 import io.minio.errors.*;
+import io.minio.http.HttpUtils;
+import io.minio.http.Method;
 import io.minio.messages.Part;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import okhttp3.RequestBody;
 
 import java.io.IOException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.time.ZonedDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 /**
  * 继承MinioClient重写
@@ -66,4 +75,121 @@ public class CustomMinioClient extends MinioAsyncClient {
     public ListPartsResponse listParts(String bucketName, String region, String objectName, Integer maxParts, Integer partNumberMarker, String uploadId, Multimap<String, String> extraHeaders, Multimap<String, String> extraQueryParams) throws ServerException, InsufficientDataException, ErrorResponseException, NoSuchAlgorithmException, IOException, InvalidKeyException, XmlParserException, InvalidResponseException, InternalException {
         return super.listParts(bucketName, region, objectName, maxParts, partNumberMarker, uploadId, extraHeaders, extraQueryParams);
     }
+
+    /**
+     * 异步查询分片数据
+     *
+     * @param bucketName       存储桶
+     * @param region           区域
+     * @param objectName       对象名
+     * @param maxParts         最大分片数量，单次最多1000
+     * @param partNumberMarker 起始块号（不含）
+     * @param uploadId         上传ID
+     * @param extraHeaders     额外消息头
+     * @param extraQueryParams 额外查询参数
+     */
+    @Override
+    public CompletableFuture<ListPartsResponse> listPartsAsync(String bucketName, String region, String objectName, Integer maxParts, Integer partNumberMarker, String uploadId, Multimap<String, String> extraHeaders, Multimap<String, String> extraQueryParams) throws InsufficientDataException, InternalException, InvalidKeyException, IOException, NoSuchAlgorithmException, XmlParserException {
+        return super.listPartsAsync(bucketName, region, objectName, maxParts, partNumberMarker, uploadId, extraHeaders, extraQueryParams);
+    }
+
+    /**
+     * 异步上传分片
+     *
+     * @param bucketName       存储桶
+     * @param region           区域
+     * @param objectName       对象名
+     * @param data             分片数据
+     * @param length           分片长度
+     * @param uploadId         上传ID
+     * @param partNumber       分片序号
+     * @param extraHeaders     额外消息头
+     * @param extraQueryParams 额外查询参数
+     */
+    @Override
+    public CompletableFuture<UploadPartResponse> uploadPartAsync(String bucketName, String region, String objectName, Object data, long length, String uploadId, int partNumber, Multimap<String, String> extraHeaders, Multimap<String, String> extraQueryParams) throws InsufficientDataException, InternalException, InvalidKeyException, IOException, NoSuchAlgorithmException, XmlParserException {
+        return super.uploadPartAsync(bucketName, region, objectName, data, length, uploadId, partNumber, extraHeaders, extraQueryParams);
+    }
+
+    /**
+     * 异步取消分片上传
+     *
+     * @param bucketName       存储桶
+     * @param region           区域
+     * @param objectName       对象名
+     * @param uploadId         上传ID
+     * @param extraHeaders     额外消息头
+     * @param extraQueryParams 额外查询参数
+     */
+    @Override
+    public CompletableFuture<AbortMultipartUploadResponse> abortMultipartUploadAsync(String bucketName, String region, String objectName, String uploadId, Multimap<String, String> extraHeaders, Multimap<String, String> extraQueryParams) throws InsufficientDataException, InternalException, InvalidKeyException, IOException, NoSuchAlgorithmException, XmlParserException {
+        return super.abortMultipartUploadAsync(bucketName, region, objectName, uploadId, extraHeaders, extraQueryParams);
+    }
+
+    /**
+     * 取得存储桶所在区域，优先使用区域缓存
+     *
+     * @param bucketName 存储桶
+     * @return 区域
+     */
+    public String getRegion(String bucketName) throws InsufficientDataException, InternalException, InvalidKeyException, IOException, NoSuchAlgorithmException, XmlParserException, ExecutionException, InterruptedException {
+        return super.getRegionAsync(bucketName, null).get();
+    }
+
+    /**
+     * 构建对象访问地址，不含查询参数
+     *
+     * @param method     请求方法
+     * @param bucketName 存储桶
+     * @param objectName 对象名
+     * @param region     区域
+     */
+    public HttpUrl buildObjectUrl(Method method, String bucketName, String objectName, String region) throws NoSuchAlgorithmException {
+        return super.buildUrl(method, bucketName, objectName, region, null);
+    }
+
+    /**
+     * 取得当前访问凭证，匿名访问时返回null
+     */
+    public Credentials getCredentials() {
+        return this.provider == null ? null : this.provider.fetch();
+    }
+
+    /**
+     * 使用指定的签名时间生成预签名地址
+     * 与 getPresignedObjectUrl 的区别仅在于签名时间由调用方给出，相同的签名时间和参数生成相同的地址
+     *
+     * @param args     预签名参数
+     * @param signDate 签名时间
+     */
+    public String getPresignedObjectUrl(GetPresignedObjectUrlArgs args, ZonedDateTime signDate) throws InsufficientDataException, InternalException, InvalidKeyException, IOException, NoSuchAlgorithmException, XmlParserException, ExecutionException, InterruptedException {
+        Multimap<String, String> queryParams = newMultimap(args.extraQueryParams());
+        if (args.versionId() != null) {
+            queryParams.put("versionId", args.versionId());
+        }
+
+        String region = super.getRegionAsync(args.bucket(), args.region()).get();
+
+        if (this.provider == null) {
+            return super.buildUrl(args.method(), args.bucket(), args.object(), region, queryParams).toString();
+        }
+
+        Credentials creds = this.provider.fetch();
+        if (creds.sessionToken() != null) {
+            queryParams.put("X-Amz-Security-Token", creds.sessionToken());
+        }
+        HttpUrl url = super.buildUrl(args.method(), args.bucket(), args.object(), region, queryParams);
+
+        // 预签名只签名Host头，签名时间取自x-amz-date
+        RequestBody body = (args.method() == Method.PUT || args.method() == Method.POST)
+                ? RequestBody.create(HttpUtils.EMPTY_BODY, null) : null;
+        Request request = new Request.Builder()
+                .url(url)
+                .method(args.method().toString(), body)
+                .header("Host", HttpUtils.getHostHeader(url))
+                .header("x-amz-date", signDate.format(Time.AMZ_DATE_FORMAT))
+                .build();
+
+        return Signer.presignV4(request, region, creds.accessKey(), creds.secretKey(), args.expiry()).toString();
+    }
 }
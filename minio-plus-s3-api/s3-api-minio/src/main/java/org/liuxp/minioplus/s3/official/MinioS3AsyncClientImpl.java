@@ -0,0 +1,119 @@
+package org.liuxp.minioplus.s3.official;
+
+import cn.hutool.core.io.IoUtil;
+import io.minio.BucketExistsArgs;
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
+import io.minio.MakeBucketArgs;
+import io.minio.PutObjectArgs;
+import io.minio.RemoveObjectArgs;
+import lombok.extern.slf4j.Slf4j;
+import org.liuxp.minioplus.common.enums.MinioPlusErrorCode;
+import org.liuxp.minioplus.common.exception.MinioPlusException;
+import org.liuxp.minioplus.s3.def.MinioS3AsyncClient;
+
+import java.io.ByteArrayInputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * MinIO S3文件存储引擎异步接口实现类
+ * 与MinioS3ClientImpl共用同一个MinIO客户端，组合SDK返回的CompletableFuture，不阻塞调用线程
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+@Slf4j
+public class MinioS3AsyncClientImpl implements MinioS3AsyncClient {
+
+    private final MinioS3ClientImpl minioS3Client;
+
+    public MinioS3AsyncClientImpl(MinioS3ClientImpl minioS3Client) {
+        this.minioS3Client = minioS3Client;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> putObject(String bucketName, String objectName, byte[] data, String contentType, String contentEncoding) {
+        Map<String, String> headers = new HashMap<>();
+        if (contentEncoding != null) {
+            headers.put("Content-Encoding", contentEncoding);
+        }
+
+        CompletableFuture<Boolean> future = call(() -> minioS3Client.getClient().bucketExists(BucketExistsArgs.builder().bucket(bucketName).build()))
+                // 桶不存在时创建
+                .thenCompose(exists -> Boolean.TRUE.equals(exists) ? CompletableFuture.completedFuture(null)
+                        : call(() -> minioS3Client.getClient().makeBucket(MakeBucketArgs.builder().bucket(bucketName).build())))
+                .thenCompose(created -> call(() -> minioS3Client.getClient().putObject(PutObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(objectName)
+                        .stream(new ByteArrayInputStream(data), data.length, -1L)
+                        .contentType(contentType)
+                        .headers(headers)
+                        .build())))
+                .thenApply(response -> true);
+        return failWith(future, MinioPlusErrorCode.WRITE_FAILED);
+    }
+
+    @Override
+    public CompletableFuture<byte[]> getObject(String bucketName, String objectName) {
+        return read(GetObjectArgs.builder().bucket(bucketName).object(objectName).build());
+    }
+
+    @Override
+    public CompletableFuture<byte[]> getObject(String bucketName, String objectName, long offset, long length) {
+        return read(GetObjectArgs.builder().bucket(bucketName).object(objectName).offset(offset).length(length).build());
+    }
+
+    @Override
+    public CompletableFuture<Void> removeObject(String bucketName, String objectName) {
+        return failWith(call(() -> minioS3Client.getClient().removeObject(RemoveObjectArgs.builder().bucket(bucketName).object(objectName).build())),
+                MinioPlusErrorCode.DELETE_FAILED);
+    }
+
+    private CompletableFuture<byte[]> read(GetObjectArgs args) {
+        CompletableFuture<byte[]> future = call(() -> minioS3Client.getClient().getObject(args))
+                .thenApply(this::readBytes);
+        return failWith(future, MinioPlusErrorCode.READ_FAILED);
+    }
+
+    private byte[] readBytes(GetObjectResponse response) {
+        // 读取响应体后关闭响应
+        return IoUtil.readBytes(response);
+    }
+
+    /**
+     * 调用SDK的异步方法
+     * SDK在发出请求前抛出的异常同样以失败的CompletableFuture返回
+     */
+    private static <T> CompletableFuture<T> call(AsyncCall<T> call) {
+        try {
+            return call.call();
+        } catch (Exception e) {
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+    }
+
+    /**
+     * 失败时记录日志，并以指定的错误码结束
+     */
+    private static <T> CompletableFuture<T> failWith(CompletableFuture<T> future, MinioPlusErrorCode errorCode) {
+        return future.handle((result, e) -> {
+            if (e == null) {
+                return result;
+            }
+            log.error("{}:{}", errorCode.getMessage(), e.getMessage(), e);
+            throw new MinioPlusException(errorCode);
+        });
+    }
+
+    @FunctionalInterface
+    private interface AsyncCall<T> {
+
+        CompletableFuture<T> call() throws Exception;
+
+    }
+
+}
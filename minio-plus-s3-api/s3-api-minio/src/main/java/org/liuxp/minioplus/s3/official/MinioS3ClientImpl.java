@@ -1,28 +1,39 @@
 package org.liuxp.minioplus.s3.official;
 
 import cn.hutool.core.io.IoUtil;
+import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
 import io.minio.*;
+import io.minio.credentials.Credentials;
 import io.minio.errors.InsufficientDataException;
 import io.minio.errors.InternalException;
 import io.minio.errors.XmlParserException;
 import io.minio.http.Method;
+import io.minio.messages.Item;
+import io.minio.messages.ListPartsResult;
 import io.minio.messages.Part;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.HttpUrl;
 import org.liuxp.minioplus.common.config.MinioPlusProperties;
 import org.liuxp.minioplus.common.enums.MinioPlusErrorCode;
 import org.liuxp.minioplus.common.exception.MinioPlusException;
+import org.liuxp.minioplus.common.utils.SignWindowUtil;
 import org.liuxp.minioplus.s3.def.ListParts;
 import org.liuxp.minioplus.s3.def.MinioS3Client;
+import org.liuxp.minioplus.s3.def.ObjectItem;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
@@ -37,6 +48,10 @@ public class MinioS3ClientImpl implements MinioS3Client {
      * 分片上传块号名称
      */
     private static final String PART_NUMBER = "partNumber";
+    /**
+     * 单次查询分片的最大数量，S3和MinIO限制每页最多返回1000个分片
+     */
+    private static final int MAX_PARTS_PER_PAGE = 1000;
 
     private final MinioPlusProperties properties;
 
@@ -99,6 +114,55 @@ public class MinioS3ClientImpl implements MinioS3Client {
         }
     }
 
+    @Override
+    public String createMultipartUpload(String bucketName, String objectName, String contentType) {
+        return this.createMultipartUpload(bucketName, objectName, contentType, null);
+    }
+
+    @Override
+    public String createMultipartUpload(String bucketName, String objectName, String contentType, String contentEncoding) {
+        try {
+            Multimap<String, String> headers = HashMultimap.create();
+            headers.put("Content-Type", contentType);
+            if (contentEncoding != null) {
+                headers.put("Content-Encoding", contentEncoding);
+            }
+            CreateMultipartUploadResponse createMultipartUploadResponse = this.getClient().createMultipartUpload(bucketName, null, objectName, headers, null);
+            return createMultipartUploadResponse.result().uploadId();
+        } catch (Exception e) {
+            log.error("{}:{}", MinioPlusErrorCode.CREATE_MULTIPART_UPLOAD_FAILED.getMessage(), e.getMessage(), e);
+            throw new MinioPlusException(MinioPlusErrorCode.CREATE_MULTIPART_UPLOAD_FAILED);
+        }
+    }
+
+    @Override
+    public String uploadPart(String bucketName, String objectName, String uploadId, int partNumber, byte[] data, int length) {
+        try {
+            return this.getClient().uploadPartAsync(bucketName, null, objectName, data, length, uploadId, partNumber, null, null).get().etag();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // 重新设置中断状态
+            log.error("{},uploadId:{},partNumber:{},失败原因:{}", MinioPlusErrorCode.UPLOAD_PART_FAILED.getMessage(), uploadId, partNumber, e.getMessage(), e);
+            throw new MinioPlusException(MinioPlusErrorCode.UPLOAD_PART_FAILED);
+        } catch (Exception e) {
+            log.error("{},uploadId:{},partNumber:{},失败原因:{}", MinioPlusErrorCode.UPLOAD_PART_FAILED.getMessage(), uploadId, partNumber, e.getMessage(), e);
+            throw new MinioPlusException(MinioPlusErrorCode.UPLOAD_PART_FAILED);
+        }
+    }
+
+    @Override
+    public void abortMultipartUpload(String bucketName, String objectName, String uploadId) {
+        try {
+            this.getClient().abortMultipartUploadAsync(bucketName, null, objectName, uploadId, null, null).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // 重新设置中断状态
+            log.error("{},uploadId:{},失败原因:{}", MinioPlusErrorCode.ABORT_MULTIPART_FAILED.getMessage(), uploadId, e.getMessage(), e);
+            throw new MinioPlusException(MinioPlusErrorCode.ABORT_MULTIPART_FAILED);
+        } catch (Exception e) {
+            log.error("{},uploadId:{},失败原因:{}", MinioPlusErrorCode.ABORT_MULTIPART_FAILED.getMessage(), uploadId, e.getMessage(), e);
+            throw new MinioPlusException(MinioPlusErrorCode.ABORT_MULTIPART_FAILED);
+        }
+    }
+
     @Override
     public Boolean completeMultipartUpload(String bucketName, String objectName, String uploadId, List<ListParts.Part> parts) {
 
@@ -120,31 +184,103 @@ public class MinioS3ClientImpl implements MinioS3Client {
 
     @Override
     public ListParts listParts(String bucketName, String objectName, Integer maxParts, String uploadId) {
+        return listParts(bucketName, objectName, maxParts, 0, uploadId);
+    }
 
-        ListParts listParts = ListParts.build();
+    @Override
+    public ListParts listParts(String bucketName, String objectName, Integer maxParts, Integer partNumberMarker, String uploadId) {
 
-        try {
-            ListPartsResponse listPartsResponse = this.getClient().listParts(bucketName, null, objectName, maxParts
-                    , 0, uploadId, null, null);
+        ListParts listParts = ListParts.build();
+        listParts.setBucketName(bucketName);
+        listParts.setObjectName(objectName);
+        listParts.setMaxParts(maxParts == null ? 0 : maxParts);
+        listParts.setUploadId(uploadId);
 
-            listParts.setBucketName(bucketName);
-            listParts.setObjectName(objectName);
-            listParts.setMaxParts(maxParts);
-            listParts.setUploadId(uploadId);
-            listParts.setPartList(new ArrayList<>());
+        int marker = partNumberMarker == null ? 0 : partNumberMarker;
 
-            for (Part part : listPartsResponse.result().partList()) {
+        try {
+            List<Part> partList;
+            if (maxParts == null) {
+                // 分片范围未知，按照服务端返回的下一页起始块号逐页查询
+                partList = this.listAllParts(bucketName, objectName, marker, uploadId);
+            } else {
+                // 分片范围已知，按块号切分后并发查询
+                partList = this.listPartsInRange(bucketName, objectName, marker, maxParts, uploadId);
+            }
+            for (Part part : partList) {
                 listParts.addPart(part.partNumber(), part.etag(), part.lastModified(), part.partSize());
             }
-
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // 重新设置中断状态
+            log.error("{}:{}", MinioPlusErrorCode.LIST_PARTS_FAILED.getMessage(), e.getMessage());
+            listParts.setPartList(new ArrayList<>());
         } catch (Exception e) {
             // 查询分片失败，打印日志，返回空的分片信息
             log.error("{}:{}", MinioPlusErrorCode.LIST_PARTS_FAILED.getMessage(), e.getMessage());
+            listParts.setPartList(new ArrayList<>());
         }
 
         return listParts;
     }
 
+    /**
+     * 逐页查询块号大于partNumberMarker的全部分片
+     *
+     * @param bucketName       桶名称
+     * @param objectName       对象名称（含路径）
+     * @param partNumberMarker 起始块号（不含）
+     * @param uploadId         上传任务编号
+     * @return 分片集合，按块号升序
+     */
+    private List<Part> listAllParts(String bucketName, String objectName, int partNumberMarker, String uploadId) throws Exception {
+        List<Part> partList = new ArrayList<>();
+        int marker = partNumberMarker;
+        while (true) {
+            ListPartsResult result = this.getClient().listPartsAsync(bucketName, null, objectName, MAX_PARTS_PER_PAGE
+                    , marker, uploadId, null, null).get().result();
+            partList.addAll(result.partList());
+            if (!result.isTruncated() || result.nextPartNumberMarker() <= marker) {
+                return partList;
+            }
+            marker = result.nextPartNumberMarker();
+        }
+    }
+
+    /**
+     * 并发查询块号在 (partNumberMarker, partNumberMarker + maxParts] 范围内的分片
+     * 块号即分页标记，每页负责一段连续的块号，各页之间没有依赖
+     * 某段中有未上传的块号时，该页会返回下一段的分片，按范围过滤即可
+     *
+     * @param bucketName       桶名称
+     * @param objectName       对象名称（含路径）
+     * @param partNumberMarker 起始块号（不含）
+     * @param maxParts         块号范围
+     * @param uploadId         上传任务编号
+     * @return 分片集合，按块号升序
+     */
+    private List<Part> listPartsInRange(String bucketName, String objectName, int partNumberMarker, int maxParts, String uploadId) throws Exception {
+        int end = partNumberMarker + maxParts;
+
+        List<CompletableFuture<ListPartsResponse>> futures = new ArrayList<>();
+        for (int marker = partNumberMarker; marker < end; marker += MAX_PARTS_PER_PAGE) {
+            futures.add(this.getClient().listPartsAsync(bucketName, null, objectName, Math.min(MAX_PARTS_PER_PAGE, end - marker)
+                    , marker, uploadId, null, null));
+        }
+
+        List<Part> partList = new ArrayList<>(maxParts);
+        int marker = partNumberMarker;
+        for (CompletableFuture<ListPartsResponse> future : futures) {
+            int pageEnd = Math.min(marker + MAX_PARTS_PER_PAGE, end);
+            for (Part part : future.get().result().partList()) {
+                if (part.partNumber() > marker && part.partNumber() <= pageEnd) {
+                    partList.add(part);
+                }
+            }
+            marker = pageEnd;
+        }
+        return partList;
+    }
+
     @Override
     public String getUploadObjectUrl(String bucketName, String objectName, String uploadId, String partNumber) {
 
@@ -167,6 +303,27 @@ public class MinioS3ClientImpl implements MinioS3Client {
         }
     }
 
+    @Override
+    public List<String> getUploadObjectUrls(String bucketName, String objectName, String uploadId, List<Integer> partNumbers) {
+        try {
+            CustomMinioClient client = this.getClient();
+            // 区域、对象地址和凭证每个上传任务只取一次
+            String region = client.getRegion(bucketName);
+            HttpUrl objectUrl = client.buildObjectUrl(Method.PUT, bucketName, objectName, region);
+            Credentials credentials = client.getCredentials();
+
+            return BatchPresigner.presignUploadParts(objectUrl, region, credentials, ZonedDateTime.now(Time.UTC),
+                    (int) TimeUnit.MINUTES.toSeconds(properties.getUploadExpiry()), uploadId, partNumbers);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // 重新设置中断状态
+            log.error("{}:{}", MinioPlusErrorCode.CREATE_UPLOAD_URL_FAILED.getMessage(), e.getMessage(), e);
+            throw new MinioPlusException(MinioPlusErrorCode.CREATE_UPLOAD_URL_FAILED);
+        } catch (Exception e) {
+            log.error("{}:{}", MinioPlusErrorCode.CREATE_UPLOAD_URL_FAILED.getMessage(), e.getMessage(), e);
+            throw new MinioPlusException(MinioPlusErrorCode.CREATE_UPLOAD_URL_FAILED);
+        }
+    }
+
     @Override
     public String getDownloadUrl(String fileName, String contentType, String bucketName, String objectName) {
         Map<String, String> reqParams = new HashMap<>();
@@ -174,14 +331,11 @@ public class MinioS3ClientImpl implements MinioS3Client {
         reqParams.put("response-content-type", contentType);
 
         try {
-            return this.getClient().getPresignedObjectUrl(
-                    GetPresignedObjectUrlArgs.builder()
-                            .method(Method.GET)
-                            .bucket(bucketName)
-                            .object(objectName)
-                            .expiry(properties.getDownloadExpiry(), TimeUnit.MINUTES)
-                            .extraQueryParams(reqParams)
-                            .build());
+            return this.getPresignedGetUrl(bucketName, objectName, reqParams);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // 重新设置中断状态
+            log.error("{}:{}", MinioPlusErrorCode.CREATE_DOWNLOAD_URL_FAILED.getMessage(), e.getMessage(), e);
+            throw new MinioPlusException(MinioPlusErrorCode.CREATE_DOWNLOAD_URL_FAILED);
         } catch (Exception e) {
             log.error("{}:{}", MinioPlusErrorCode.CREATE_DOWNLOAD_URL_FAILED.getMessage(), e.getMessage(), e);
             throw new MinioPlusException(MinioPlusErrorCode.CREATE_DOWNLOAD_URL_FAILED);
@@ -195,22 +349,50 @@ public class MinioS3ClientImpl implements MinioS3Client {
         reqParams.put("response-content-disposition", "inline");
 
         try {
-            return this.getClient().getPresignedObjectUrl(
-                    GetPresignedObjectUrlArgs.builder()
-                            .method(Method.GET)
-                            .bucket(bucketName)
-                            .object(objectName)
-                            .expiry(properties.getDownloadExpiry(), TimeUnit.MINUTES)
-                            .extraQueryParams(reqParams)
-                            .build());
+            return this.getPresignedGetUrl(bucketName, objectName, reqParams);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // 重新设置中断状态
+            log.error("{}:{}", MinioPlusErrorCode.CREATE_PREVIEW_URL_FAILED.getMessage(), e.getMessage(), e);
+            throw new MinioPlusException(MinioPlusErrorCode.CREATE_PREVIEW_URL_FAILED);
         } catch (Exception e) {
             log.error("{}:{}", MinioPlusErrorCode.CREATE_PREVIEW_URL_FAILED.getMessage(), e.getMessage(), e);
             throw new MinioPlusException(MinioPlusErrorCode.CREATE_PREVIEW_URL_FAILED);
         }
     }
 
+    /**
+     * 生成下载和预览使用的GET预签名地址
+     * 开启签名时间窗口时，签名时间对齐到窗口起点，同一窗口内相同参数生成的地址完全一致
+     *
+     * @param bucketName 桶名称
+     * @param objectName 对象名称含路径
+     * @param reqParams  响应头覆盖参数
+     * @return 预签名地址
+     */
+    private String getPresignedGetUrl(String bucketName, String objectName, Map<String, String> reqParams) throws Exception {
+        GetPresignedObjectUrlArgs args = GetPresignedObjectUrlArgs.builder()
+                .method(Method.GET)
+                .bucket(bucketName)
+                .object(objectName)
+                .expiry(properties.getDownloadExpiry(), TimeUnit.MINUTES)
+                .extraQueryParams(reqParams)
+                .build();
+
+        if (!SignWindowUtil.isEnabled(properties.getDownloadSignWindow(), properties.getDownloadExpiry())) {
+            return this.getClient().getPresignedObjectUrl(args);
+        }
+
+        long signTime = SignWindowUtil.windowStart(Instant.now().getEpochSecond(), properties.getDownloadSignWindow());
+        return this.getClient().getPresignedObjectUrl(args, ZonedDateTime.ofInstant(Instant.ofEpochSecond(signTime), Time.UTC));
+    }
+
     @Override
     public Boolean putObject(String bucketName, String objectName, InputStream stream, long size, String contentType) {
+        return this.putObject(bucketName, objectName, stream, size, contentType, null);
+    }
+
+    @Override
+    public Boolean putObject(String bucketName, String objectName, InputStream stream, long size, String contentType, String contentEncoding) {
         try {
 
             // 检查存储桶是否已经存在
@@ -221,12 +403,18 @@ public class MinioS3ClientImpl implements MinioS3Client {
 
             }
 
+            Map<String, String> headers = new HashMap<>();
+            if (contentEncoding != null) {
+                headers.put("Content-Encoding", contentEncoding);
+            }
+
             // 使用putObject上传一个文件到存储桶中。
             this.getClient().putObject(PutObjectArgs.builder()
                     .bucket(bucketName)
                     .object(objectName)
                     .stream(stream, size, 0L)
                     .contentType(contentType)
+                    .headers(headers)
                     .build());
 
         } catch (InsufficientDataException | InternalException | InvalidKeyException | IOException |
@@ -254,6 +442,65 @@ public class MinioS3ClientImpl implements MinioS3Client {
         }
     }
 
+    @Override
+    public byte[] getObject(String bucketName, String objectName, long offset, long length) {
+        // 按范围读取，只传输需要的部分
+        try (InputStream inputStream = this.getClient().getObject(GetObjectArgs.builder().bucket(bucketName).object(objectName).offset(offset).length(length).build()).get()) {
+            return IoUtil.readBytes(inputStream);
+        } catch (Exception e) {
+            log.error(MinioPlusErrorCode.READ_FAILED.getMessage(), e);
+            throw new MinioPlusException(MinioPlusErrorCode.READ_FAILED);
+        }
+    }
+
+    @Override
+    public InputStream getObjectStream(String bucketName, String objectName) {
+        try {
+            return this.getClient().getObject(GetObjectArgs.builder().bucket(bucketName).object(objectName).build()).get();
+        } catch (Exception e) {
+            log.error(MinioPlusErrorCode.READ_FAILED.getMessage(), e);
+            throw new MinioPlusException(MinioPlusErrorCode.READ_FAILED);
+        }
+    }
+
+    @Override
+    public InputStream getObjectStream(String bucketName, String objectName, long offset, long length) {
+        try {
+            return this.getClient().getObject(GetObjectArgs.builder().bucket(bucketName).object(objectName).offset(offset).length(length).build()).get();
+        } catch (Exception e) {
+            log.error(MinioPlusErrorCode.READ_FAILED.getMessage(), e);
+            throw new MinioPlusException(MinioPlusErrorCode.READ_FAILED);
+        }
+    }
+
+    @Override
+    public long getObjectSize(String bucketName, String objectName) {
+        try {
+            return this.getClient().statObject(StatObjectArgs.builder().bucket(bucketName).object(objectName).build()).get().size();
+        } catch (Exception e) {
+            log.error(MinioPlusErrorCode.STAT_OBJECT_FAILED.getMessage(), e);
+            throw new MinioPlusException(MinioPlusErrorCode.STAT_OBJECT_FAILED);
+        }
+    }
+
+    @Override
+    public List<ObjectItem> listObjects(String bucketName, String prefix) {
+        try {
+            List<ObjectItem> objectList = new ArrayList<>();
+            // 结果按页懒加载，遍历时逐页请求
+            for (Result<Item> result : this.getClient().listObjects(ListObjectsArgs.builder().bucket(bucketName).prefix(prefix).recursive(true).build())) {
+                Item item = result.get();
+                if (!item.isDir()) {
+                    objectList.add(new ObjectItem(item.objectName(), item.size(), item.lastModified()));
+                }
+            }
+            return objectList;
+        } catch (Exception e) {
+            log.error(MinioPlusErrorCode.LIST_OBJECTS_FAILED.getMessage(), e);
+            throw new MinioPlusException(MinioPlusErrorCode.LIST_OBJECTS_FAILED);
+        }
+    }
+
     @Override
     public void removeObject(String bucketName, String objectName) {
         try {
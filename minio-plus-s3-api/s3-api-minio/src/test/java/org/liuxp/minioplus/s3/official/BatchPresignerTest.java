@@ -0,0 +1,115 @@
+package org.liuxp.minioplus.s3.official;
+
+import io.minio.S3Escaper;
+import io.minio.Signer;
+import io.minio.Time;
+import io.minio.credentials.Credentials;
+import io.minio.http.HttpUtils;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 分片上传链接批量签名器测试
+ * 与MinIO SDK的签名结果逐个比较
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+class BatchPresignerTest {
+
+    private static final HttpUrl OBJECT_URL = HttpUrl.get("http://127.0.0.1:9000/document/2026/10/a b+c%2F%E4%B8%AD.txt");
+
+    private static final String REGION = "us-east-1";
+
+    private static final ZonedDateTime DATE = ZonedDateTime.of(2026, 10, 18, 8, 30, 15, 0, ZoneOffset.UTC);
+
+    private static final int EXPIRES = 3600;
+
+    private static final String UPLOAD_ID = "YjM2N2E0ZTUtNWQ3Yy00/ZjI1+LWI2NzUtZDc2NjA=";
+
+    private static final List<Integer> PART_NUMBERS = Arrays.asList(1, 2, 9, 10, 99, 100, 1000, 9999, 10000);
+
+    @Test
+    void presignUploadPartsMatchesSdk() throws Exception {
+        Credentials credentials = new Credentials("minioadmin", "minio/secret+key", null, null);
+
+        List<String> urls = BatchPresigner.presignUploadParts(OBJECT_URL, REGION, credentials, DATE, EXPIRES, UPLOAD_ID, PART_NUMBERS);
+
+        for (int i = 0; i < PART_NUMBERS.size(); i++) {
+            HttpUrl expected = sdkPresign(credentials, PART_NUMBERS.get(i));
+            assertUrlEquals(expected, HttpUrl.get(urls.get(i)));
+        }
+    }
+
+    @Test
+    void presignUploadPartsWithSessionTokenMatchesSdk() throws Exception {
+        Credentials credentials = new Credentials("minioadmin", "minio/secret+key", "session/token+=", null);
+
+        List<String> urls = BatchPresigner.presignUploadParts(OBJECT_URL, REGION, credentials, DATE, EXPIRES, UPLOAD_ID, PART_NUMBERS);
+
+        for (int i = 0; i < PART_NUMBERS.size(); i++) {
+            HttpUrl expected = sdkPresign(credentials, PART_NUMBERS.get(i));
+            assertUrlEquals(expected, HttpUrl.get(urls.get(i)));
+        }
+    }
+
+    @Test
+    void presignUploadPartsWithoutCredentials() throws Exception {
+        List<String> urls = BatchPresigner.presignUploadParts(OBJECT_URL, REGION, null, DATE, EXPIRES, UPLOAD_ID, Arrays.asList(1, 2));
+
+        HttpUrl url = HttpUrl.get(urls.get(1));
+        assertEquals(UPLOAD_ID, url.queryParameter("uploadId"));
+        assertEquals("2", url.queryParameter("partNumber"));
+        assertEquals(2, url.querySize());
+    }
+
+    /**
+     * 按MinIO SDK的GetPresignedObjectUrl流程签名
+     */
+    private static HttpUrl sdkPresign(Credentials credentials, int partNumber) throws Exception {
+        HttpUrl.Builder urlBuilder = OBJECT_URL.newBuilder()
+                .addEncodedQueryParameter("uploadId", S3Escaper.encode(UPLOAD_ID))
+                .addEncodedQueryParameter("partNumber", String.valueOf(partNumber));
+        if (credentials.sessionToken() != null) {
+            urlBuilder.addEncodedQueryParameter("X-Amz-Security-Token", S3Escaper.encode(credentials.sessionToken()));
+        }
+        Request request = new Request.Builder()
+                .url(urlBuilder.build())
+                .put(RequestBody.create(new byte[0]))
+                .header("Host", HttpUtils.getHostHeader(OBJECT_URL))
+                .header("x-amz-date", DATE.format(Time.AMZ_DATE_FORMAT))
+                .build();
+        return Signer.presignV4(request, REGION, credentials.accessKey(), credentials.secretKey(), EXPIRES);
+    }
+
+    private static void assertUrlEquals(HttpUrl expected, HttpUrl actual) {
+        assertEquals(expected.scheme(), actual.scheme());
+        assertEquals(expected.host(), actual.host());
+        assertEquals(expected.port(), actual.port());
+        assertEquals(expected.encodedPath(), actual.encodedPath());
+        assertEquals(query(expected), query(actual));
+    }
+
+    /**
+     * 查询参数与顺序无关，按参数名排序后比较
+     */
+    private static Map<String, String> query(HttpUrl url) {
+        Map<String, String> query = new TreeMap<>();
+        for (String name : url.queryParameterNames()) {
+            query.put(name, url.queryParameter(name));
+        }
+        return query;
+    }
+
+}
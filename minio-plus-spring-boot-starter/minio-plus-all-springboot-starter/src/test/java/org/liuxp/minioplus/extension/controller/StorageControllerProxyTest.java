@@ -0,0 +1,203 @@
+package org.liuxp.minioplus.extension.controller;
+
+import cn.hutool.core.lang.Pair;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.liuxp.minioplus.api.StorageService;
+import org.liuxp.minioplus.api.model.vo.FileMetadataInfoVo;
+import org.liuxp.minioplus.common.config.MinioPlusProperties;
+import org.liuxp.minioplus.common.enums.StorageBucketEnums;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 代理传输的Range请求、条件请求和响应头测试
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+class StorageControllerProxyTest {
+
+    private static final String FILE_KEY = "file-key";
+
+    private static final String FILE_MD5 = "0123456789abcdef0123456789abcdef";
+
+    private static final String ETAG = "\"" + FILE_MD5 + "\"";
+
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.US_ASCII);
+
+    private final StorageService storageService = mock(StorageService.class);
+
+    private final MinioPlusProperties properties = new MinioPlusProperties();
+
+    private final FileMetadataInfoVo metadata = new FileMetadataInfoVo();
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        properties.getProxy().setEnable(true);
+
+        metadata.setFileKey(FILE_KEY);
+        metadata.setFileMd5(FILE_MD5);
+        metadata.setFileName("a.html");
+        metadata.setFileMimeType("text/html");
+        metadata.setFileSize((long) CONTENT.length);
+        metadata.setStorageBucket(StorageBucketEnums.DOCUMENT.getCode());
+        metadata.setCreateTime(new Date(1_700_000_000_000L));
+
+        when(storageService.one(eq(FILE_KEY), any())).thenReturn(metadata);
+        when(storageService.readStream(eq(FILE_KEY), anyLong(), anyLong())).thenAnswer(invocation -> {
+            int offset = (int) (long) invocation.getArgument(1);
+            int length = (int) (long) invocation.getArgument(2);
+            return Pair.of(metadata, new ByteArrayInputStream(Arrays.copyOfRange(CONTENT, offset, offset + length)));
+        });
+
+        mockMvc = MockMvcBuilders.standaloneSetup(new StorageController(storageService, properties)).build();
+    }
+
+    @Test
+    void fullContentIsServedAsAttachment() throws Exception {
+        mockMvc.perform(get(StorageWebAPI.ROOT_PATH + "/download/" + FILE_KEY))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(CONTENT))
+                .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, "10"))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "private, no-cache"))
+                .andExpect(header().string("X-Content-Type-Options", "nosniff"))
+                .andExpect(header().exists("Content-Security-Policy"))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/octet-stream"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, startsWith("attachment")));
+    }
+
+    @Test
+    void singleRangeReturnsPartialContent() throws Exception {
+        mockMvc.perform(get(StorageWebAPI.ROOT_PATH + "/download/" + FILE_KEY).header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().bytes("2345".getBytes(StandardCharsets.US_ASCII)))
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, "4"));
+        verify(storageService).readStream(FILE_KEY, 2L, 4L);
+    }
+
+    @Test
+    void suffixRangeReturnsTail() throws Exception {
+        mockMvc.perform(get(StorageWebAPI.ROOT_PATH + "/download/" + FILE_KEY).header(HttpHeaders.RANGE, "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().bytes("789".getBytes(StandardCharsets.US_ASCII)))
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 7-9/10"));
+    }
+
+    @Test
+    void unsatisfiableRangeReturns416() throws Exception {
+        mockMvc.perform(get(StorageWebAPI.ROOT_PATH + "/download/" + FILE_KEY).header(HttpHeaders.RANGE, "bytes=20-30"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+        verify(storageService, never()).readStream(eq(FILE_KEY), anyLong(), anyLong());
+    }
+
+    @Test
+    void malformedRangeReturnsFullContent() throws Exception {
+        mockMvc.perform(get(StorageWebAPI.ROOT_PATH + "/download/" + FILE_KEY).header(HttpHeaders.RANGE, "lines=1-2"))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    void mismatchedIfRangeReturnsFullContent() throws Exception {
+        mockMvc.perform(get(StorageWebAPI.ROOT_PATH + "/download/" + FILE_KEY)
+                        .header(HttpHeaders.RANGE, "bytes=2-5")
+                        .header(HttpHeaders.IF_RANGE, "\"other\""))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    void matchedIfRangeReturnsPartialContent() throws Exception {
+        mockMvc.perform(get(StorageWebAPI.ROOT_PATH + "/download/" + FILE_KEY)
+                        .header(HttpHeaders.RANGE, "bytes=2-5")
+                        .header(HttpHeaders.IF_RANGE, ETAG))
+                .andExpect(status().isPartialContent());
+    }
+
+    @Test
+    void matchingIfNoneMatchReturns304() throws Exception {
+        mockMvc.perform(get(StorageWebAPI.ROOT_PATH + "/download/" + FILE_KEY).header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+        verify(storageService, never()).readStream(eq(FILE_KEY), anyLong(), anyLong());
+    }
+
+    @Test
+    void notModifiedSinceReturns304() throws Exception {
+        mockMvc.perform(get(StorageWebAPI.ROOT_PATH + "/download/" + FILE_KEY)
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, "Tue, 14 Nov 2023 22:13:20 GMT"))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void htmlImageIsNotInlined() throws Exception {
+        mockMvc.perform(get(StorageWebAPI.ROOT_PATH + "/image/" + FILE_KEY))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/octet-stream"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, startsWith("attachment")));
+    }
+
+    @Test
+    void rasterImageIsInlined() throws Exception {
+        metadata.setFileName("a.png");
+        metadata.setFileMimeType("image/png");
+        metadata.setStorageBucket(StorageBucketEnums.IMAGE.getCode());
+
+        mockMvc.perform(get(StorageWebAPI.ROOT_PATH + "/image/" + FILE_KEY))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, startsWith("inline")));
+    }
+
+    @Test
+    void packedFileIsProxiedWithoutProxyEnabled() throws Exception {
+        properties.getProxy().setEnable(false);
+        properties.getPack().setEnable(true);
+        metadata.setIsPacked(true);
+
+        mockMvc.perform(get(StorageWebAPI.ROOT_PATH + "/download/" + FILE_KEY))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(CONTENT));
+        verify(storageService, never()).download(eq(FILE_KEY), nullable(String.class));
+    }
+
+    @Test
+    void redirectsWhenProxyDisabled() throws Exception {
+        properties.getProxy().setEnable(false);
+        when(storageService.download(eq(FILE_KEY), nullable(String.class))).thenReturn("http://minio/bucket/object");
+
+        mockMvc.perform(get(StorageWebAPI.ROOT_PATH + "/download/" + FILE_KEY))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("http://minio/bucket/object"));
+        verify(storageService, never()).readStream(eq(FILE_KEY), anyLong(), anyLong());
+    }
+
+}
@@ -1,20 +1,30 @@
 package org.liuxp.minioplus.extension.controller;
 
+import cn.hutool.core.io.IORuntimeException;
 import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.lang.Pair;
 import lombok.extern.slf4j.Slf4j;
 import org.liuxp.minioplus.api.StorageService;
 import org.liuxp.minioplus.api.model.vo.CompleteResultVo;
 import org.liuxp.minioplus.api.model.vo.FileCheckResultVo;
+import org.liuxp.minioplus.api.model.vo.FileMetadataInfoVo;
+import org.liuxp.minioplus.api.model.vo.FilePartPageVo;
 import org.liuxp.minioplus.api.model.vo.FilePreShardingVo;
+import org.liuxp.minioplus.common.config.MinioPlusProperties;
 import org.liuxp.minioplus.common.enums.MinioPlusErrorCode;
 import org.liuxp.minioplus.common.enums.StorageBucketEnums;
 import org.liuxp.minioplus.common.exception.MinioPlusException;
+import org.liuxp.minioplus.common.utils.ProxyContentUtil;
+import org.liuxp.minioplus.common.utils.SignWindowUtil;
 import org.liuxp.minioplus.extension.context.Response;
 import org.liuxp.minioplus.extension.context.UserHolder;
 import org.liuxp.minioplus.extension.dto.FileCheckDTO;
 import org.liuxp.minioplus.extension.dto.FileCompleteDTO;
 import org.liuxp.minioplus.extension.dto.PreShardingDTO;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.util.FileCopyUtils;
 import org.springframework.validation.annotation.Validated;
@@ -22,8 +32,14 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.ModelAndView;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 
 /**
  * 对象存储标准接口定义
@@ -47,8 +63,14 @@ public class StorageController implements StorageWebAPI {
      */
     private final StorageService storageService;
 
-    public StorageController(StorageService storageService) {
+    /**
+     * MinioPlus配置信息
+     */
+    private final MinioPlusProperties properties;
+
+    public StorageController(StorageService storageService, MinioPlusProperties properties) {
         this.storageService = storageService;
+        this.properties = properties;
     }
 
     /**
@@ -79,11 +101,31 @@ public class StorageController implements StorageWebAPI {
         // 取得当前登录用户信息
         String userId = UserHolder.get();
 
-        FileCheckResultVo resultVo = storageService.init(fileCheckDTO.getFileMd5(), fileCheckDTO.getFullFileName(), fileCheckDTO.getFileSize(), fileCheckDTO.getIsPrivate(), userId);
+        FileCheckResultVo resultVo = storageService.init(fileCheckDTO.getFileMd5(), fileCheckDTO.getFullFileName(), fileCheckDTO.getFileSize(), fileCheckDTO.getIsPrivate(), userId, fileCheckDTO.getCompact());
 
         return Response.success(resultVo);
     }
 
+    /**
+     * 取得下一页分块上传链接
+     * 开启分页下发时，前端上传完当前页后使用返回的nextPartNumber继续获取链接
+     *
+     * @param fileKey    文件KEY
+     * @param partNumber 起始块号
+     * @param compact    是否返回紧凑格式的分块信息
+     * @return 分块上传链接分页结果
+     */
+    @Override
+    public Response<FilePartPageVo> parts(String fileKey, Integer partNumber, Boolean compact) {
+
+        // 取得当前登录用户信息
+        String userId = UserHolder.get();
+
+        FilePartPageVo pageVo = storageService.nextParts(fileKey, partNumber, userId, compact);
+
+        return Response.success(pageVo);
+    }
+
     /**
      * 文件上传完成
      *
@@ -99,41 +141,61 @@ public class StorageController implements StorageWebAPI {
 
         // 打印调试日志
         log.debug("合并文件开始fileKey=" + fileKey + ",partMd5List=" + fileCompleteDTO.getPartMd5List());
-        CompleteResultVo completeResultVo = storageService.complete(fileKey, fileCompleteDTO.getPartMd5List(), userId);
+        CompleteResultVo completeResultVo = storageService.complete(fileKey, fileCompleteDTO.getPartMd5List(), userId, fileCompleteDTO.getCompact());
 
         return Response.success(completeResultVo);
     }
 
     /**
      * 文件下载
+     * 开启代理下载或文件为打包存储时，由服务端传输文件内容
      *
      * @param fileKey 文件KEY
-     * @return 文件下载地址
+     * @return 重定向到文件下载地址，服务端传输时返回null
      */
     @Override
-    public String download(String fileKey) {
+    public ModelAndView download(String fileKey) {
 
         // 取得当前登录用户信息
         String userId = UserHolder.get();
 
+        if (proxyIfRequired(fileKey, userId, ProxyContentUtil.ATTACHMENT)) {
+            return null;
+        }
+
         // 取得文件读取路径
-        return REDIRECT_PREFIX + storageService.download(fileKey, userId);
+        String url = storageService.download(fileKey, userId);
+
+        // 同一签名窗口内地址不变，允许浏览器缓存重定向
+        setRedirectCacheControl();
+
+        return new ModelAndView(REDIRECT_PREFIX + url);
     }
 
     /**
      * 获取图像
+     * 开启代理下载或文件为打包存储时，由服务端传输文件内容
      *
      * @param fileKey 文件KEY
-     * @return 原图地址
+     * @return 重定向到原图地址，服务端传输时返回null
      */
     @Override
-    public String previewOriginal(String fileKey) {
+    public ModelAndView previewOriginal(String fileKey) {
 
         // 取得当前登录用户信息
         String userId = UserHolder.get();
 
+        if (proxyIfRequired(fileKey, userId, ProxyContentUtil.INLINE)) {
+            return null;
+        }
+
         // 取得文件读取路径
-        return REDIRECT_PREFIX + storageService.image(fileKey, userId);
+        String url = storageService.image(fileKey, userId);
+
+        // 同一签名窗口内地址不变，允许浏览器缓存重定向
+        setRedirectCacheControl();
+
+        return new ModelAndView(REDIRECT_PREFIX + url);
     }
 
     /**
@@ -156,6 +218,9 @@ public class StorageController implements StorageWebAPI {
             url = ICON_PATH + url;
         }
 
+        // 同一签名窗口内地址不变，允许浏览器缓存重定向
+        setRedirectCacheControl();
+
         // 取得文件读取路径
         return REDIRECT_PREFIX + url;
     }
@@ -188,4 +253,104 @@ public class StorageController implements StorageWebAPI {
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * 开启代理下载，或文件为打包存储时，由服务端传输文件内容
+     * 打包存储的文件没有独立地址，签发地址会暴露整个打包对象
+     *
+     * @param fileKey     文件KEY
+     * @param userId      用户编号
+     * @param disposition 请求的Content-Disposition类型
+     * @return 是否已由服务端传输
+     */
+    private boolean proxyIfRequired(String fileKey, String userId, String disposition) {
+        boolean proxyEnabled = properties.getProxy().isEnable();
+        if (!proxyEnabled && !properties.getPack().isEnable()) {
+            return false;
+        }
+        // 文件权限校验
+        FileMetadataInfoVo metadata = storageService.one(fileKey, userId);
+        if (!proxyEnabled && !Boolean.TRUE.equals(metadata.getIsPacked())) {
+            return false;
+        }
+        proxy(metadata, disposition);
+        return true;
+    }
+
+    /**
+     * 代理传输文件内容
+     * 文件MD5值作为ETag，创建时间作为Last-Modified，条件请求命中时返回304，不读取MinIO
+     * 支持单个范围的Range请求，返回206；多个范围或If-Range不匹配时返回完整内容
+     * 文件与应用同源，只有图片桶中的位图可以内联展示，其余文件按附件下载
+     *
+     * @param metadata    已通过权限校验的文件元数据
+     * @param disposition 请求的Content-Disposition类型
+     */
+    private void proxy(FileMetadataInfoVo metadata, String disposition) {
+
+        String fileKey = metadata.getFileKey();
+        ServletRequestAttributes attr = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        String etag = "\"" + metadata.getFileMd5() + "\"";
+        long lastModified = metadata.getCreateTime() == null ? -1L : metadata.getCreateTime().getTime();
+
+        // 禁止浏览器猜测数据类型，禁止文件内容执行脚本
+        attr.getResponse().setHeader("X-Content-Type-Options", ProxyContentUtil.NOSNIFF);
+        attr.getResponse().setHeader("Content-Security-Policy", ProxyContentUtil.CONTENT_SECURITY_POLICY);
+
+        // 校验If-None-Match和If-Modified-Since，未变化时已设置304
+        if (new ServletWebRequest(attr.getRequest(), attr.getResponse()).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        long fileSize = metadata.getFileSize();
+        Pair<Long, Long> range = ProxyContentUtil.range(attr.getRequest().getHeader(HttpHeaders.RANGE),
+                attr.getRequest().getHeader(HttpHeaders.IF_RANGE), etag, lastModified, fileSize);
+        if (range != null && range.getValue() <= 0) {
+            attr.getResponse().setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            attr.getResponse().setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + fileSize);
+            return;
+        }
+        long offset = range == null ? 0 : range.getKey();
+        long length = range == null ? fileSize : range.getValue();
+
+        Pair<FileMetadataInfoVo, InputStream> stream = storageService.readStream(fileKey, offset, length);
+        if (stream == null) {
+            throw new MinioPlusException(MinioPlusErrorCode.FILE_EXIST_FAILED);
+        }
+
+        if (range != null) {
+            attr.getResponse().setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            attr.getResponse().setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + offset + "-" + (offset + length - 1) + "/" + fileSize);
+        }
+        attr.getResponse().setContentType(ProxyContentUtil.contentType(metadata.getStorageBucket(), metadata.getFileMimeType()));
+        attr.getResponse().setHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(length));
+        attr.getResponse().setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // 每次访问都需要校验权限，浏览器使用缓存前先发送条件请求
+        attr.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        attr.getResponse().setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.builder(ProxyContentUtil.disposition(disposition, metadata.getStorageBucket(), metadata.getFileMimeType()))
+                        .filename(metadata.getFileName(), StandardCharsets.UTF_8).build().toString());
+
+        try (InputStream inputStream = stream.getValue()) {
+            IoUtil.copy(inputStream, attr.getResponse().getOutputStream(), properties.getProxy().getBufferSize());
+        } catch (IOException | IORuntimeException e) {
+            // 响应已开始写出，客户端中断连接（如视频拖动进度）时只记录日志
+            log.debug("代理传输中断fileKey=" + fileKey + ":" + e.getMessage());
+        }
+    }
+
+    /**
+     * 开启签名时间窗口时，按窗口剩余时长设置重定向响应的缓存头
+     * 窗口结束后服务端会签发新的地址，缓存随之失效
+     */
+    private void setRedirectCacheControl() {
+        if (!SignWindowUtil.isEnabled(properties.getDownloadSignWindow(), properties.getDownloadExpiry())) {
+            return;
+        }
+        long maxAge = SignWindowUtil.secondsToWindowEnd(Instant.now().getEpochSecond(), properties.getDownloadSignWindow());
+        ServletRequestAttributes attr = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        if (attr != null && attr.getResponse() != null) {
+            attr.getResponse().setHeader("Cache-Control", "private, max-age=" + maxAge);
+        }
+    }
+
+}
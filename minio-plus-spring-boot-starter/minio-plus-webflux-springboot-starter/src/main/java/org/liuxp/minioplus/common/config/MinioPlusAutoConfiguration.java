@@ -0,0 +1,14 @@
+package org.liuxp.minioplus.common.config;
+
+import org.springframework.context.annotation.ComponentScan;
+
+/**
+ * MinioPlusAutoConfiguration
+ *
+ * @author contact@liuxp.me
+ * @since 2024/06/11
+ */
+@ComponentScan("org.liuxp.minioplus")
+public class MinioPlusAutoConfiguration {
+
+}
\ No newline at end of file
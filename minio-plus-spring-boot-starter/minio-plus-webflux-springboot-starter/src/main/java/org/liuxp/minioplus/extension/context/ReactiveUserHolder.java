@@ -0,0 +1,55 @@
+package org.liuxp.minioplus.extension.context;
+
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.util.function.Function;
+
+/**
+ * 响应式用户信息助手
+ * 当使用 minio-plus-webflux-springboot-starter 中的 controller 时，登录用户编号随 Reactor Context 传递
+ * 请求在事件循环线程之间切换，ThreadLocal 无法使用，需要在 WebFilter 中写入：
+ * <pre>
+ * return chain.filter(exchange).contextWrite(ReactiveUserHolder.set(userId));
+ * </pre>
+ * @author contact@liuxp.me
+ * @since  2026/10/18
+ */
+public class ReactiveUserHolder {
+
+    /**
+     * Context 中登录用户编号的键
+     */
+    private static final String USER_KEY = ReactiveUserHolder.class.getName() + ".userId";
+
+    private ReactiveUserHolder() {
+    }
+
+    /**
+     * 获取登录用户编号
+     * @return 登录用户编号，未设置时为空
+     */
+    public static Mono<String> get() {
+        return Mono.deferContextual(context -> Mono.justOrEmpty(context.<String>getOrEmpty(USER_KEY)));
+    }
+
+    /**
+     * 设置登录用户编号
+     * @param userId 登录用户编号
+     * @return 包含登录用户编号的 Context
+     */
+    public static Context set(String userId) {
+        return Context.of(USER_KEY, userId);
+    }
+
+    /**
+     * 使用登录用户编号执行操作
+     * @param action 操作，未设置登录用户编号时入参为null
+     * @param <T> 返回值类型
+     * @return 操作结果
+     */
+    public static <T> Mono<T> with(Function<String, Mono<T>> action) {
+        return Mono.deferContextual(context -> action.apply(context.<String>getOrDefault(USER_KEY, null)));
+    }
+
+}
@@ -0,0 +1,325 @@
+package org.liuxp.minioplus.extension.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import cn.hutool.core.lang.Pair;
+import lombok.extern.slf4j.Slf4j;
+import org.liuxp.minioplus.api.AsyncStorageService;
+import org.liuxp.minioplus.api.StorageService;
+import org.liuxp.minioplus.api.model.vo.CompleteResultVo;
+import org.liuxp.minioplus.api.model.vo.FileCheckResultVo;
+import org.liuxp.minioplus.api.model.vo.FileMetadataInfoVo;
+import org.liuxp.minioplus.api.model.vo.FilePartPageVo;
+import org.liuxp.minioplus.api.model.vo.FilePreShardingVo;
+import org.liuxp.minioplus.common.config.MinioPlusProperties;
+import org.liuxp.minioplus.common.enums.MinioPlusErrorCode;
+import org.liuxp.minioplus.common.enums.StorageBucketEnums;
+import org.liuxp.minioplus.common.exception.MinioPlusException;
+import org.liuxp.minioplus.common.utils.ProxyContentUtil;
+import org.liuxp.minioplus.common.utils.SignWindowUtil;
+import org.liuxp.minioplus.extension.context.ReactiveUserHolder;
+import org.liuxp.minioplus.extension.context.Response;
+import org.liuxp.minioplus.extension.dto.FileCheckDTO;
+import org.liuxp.minioplus.extension.dto.FileCompleteDTO;
+import org.liuxp.minioplus.extension.dto.PreShardingDTO;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * 对象存储标准接口的响应式实现
+ * 与 StorageWebAPI 的请求地址和返回值一致，适用于基于 Netty 的 WebFlux 服务
+ * 元数据查询和签名在 AsyncStorageService 的线程池中执行，不阻塞事件循环线程
+ * 开启代理传输或文件为打包存储时，下载和原图由服务端以数据流传输，支持Range请求和条件请求
+ * 登录用户编号通过 {@link ReactiveUserHolder} 从 Reactor Context 中取得
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+@Slf4j
+@Tag(name = "MinIO Plus 接口")
+@RestController
+@RequestMapping(StorageWebAPI.ROOT_PATH)
+public class ReactiveStorageController {
+
+    /**
+     * 图标读取缓冲区大小
+     */
+    private static final int ICON_BUFFER_SIZE = 4096;
+
+    /**
+     * 存储组件Service层公共方法
+     */
+    private final StorageService storageService;
+
+    /**
+     * 存储组件异步接口
+     */
+    private final AsyncStorageService asyncStorageService;
+
+    /**
+     * MinioPlus配置信息
+     */
+    private final MinioPlusProperties properties;
+
+    public ReactiveStorageController(StorageService storageService, AsyncStorageService asyncStorageService, MinioPlusProperties properties) {
+        this.storageService = storageService;
+        this.asyncStorageService = asyncStorageService;
+        this.properties = properties;
+    }
+
+    /**
+     * 文件预分片方法
+     * 在大文件上传时，为了防止前端重复计算文件MD5值，提供该方法
+     *
+     * @param preShardingDTO 文件预分片入参DTO
+     * @return 预分片结果
+     */
+    @Operation(summary = "文件预分片")
+    @PostMapping("/upload/sharding")
+    public Mono<Response<FilePreShardingVo>> sharding(@RequestBody @Validated PreShardingDTO preShardingDTO) {
+        // 仅做分片计算，不涉及IO，直接在当前线程执行
+        return Mono.fromSupplier(() -> Response.success(storageService.sharding(preShardingDTO.getFileSize())));
+    }
+
+    /**
+     * 上传任务初始化
+     * 上传前的预检查：秒传、分块上传和断点续传等特性均基于该方法实现
+     *
+     * @param fileCheckDTO 文件预检查入参
+     * @return 检查结果
+     */
+    @Operation(summary = "上传任务初始化")
+    @PostMapping("/upload/init")
+    public Mono<Response<FileCheckResultVo>> init(@RequestBody @Validated FileCheckDTO fileCheckDTO) {
+        return ReactiveUserHolder.with(userId -> Mono.fromFuture(() -> asyncStorageService.init(fileCheckDTO.getFileMd5(), fileCheckDTO.getFullFileName(),
+                fileCheckDTO.getFileSize(), fileCheckDTO.getIsPrivate(), userId, fileCheckDTO.getCompact())))
+                .map(Response::success);
+    }
+
+    /**
+     * 取得下一页分块上传链接
+     * 开启分页下发时，前端上传完当前页后使用返回的nextPartNumber继续获取链接
+     *
+     * @param fileKey    文件KEY
+     * @param partNumber 起始块号
+     * @param compact    是否返回紧凑格式的分块信息
+     * @return 分块上传链接分页结果
+     */
+    @Operation(summary = "获取分块上传链接")
+    @GetMapping("/upload/parts/{fileKey}")
+    public Mono<Response<FilePartPageVo>> parts(@PathVariable("fileKey") String fileKey, @RequestParam("partNumber") Integer partNumber,
+                                                @RequestParam(value = "compact", required = false) Boolean compact) {
+        return ReactiveUserHolder.with(userId -> Mono.fromFuture(() -> asyncStorageService.nextParts(fileKey, partNumber, userId, compact)))
+                .map(Response::success);
+    }
+
+    /**
+     * 文件上传完成
+     *
+     * @param fileKey         文件KEY
+     * @param fileCompleteDTO 文件完成入参DTO
+     * @return 是否成功
+     */
+    @Operation(summary = "上传完成")
+    @PostMapping("/upload/complete/{fileKey}")
+    public Mono<Response<CompleteResultVo>> complete(@PathVariable("fileKey") String fileKey, @RequestBody FileCompleteDTO fileCompleteDTO) {
+        // 打印调试日志
+        log.debug("合并文件开始fileKey=" + fileKey + ",partMd5List=" + fileCompleteDTO.getPartMd5List());
+        return ReactiveUserHolder.with(userId -> Mono.fromFuture(() -> asyncStorageService.complete(fileKey, fileCompleteDTO.getPartMd5List(), userId, fileCompleteDTO.getCompact())))
+                .map(Response::success);
+    }
+
+    /**
+     * 文件下载
+     *
+     * @param fileKey 文件KEY
+     * @return 重定向到文件下载地址
+     */
+    @Operation(summary = "文件下载")
+    @GetMapping("/download/{fileKey}")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> download(@PathVariable("fileKey") String fileKey, ServerWebExchange exchange) {
+        return ReactiveUserHolder.with(userId -> this.proxyIfRequired(fileKey, userId, ProxyContentUtil.ATTACHMENT, exchange)
+                .switchIfEmpty(Mono.defer(() -> Mono.fromFuture(() -> asyncStorageService.download(fileKey, userId)).map(this::redirect))));
+    }
+
+    /**
+     * 获取图像
+     *
+     * @param fileKey 文件KEY
+     * @return 重定向到原图地址
+     */
+    @Operation(summary = "图片预览 - 原图")
+    @GetMapping("/image/{fileKey}")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> previewOriginal(@PathVariable("fileKey") String fileKey, ServerWebExchange exchange) {
+        return ReactiveUserHolder.with(userId -> this.proxyIfRequired(fileKey, userId, ProxyContentUtil.INLINE, exchange)
+                .switchIfEmpty(Mono.defer(() -> Mono.fromFuture(() -> asyncStorageService.image(fileKey, userId)).map(this::redirect))));
+    }
+
+    /**
+     * 文件预览
+     * 当文件为图片时，返回图片的缩略图
+     * 当文件不是图片时，返回文件类型图标
+     *
+     * @param fileKey 文件KEY
+     * @return 重定向到缩略图地址
+     */
+    @Operation(summary = "图片预览 - 缩略图")
+    @GetMapping("/preview/{fileKey}")
+    public Mono<ResponseEntity<Void>> previewMedium(@PathVariable("fileKey") String fileKey) {
+        return ReactiveUserHolder.with(userId -> Mono.fromFuture(() -> asyncStorageService.preview(fileKey, userId)))
+                // 当返回值为文件类型时，取得图标
+                .map(url -> url.length() < 10 ? StorageWebAPI.ICON_PATH + url : url)
+                .map(this::redirect);
+    }
+
+    /**
+     * 根据文件类型取得图标
+     *
+     * @param fileType 文件扩展名
+     * @return 图标数据流
+     */
+    @Operation(summary = "获取图标")
+    @GetMapping("/icon/{fileType}")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> icon(@PathVariable("fileType") String fileType) {
+        return Mono.fromCallable(() -> {
+            // 根据文件后缀取得桶
+            String storageBucket = StorageBucketEnums.getBucketByFileSuffix(fileType);
+            ClassPathResource cpr = new ClassPathResource(storageBucket + ".png");
+
+            Flux<DataBuffer> body = DataBufferUtils.read(cpr, DefaultDataBufferFactory.sharedInstance, ICON_BUFFER_SIZE);
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline")
+                    .contentType(MediaType.IMAGE_PNG)
+                    .contentLength(cpr.contentLength())
+                    .body(body);
+        }).onErrorMap(e -> !(e instanceof MinioPlusException), e -> {
+            log.error(MinioPlusErrorCode.FILE_ICON_FAILED.getMessage(), e);
+            // 图标获取失败
+            return new MinioPlusException(MinioPlusErrorCode.FILE_ICON_FAILED);
+        });
+    }
+
+    /**
+     * 开启代理传输，或文件为打包存储时，由服务端传输文件内容
+     * 打包存储的文件没有独立地址，未开启代理传输时也由服务端传输
+     *
+     * @param fileKey     文件KEY
+     * @param userId      用户编号
+     * @param disposition 请求的Content-Disposition类型
+     * @param exchange    当前请求
+     * @return 代理传输响应，无需代理传输时为空
+     */
+    private Mono<ResponseEntity<Flux<DataBuffer>>> proxyIfRequired(String fileKey, String userId, String disposition, ServerWebExchange exchange) {
+        boolean proxyEnabled = properties.getProxy().isEnable();
+        if (!proxyEnabled && !properties.getPack().isEnable()) {
+            return Mono.empty();
+        }
+        return Mono.fromFuture(() -> asyncStorageService.one(fileKey, userId))
+                .filter(metadata -> proxyEnabled || Boolean.TRUE.equals(metadata.getIsPacked()))
+                .flatMap(metadata -> this.proxy(metadata, disposition, exchange));
+    }
+
+    /**
+     * 代理传输文件内容
+     * 支持单个Range请求和条件请求，文件流在弹性线程池中读取，不阻塞事件循环线程
+     *
+     * @param metadata    有访问权限的文件元数据
+     * @param disposition 请求的Content-Disposition类型
+     * @param exchange    当前请求
+     * @return 代理传输响应
+     */
+    private Mono<ResponseEntity<Flux<DataBuffer>>> proxy(FileMetadataInfoVo metadata, String disposition, ServerWebExchange exchange) {
+
+        String etag = "\"" + metadata.getFileMd5() + "\"";
+        long lastModified = metadata.getCreateTime() == null ? -1L : metadata.getCreateTime().getTime();
+
+        HttpHeaders headers = new HttpHeaders();
+        // 禁止浏览器猜测数据类型，禁止文件内容执行脚本
+        headers.set("X-Content-Type-Options", ProxyContentUtil.NOSNIFF);
+        headers.set("Content-Security-Policy", ProxyContentUtil.CONTENT_SECURITY_POLICY);
+
+        // 校验If-None-Match和If-Modified-Since，未变化时返回304
+        if (exchange.checkNotModified(etag, lastModified < 0 ? Instant.MIN : Instant.ofEpochMilli(lastModified))) {
+            return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build());
+        }
+
+        HttpHeaders requestHeaders = exchange.getRequest().getHeaders();
+        long fileSize = metadata.getFileSize();
+        Pair<Long, Long> range = ProxyContentUtil.range(requestHeaders.getFirst(HttpHeaders.RANGE),
+                requestHeaders.getFirst(HttpHeaders.IF_RANGE), etag, lastModified, fileSize);
+        if (range != null && range.getValue() <= 0) {
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + fileSize);
+            return Mono.just(ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).headers(headers).build());
+        }
+        long offset = range == null ? 0 : range.getKey();
+        long length = range == null ? fileSize : range.getValue();
+
+        if (range != null) {
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + offset + "-" + (offset + length - 1) + "/" + fileSize);
+        }
+        headers.set(HttpHeaders.CONTENT_TYPE, ProxyContentUtil.contentType(metadata.getStorageBucket(), metadata.getFileMimeType()));
+        headers.setContentLength(length);
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        headers.setETag(etag);
+        // 每次访问都需要校验权限，浏览器使用缓存前先发送条件请求
+        headers.setCacheControl("private, no-cache");
+        headers.setContentDisposition(ContentDisposition.builder(ProxyContentUtil.disposition(disposition, metadata.getStorageBucket(), metadata.getFileMimeType()))
+                .filename(metadata.getFileName(), StandardCharsets.UTF_8).build());
+
+        HttpStatus status = range != null ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK;
+        String fileKey = metadata.getFileKey();
+        long readOffset = offset;
+        long readLength = length;
+        // 先打开文件流，读取失败时返回错误响应而不是中断已开始的响应
+        return Mono.fromFuture(() -> asyncStorageService.readStream(fileKey, readOffset, readLength))
+                .switchIfEmpty(Mono.error(() -> new MinioPlusException(MinioPlusErrorCode.FILE_EXIST_FAILED)))
+                .map(stream -> {
+                    Flux<DataBuffer> body = DataBufferUtils.readInputStream(stream::getValue, DefaultDataBufferFactory.sharedInstance,
+                                    properties.getProxy().getBufferSize())
+                            .subscribeOn(Schedulers.boundedElastic())
+                            // 客户端中断连接（如视频拖动进度）时只记录日志
+                            .doOnError(e -> log.debug("代理传输中断fileKey=" + fileKey + ":" + e.getMessage()));
+                    return ResponseEntity.status(status).headers(headers).body(body);
+                });
+    }
+
+    /**
+     * 组装重定向响应
+     * 开启签名时间窗口时，按窗口剩余时长设置缓存头，窗口结束后服务端会签发新的地址，缓存随之失效
+     *
+     * @param url 重定向地址
+     * @return 重定向响应
+     */
+    private <T> ResponseEntity<T> redirect(String url) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(HttpStatus.FOUND).location(URI.create(url));
+        if (SignWindowUtil.isEnabled(properties.getDownloadSignWindow(), properties.getDownloadExpiry())) {
+            long maxAge = SignWindowUtil.secondsToWindowEnd(Instant.now().getEpochSecond(), properties.getDownloadSignWindow());
+            builder.header(HttpHeaders.CACHE_CONTROL, "private, max-age=" + maxAge);
+        }
+        return builder.build();
+    }
+
+}
@@ -0,0 +1,161 @@
+package org.liuxp.minioplus.extension.controller;
+
+import cn.hutool.core.lang.Pair;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.liuxp.minioplus.api.AsyncStorageService;
+import org.liuxp.minioplus.api.StorageService;
+import org.liuxp.minioplus.api.model.vo.FileMetadataInfoVo;
+import org.liuxp.minioplus.common.config.MinioPlusProperties;
+import org.liuxp.minioplus.common.enums.StorageBucketEnums;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 响应式代理传输的Range请求、条件请求和重定向测试
+ *
+ * @author contact@liuxp.me
+ * @since 2026/10/18
+ */
+class ReactiveStorageControllerProxyTest {
+
+    private static final String FILE_KEY = "file-key";
+
+    private static final String FILE_MD5 = "0123456789abcdef0123456789abcdef";
+
+    private static final String ETAG = "\"" + FILE_MD5 + "\"";
+
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.US_ASCII);
+
+    private final StorageService storageService = mock(StorageService.class);
+
+    private final AsyncStorageService asyncStorageService = mock(AsyncStorageService.class);
+
+    private final MinioPlusProperties properties = new MinioPlusProperties();
+
+    private final FileMetadataInfoVo metadata = new FileMetadataInfoVo();
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        properties.getProxy().setEnable(true);
+
+        metadata.setFileKey(FILE_KEY);
+        metadata.setFileMd5(FILE_MD5);
+        metadata.setFileName("a.html");
+        metadata.setFileMimeType("text/html");
+        metadata.setFileSize((long) CONTENT.length);
+        metadata.setStorageBucket(StorageBucketEnums.DOCUMENT.getCode());
+        metadata.setCreateTime(new Date(1_700_000_000_000L));
+
+        when(asyncStorageService.one(eq(FILE_KEY), any())).thenAnswer(invocation -> CompletableFuture.completedFuture(metadata));
+        when(asyncStorageService.readStream(eq(FILE_KEY), anyLong(), anyLong())).thenAnswer(invocation -> {
+            int offset = (int) (long) invocation.getArgument(1);
+            int length = (int) (long) invocation.getArgument(2);
+            return CompletableFuture.completedFuture(Pair.of(metadata, new ByteArrayInputStream(Arrays.copyOfRange(CONTENT, offset, offset + length))));
+        });
+
+        client = WebTestClient.bindToController(new ReactiveStorageController(storageService, asyncStorageService, properties)).build();
+    }
+
+    @Test
+    void fullContentIsServedAsAttachment() {
+        client.get().uri(StorageWebAPI.ROOT_PATH + "/download/" + FILE_KEY)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentLength(10)
+                .expectHeader().valueEquals(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .expectHeader().valueEquals(HttpHeaders.ETAG, ETAG)
+                .expectHeader().valueEquals("X-Content-Type-Options", "nosniff")
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_TYPE, "application/octet-stream")
+                .expectBody().consumeWith(result -> assertArrayEquals(CONTENT, result.getResponseBody()));
+    }
+
+    @Test
+    void singleRangeReturnsPartialContent() {
+        client.get().uri(StorageWebAPI.ROOT_PATH + "/download/" + FILE_KEY)
+                .header(HttpHeaders.RANGE, "bytes=2-5")
+                .exchange()
+                .expectStatus().isEqualTo(206)
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10")
+                .expectHeader().contentLength(4)
+                .expectBody().consumeWith(result -> assertArrayEquals("2345".getBytes(StandardCharsets.US_ASCII), result.getResponseBody()));
+        verify(asyncStorageService).readStream(FILE_KEY, 2L, 4L);
+    }
+
+    @Test
+    void unsatisfiableRangeReturns416() {
+        client.get().uri(StorageWebAPI.ROOT_PATH + "/download/" + FILE_KEY)
+                .header(HttpHeaders.RANGE, "bytes=20-30")
+                .exchange()
+                .expectStatus().isEqualTo(416)
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_RANGE, "bytes */10");
+        verify(asyncStorageService, never()).readStream(eq(FILE_KEY), anyLong(), anyLong());
+    }
+
+    @Test
+    void mismatchedIfRangeReturnsFullContent() {
+        client.get().uri(StorageWebAPI.ROOT_PATH + "/download/" + FILE_KEY)
+                .header(HttpHeaders.RANGE, "bytes=2-5")
+                .header(HttpHeaders.IF_RANGE, "\"other\"")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().consumeWith(result -> assertArrayEquals(CONTENT, result.getResponseBody()));
+    }
+
+    @Test
+    void matchingIfNoneMatchReturns304() {
+        client.get().uri(StorageWebAPI.ROOT_PATH + "/download/" + FILE_KEY)
+                .header(HttpHeaders.IF_NONE_MATCH, ETAG)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+        verify(asyncStorageService, never()).readStream(eq(FILE_KEY), anyLong(), anyLong());
+    }
+
+    @Test
+    void redirectsWhenProxyIsNotRequired() {
+        properties.getProxy().setEnable(false);
+        when(asyncStorageService.download(eq(FILE_KEY), nullable(String.class)))
+                .thenReturn(CompletableFuture.completedFuture("http://minio/document/a.html"));
+
+        client.get().uri(StorageWebAPI.ROOT_PATH + "/download/" + FILE_KEY)
+                .exchange()
+                .expectStatus().isFound()
+                .expectHeader().location("http://minio/document/a.html");
+        verify(asyncStorageService, never()).one(eq(FILE_KEY), any());
+    }
+
+    @Test
+    void unpackedFileRedirectsWhenOnlyPackIsEnabled() {
+        properties.getProxy().setEnable(false);
+        properties.getPack().setEnable(true);
+        metadata.setIsPacked(false);
+        when(asyncStorageService.download(eq(FILE_KEY), nullable(String.class)))
+                .thenReturn(CompletableFuture.completedFuture("http://minio/document/a.html"));
+
+        client.get().uri(StorageWebAPI.ROOT_PATH + "/download/" + FILE_KEY)
+                .exchange()
+                .expectStatus().isFound()
+                .expectHeader().location("http://minio/document/a.html");
+        verify(asyncStorageService, never()).readStream(eq(FILE_KEY), anyLong(), anyLong());
+    }
+
+}